@@ -0,0 +1,65 @@
+package mcts.games;
+
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.games.connectfour.ConnectFourAiService;
+import mcts.games.connectfour.ConnectFourGame;
+import mcts.games.pig.PigAiService;
+import mcts.games.pig.PigGame;
+import mcts.games.tictactoe.TicTacToeAiService;
+import mcts.games.tictactoe.TicTacToeGame;
+import mcts.services.AiService;
+
+/**
+ * The games that are implemented to measure and compare the search, each with the game logic the ai needs
+ */
+public enum ReferenceGame {
+    TIC_TAC_TOE {
+        @Override
+        public Game createGame() {
+            return new TicTacToeGame();
+        }
+
+        @Override
+        public AiService createAiService(AiConfig aiConfig) {
+            return new TicTacToeAiService(aiConfig);
+        }
+    },
+    CONNECT_FOUR {
+        @Override
+        public Game createGame() {
+            return new ConnectFourGame();
+        }
+
+        @Override
+        public AiService createAiService(AiConfig aiConfig) {
+            return new ConnectFourAiService(aiConfig);
+        }
+    },
+    PIG {
+        @Override
+        public Game createGame() {
+            return new PigGame();
+        }
+
+        @Override
+        public AiService createAiService(AiConfig aiConfig) {
+            return new PigAiService(aiConfig);
+        }
+    };
+
+    /**
+     * Create the start position of the game
+     *
+     * @return a new game state
+     */
+    public abstract Game createGame();
+
+    /**
+     * Create the game logic of the game for the ai
+     *
+     * @param aiConfig the settings of the ai
+     * @return the game logic
+     */
+    public abstract AiService createAiService(AiConfig aiConfig);
+}
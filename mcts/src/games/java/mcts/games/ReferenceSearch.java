@@ -0,0 +1,38 @@
+package mcts.games;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import mcts.services.DistributedCoordinatorService;
+import mcts.services.MonteCarloService;
+import mcts.services.PositionCacheService;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A search created by ReferenceSetup together with the resources a Spring context would close for it:
+ * the search threads, the position cache and the connections of the coordinator
+ */
+@RequiredArgsConstructor
+public class ReferenceSearch implements AutoCloseable {
+    @Getter
+    private final MonteCarloService monteCarloService;
+    private final ExecutorService searchExecutor;
+    /**
+     * The threads the search executor started so far, a thread is added when the pool starts it
+     */
+    @Getter
+    private final List<Thread> searchThreads;
+    private final PositionCacheService positionCacheService;
+    private final DistributedCoordinatorService distributedCoordinatorService;
+
+    /**
+     * Stop the search threads, write the position cache to its file and close the connections to the workers
+     */
+    @Override
+    public void close() {
+        distributedCoordinatorService.stop();
+        searchExecutor.shutdownNow();
+        positionCacheService.close();
+    }
+}
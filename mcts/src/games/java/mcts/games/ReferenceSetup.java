@@ -0,0 +1,105 @@
+package mcts.games;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mcts.config.AiConfig;
+import mcts.config.SelectionPolicyConfig;
+import mcts.domain.ai.UCT;
+import mcts.domain.ai.evaluation.LeafEvaluator;
+import mcts.services.AiService;
+import mcts.services.AmafService;
+import mcts.services.ArrayTreeSearchService;
+import mcts.services.DistributedCoordinatorService;
+import mcts.services.MonteCarloService;
+import mcts.services.PositionCacheService;
+import mcts.services.RolloutService;
+import mcts.services.SearchBudgetService;
+import mcts.services.SearchMetricsService;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the services of the ai without a Spring context, for the benchmarks and the self-play runs of the reference games
+ */
+public final class ReferenceSetup {
+
+    private static final String PROPERTIES = "application.properties";
+
+    private ReferenceSetup() {
+    }
+
+    /**
+     * Create the settings of the ai from application.properties, the same way the Spring context binds them
+     *
+     * @return the default settings
+     */
+    public static AiConfig createConfig() {
+        Properties properties;
+        try {
+            properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource(PROPERTIES));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + PROPERTIES, e);
+        }
+        return new Binder(new MapConfigurationPropertySource(properties)).bindOrCreate("ai", AiConfig.class);
+    }
+
+    /**
+     * Create the search for a game, it has to be closed when it is no longer used
+     *
+     * @param aiConfig  the settings of the ai
+     * @param aiService the game logic of the game
+     * @return the search
+     */
+    public static ReferenceSearch createSearch(AiConfig aiConfig, AiService aiService) {
+        return createSearch(aiConfig, aiService, null);
+    }
+
+    /**
+     * Create the search for a game that evaluates its leaves with a leaf evaluator when 'useLeafEvaluator' is set
+     *
+     * @param aiConfig      the settings of the ai
+     * @param aiService     the game logic of the game
+     * @param leafEvaluator the leaf evaluator, null for none
+     * @return the search, it has to be closed when it is no longer used
+     */
+    public static ReferenceSearch createSearch(AiConfig aiConfig, AiService aiService, LeafEvaluator leafEvaluator) {
+        //the threads are kept so the cost of a search can be measured over all of them
+        List<Thread> searchThreads = new CopyOnWriteArrayList<>();
+        ExecutorService searchExecutor = Executors.newFixedThreadPool(aiConfig.getSearchThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "mcts-search");
+            thread.setDaemon(true);
+            searchThreads.add(thread);
+            return thread;
+        });
+        UCT uct = new UCT(SelectionPolicyConfig.createSelectionPolicy(aiConfig));
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        if (leafEvaluator != null) {
+            beanFactory.addBean("leafEvaluator", leafEvaluator);
+        }
+        PositionCacheService positionCacheService = new PositionCacheService(aiConfig, aiService);
+        positionCacheService.open();
+        DistributedCoordinatorService distributedCoordinatorService = new DistributedCoordinatorService(aiConfig, aiService);
+        distributedCoordinatorService.start();
+        SearchMetricsService searchMetricsService = new SearchMetricsService(new SimpleMeterRegistry());
+        RolloutService rolloutService = new RolloutService(aiConfig, aiService, searchExecutor, beanFactory.getBeanProvider(LeafEvaluator.class));
+        AmafService amafService = new AmafService(aiConfig, aiService);
+        SearchBudgetService searchBudgetService = new SearchBudgetService(aiConfig);
+        ArrayTreeSearchService arrayTreeSearchService = new ArrayTreeSearchService(aiConfig, aiService, uct, searchMetricsService,
+                rolloutService, searchBudgetService, positionCacheService);
+        MonteCarloService monteCarloService = new MonteCarloService(aiConfig, aiService, uct, searchExecutor, searchMetricsService,
+                rolloutService, amafService, searchBudgetService, arrayTreeSearchService, positionCacheService, distributedCoordinatorService);
+        return new ReferenceSearch(monteCarloService, searchExecutor, Collections.unmodifiableList(searchThreads),
+                positionCacheService, distributedCoordinatorService);
+    }
+}
@@ -0,0 +1,44 @@
+package mcts.games;
+
+import mcts.config.AiConfig;
+import mcts.services.AiService;
+import mcts.services.DistributedWorkerService;
+
+/**
+ * Runs a worker of a distributed search for one of the reference games, so a distributed search can be tried with
+ * several processes on one machine. The arguments are the name of the game and the port, which defaults to 'distributedWorkerPort'
+ */
+public final class ReferenceWorker {
+
+    private ReferenceWorker() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: ReferenceWorker <game> [port]");
+        }
+        ReferenceGame referenceGame = ReferenceGame.valueOf(args[0]);
+        AiConfig aiConfig = ReferenceSetup.createConfig();
+        aiConfig.setUseDistributedWorker(true);
+        if (args.length > 1) {
+            aiConfig.setDistributedWorkerPort(Integer.parseInt(args[1]));
+        }
+        start(referenceGame, aiConfig);
+        Thread.currentThread().join();
+    }
+
+    /**
+     * Start a worker for a reference game, its search stays open for as long as the process runs
+     *
+     * @param referenceGame the game the worker searches
+     * @param aiConfig      the settings of the worker, 'useDistributedWorker' has to be set
+     * @return the started worker
+     */
+    public static DistributedWorkerService start(ReferenceGame referenceGame, AiConfig aiConfig) {
+        AiService aiService = referenceGame.createAiService(aiConfig);
+        DistributedWorkerService worker = new DistributedWorkerService(aiConfig, aiService,
+                ReferenceSetup.createSearch(aiConfig, aiService).getMonteCarloService());
+        worker.start();
+        return worker;
+    }
+}
@@ -0,0 +1,76 @@
+package mcts.games.connectfour;
+
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.Action;
+import mcts.services.AiService;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The game logic of connect four for the ai
+ */
+public class ConnectFourAiService extends AiService {
+    private final AiConfig aiConfig;
+
+    public ConnectFourAiService(AiConfig aiConfig) {
+        super(aiConfig);
+        this.aiConfig = aiConfig;
+    }
+
+    @Override
+    public List<Action> getLegalActions(Game game) {
+        ConnectFourGame connectFourGame = (ConnectFourGame) game;
+        List<Action> legalActions = new ArrayList<>(ConnectFourGame.COLUMNS);
+        if (connectFourGame.getWinner() != ConnectFourGame.EMPTY) {
+            return legalActions;
+        }
+        int[] heights = connectFourGame.getHeights();
+        for (int column = 0; column < heights.length; column++) {
+            if (heights[column] < ConnectFourGame.ROWS) {
+                legalActions.add(ConnectFourMove.of(column));
+            }
+        }
+        return legalActions;
+    }
+
+    @Override
+    public int getStatus(Game game, boolean stoppedSimulation) {
+        ConnectFourGame connectFourGame = (ConnectFourGame) game;
+        if (connectFourGame.getWinner() != ConnectFourGame.EMPTY) {
+            return connectFourGame.getWinner();
+        }
+        if (connectFourGame.isFull() || stoppedSimulation) {
+            return aiConfig.getDraw();
+        }
+        return aiConfig.getOngoingGame();
+    }
+
+    @Override
+    public int getCurrentPlayer(Game game) {
+        return ((ConnectFourGame) game).getCurrentPlayer();
+    }
+
+    @Override
+    public boolean isSameState(Game game, Game otherGame) {
+        ConnectFourGame connectFourGame = (ConnectFourGame) game;
+        ConnectFourGame otherConnectFourGame = (ConnectFourGame) otherGame;
+        return connectFourGame.getCurrentPlayer() == otherConnectFourGame.getCurrentPlayer()
+                && Arrays.equals(connectFourGame.getBoard(), otherConnectFourGame.getBoard());
+    }
+
+    @Override
+    protected void writeGame(Game game, DataOutput out) throws IOException {
+        ((ConnectFourGame) game).write(out);
+    }
+
+    @Override
+    protected Game readGame(DataInput in) throws IOException {
+        return ConnectFourGame.read(in);
+    }
+}
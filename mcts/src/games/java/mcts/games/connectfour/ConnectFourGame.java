@@ -0,0 +1,193 @@
+package mcts.games.connectfour;
+
+import lombok.Getter;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.ActionBuckets;
+import mcts.domain.ai.actions.IncrementalActions;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A game of connect four on a board of 7 columns and 6 rows. The state hash is a zobrist hash that is updated
+ * with every disc that is dropped or removed. The columns that aren't full are kept as the legal actions for the rollouts
+ */
+@Getter
+public class ConnectFourGame extends Game implements IncrementalActions {
+    public static final int COLUMNS = 7;
+    public static final int ROWS = 6;
+    public static final int EMPTY = -1;
+    private static final long[][] ZOBRIST = new long[2][COLUMNS * ROWS];
+    private static final ActionBuckets NO_ACTIONS = new ActionBuckets();
+
+    static {
+        SplittableRandom random = new SplittableRandom(4);
+        for (long[] playerKeys : ZOBRIST) {
+            for (int i = 0; i < playerKeys.length; i++) {
+                playerKeys[i] = random.nextLong();
+            }
+        }
+    }
+
+    private final int[] board;
+    private final int[] heights;
+    private final ActionBuckets actionBuckets;
+    private int currentPlayer;
+    private int moves;
+    private int winner = EMPTY;
+
+    public ConnectFourGame() {
+        this.board = new int[COLUMNS * ROWS];
+        this.heights = new int[COLUMNS];
+        this.actionBuckets = new ActionBuckets();
+        Arrays.fill(board, EMPTY);
+        resetActionBuckets();
+    }
+
+    public ConnectFourGame(ConnectFourGame game) {
+        super(game);
+        this.board = game.board.clone();
+        this.heights = game.heights.clone();
+        this.actionBuckets = new ActionBuckets(game.actionBuckets);
+        this.currentPlayer = game.currentPlayer;
+        this.moves = game.moves;
+        this.winner = game.winner;
+    }
+
+    @Override
+    public Game copy() {
+        return new ConnectFourGame(this);
+    }
+
+    /**
+     * Drop a disc of the current player in a column and give the turn to the other player
+     *
+     * @param column a column that isn't full
+     */
+    public void drop(int column) {
+        int cell = column * ROWS + heights[column]++;
+        board[cell] = currentPlayer;
+        if (heights[column] == ROWS) {
+            actionBuckets.remove(ConnectFourMove.of(column));
+        }
+        setStateHash(getStateHash() ^ ZOBRIST[currentPlayer][cell]);
+        if (isFourInARow(column, heights[column] - 1)) {
+            winner = currentPlayer;
+        }
+        currentPlayer = 1 - currentPlayer;
+        moves++;
+    }
+
+    /**
+     * Remove the disc that was dropped last and give the turn back. A disc can only be dropped in a game without a winner,
+     * so the game has no winner after removing it
+     *
+     * @param column the column of the last disc
+     */
+    public void remove(int column) {
+        if (heights[column] == ROWS) {
+            actionBuckets.add(ConnectFourMove.of(column));
+        }
+        int cell = column * ROWS + --heights[column];
+        currentPlayer = 1 - currentPlayer;
+        setStateHash(getStateHash() ^ ZOBRIST[currentPlayer][cell]);
+        board[cell] = EMPTY;
+        winner = EMPTY;
+        moves--;
+    }
+
+    public boolean isFull() {
+        return moves == board.length;
+    }
+
+    @Override
+    public ActionBuckets getActionBuckets() {
+        return winner != EMPTY ? NO_ACTIONS : actionBuckets;
+    }
+
+    /**
+     * Make the columns that aren't full the legal actions again, after the board was filled in without dropping discs
+     */
+    private void resetActionBuckets() {
+        actionBuckets.clear();
+        for (int column = 0; column < COLUMNS; column++) {
+            if (heights[column] < ROWS) {
+                actionBuckets.add(ConnectFourMove.of(column));
+            }
+        }
+    }
+
+    /**
+     * Check whether the disc in a cell is part of four discs of the same player in a row
+     *
+     * @param column    the column of the disc
+     * @param row       the row of the disc
+     * @return true if the disc makes four in a row
+     */
+    private boolean isFourInARow(int column, int row) {
+        int player = board[column * ROWS + row];
+        return countLine(column, row, 1, 0, player) >= 4 || countLine(column, row, 0, 1, player) >= 4
+                || countLine(column, row, 1, 1, player) >= 4 || countLine(column, row, 1, -1, player) >= 4;
+    }
+
+    private int countLine(int column, int row, int columnStep, int rowStep, int player) {
+        return 1 + countDirection(column, row, columnStep, rowStep, player) + countDirection(column, row, -columnStep, -rowStep, player);
+    }
+
+    private int countDirection(int column, int row, int columnStep, int rowStep, int player) {
+        int count = 0;
+        int c = column + columnStep;
+        int r = row + rowStep;
+        while (c >= 0 && c < COLUMNS && r >= 0 && r < ROWS && board[c * ROWS + r] == player) {
+            count++;
+            c += columnStep;
+            r += rowStep;
+        }
+        return count;
+    }
+
+    /**
+     * Write the board, the turn and the winner, so the game can be sent to a worker of a distributed search
+     *
+     * @param out the output to write to
+     * @throws IOException when the output can't be written
+     */
+    public void write(DataOutput out) throws IOException {
+        for (int cell : board) {
+            out.writeByte(cell);
+        }
+        for (int height : heights) {
+            out.writeByte(height);
+        }
+        out.writeByte(currentPlayer);
+        out.writeByte(moves);
+        out.writeByte(winner);
+        out.writeLong(getStateHash());
+    }
+
+    /**
+     * Read a game that was written by write
+     *
+     * @param in the input to read from
+     * @return the game
+     * @throws IOException when the input can't be read
+     */
+    public static ConnectFourGame read(DataInput in) throws IOException {
+        ConnectFourGame game = new ConnectFourGame();
+        for (int cell = 0; cell < game.board.length; cell++) {
+            game.board[cell] = in.readByte();
+        }
+        for (int column = 0; column < game.heights.length; column++) {
+            game.heights[column] = in.readByte();
+        }
+        game.currentPlayer = in.readByte();
+        game.moves = in.readByte();
+        game.winner = in.readByte();
+        game.setStateHash(in.readLong());
+        game.resetActionBuckets();
+        return game;
+    }
+}
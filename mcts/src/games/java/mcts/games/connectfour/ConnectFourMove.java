@@ -0,0 +1,53 @@
+package mcts.games.connectfour;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.ReversibleAction;
+
+/**
+ * Drop a disc of the current player in a column
+ */
+@Getter
+@RequiredArgsConstructor
+public class ConnectFourMove implements ReversibleAction {
+    private static final ConnectFourMove[] MOVES = new ConnectFourMove[ConnectFourGame.COLUMNS];
+
+    static {
+        for (int column = 0; column < MOVES.length; column++) {
+            MOVES[column] = new ConnectFourMove(column);
+        }
+    }
+
+    private final int column;
+
+    /**
+     * Get the shared move of a column, the moves are immutable so every game uses the same instances
+     *
+     * @param column the column
+     * @return the move
+     */
+    public static ConnectFourMove of(int column) {
+        return MOVES[column];
+    }
+
+    @Override
+    public void apply(Game game) {
+        ((ConnectFourGame) game).drop(column);
+    }
+
+    @Override
+    public void undo(Game game) {
+        ((ConnectFourGame) game).remove(column);
+    }
+
+    @Override
+    public long getActionKey() {
+        return column;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectFourMove(" + column + ")";
+    }
+}
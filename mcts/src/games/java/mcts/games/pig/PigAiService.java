@@ -0,0 +1,92 @@
+package mcts.games.pig;
+
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.Action;
+import mcts.services.AiService;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The game logic of pig for the ai. Rolling the die is offered as its six outcomes, so the search puts them
+ * under a chance node
+ */
+public class PigAiService extends AiService {
+    private static final PigRoll[] ROLLS = new PigRoll[6];
+    private static final PigHold HOLD = new PigHold();
+
+    static {
+        for (int value = 1; value <= ROLLS.length; value++) {
+            ROLLS[value - 1] = new PigRoll(value);
+        }
+    }
+
+    private final AiConfig aiConfig;
+
+    public PigAiService(AiConfig aiConfig) {
+        super(aiConfig);
+        this.aiConfig = aiConfig;
+    }
+
+    @Override
+    public List<Action> getLegalActions(Game game) {
+        PigGame pigGame = (PigGame) game;
+        List<Action> legalActions = new ArrayList<>(ROLLS.length + 1);
+        if (pigGame.getWinner() != -1) {
+            return legalActions;
+        }
+        legalActions.addAll(Arrays.asList(ROLLS));
+        //holding without points only passes the turn
+        if (pigGame.getTurnTotal() > 0) {
+            legalActions.add(HOLD);
+        }
+        return legalActions;
+    }
+
+    @Override
+    public int getStatus(Game game, boolean stoppedSimulation) {
+        int winner = ((PigGame) game).getWinner();
+        if (winner != -1) {
+            return winner;
+        }
+        if (stoppedSimulation) {
+            return aiConfig.getDraw();
+        }
+        return aiConfig.getOngoingGame();
+    }
+
+    @Override
+    public int getCurrentPlayer(Game game) {
+        return ((PigGame) game).getCurrentPlayer();
+    }
+
+    @Override
+    public boolean isSameState(Game game, Game otherGame) {
+        PigGame pigGame = (PigGame) game;
+        PigGame otherPigGame = (PigGame) otherGame;
+        return pigGame.getCurrentPlayer() == otherPigGame.getCurrentPlayer() && pigGame.getTurnTotal() == otherPigGame.getTurnTotal()
+                && Arrays.equals(pigGame.getScores(), otherPigGame.getScores());
+    }
+
+    @Override
+    public long getStateHash(Game game) {
+        PigGame pigGame = (PigGame) game;
+        return ((long) pigGame.getScores()[0] << 32) ^ ((long) pigGame.getScores()[1] << 16) ^ ((long) pigGame.getTurnTotal() << 1)
+                ^ pigGame.getCurrentPlayer();
+    }
+
+    @Override
+    protected void writeGame(Game game, DataOutput out) throws IOException {
+        ((PigGame) game).write(out);
+    }
+
+    @Override
+    protected Game readGame(DataInput in) throws IOException {
+        return PigGame.read(in);
+    }
+}
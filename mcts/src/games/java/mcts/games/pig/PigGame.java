@@ -0,0 +1,107 @@
+package mcts.games.pig;
+
+import lombok.Getter;
+import mcts.domain.Game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A game of pig. The current player rolls a die as often as they want and adds the rolls to the total of the turn,
+ * until they hold and the total is added to their score. Rolling a one loses the total of the turn.
+ * The first player to reach the target score wins
+ */
+@Getter
+public class PigGame extends Game {
+    public static final int TARGET_SCORE = 50;
+
+    private final int[] scores;
+    private int turnTotal;
+    private int currentPlayer;
+
+    public PigGame() {
+        this.scores = new int[2];
+    }
+
+    public PigGame(PigGame game) {
+        super(game);
+        this.scores = game.scores.clone();
+        this.turnTotal = game.turnTotal;
+        this.currentPlayer = game.currentPlayer;
+    }
+
+    @Override
+    public Game copy() {
+        return new PigGame(this);
+    }
+
+    /**
+     * Add a roll of the die to the turn, a one ends the turn without points
+     *
+     * @param value the value of the die
+     */
+    public void roll(int value) {
+        if (value == 1) {
+            turnTotal = 0;
+            currentPlayer = 1 - currentPlayer;
+        }
+        else {
+            turnTotal += value;
+        }
+    }
+
+    /**
+     * Add the total of the turn to the score of the current player and give the turn to the other player
+     */
+    public void hold() {
+        scores[currentPlayer] += turnTotal;
+        turnTotal = 0;
+        currentPlayer = 1 - currentPlayer;
+    }
+
+    /**
+     * Get the player who reached the target score
+     *
+     * @return the winner, -1 when nobody has won
+     */
+    public int getWinner() {
+        for (int player = 0; player < scores.length; player++) {
+            if (scores[player] >= TARGET_SCORE) {
+                return player;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Write the scores and the turn, so the game can be sent to a worker of a distributed search
+     *
+     * @param out the output to write to
+     * @throws IOException when the output can't be written
+     */
+    public void write(DataOutput out) throws IOException {
+        for (int score : scores) {
+            out.writeInt(score);
+        }
+        out.writeInt(turnTotal);
+        out.writeByte(currentPlayer);
+    }
+
+    /**
+     * Read a game that was written by write
+     *
+     * @param in the input to read from
+     * @return the game
+     * @throws IOException when the input can't be read
+     */
+    public static PigGame read(DataInput in) throws IOException {
+        PigGame game = new PigGame();
+        for (int player = 0; player < game.scores.length; player++) {
+            game.scores[player] = in.readInt();
+        }
+        game.turnTotal = in.readInt();
+        game.currentPlayer = in.readByte();
+        return game;
+    }
+}
@@ -0,0 +1,26 @@
+package mcts.games.pig;
+
+import mcts.domain.Game;
+import mcts.domain.ai.actions.Action;
+
+/**
+ * End the turn and keep the total of the turn
+ */
+public class PigHold implements Action {
+
+    @Override
+    public Game performAction(Game game) {
+        ((PigGame) game).hold();
+        return game;
+    }
+
+    @Override
+    public long getActionKey() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "PigHold";
+    }
+}
@@ -0,0 +1,29 @@
+package mcts.games.pig;
+
+import lombok.Getter;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.ChanceAction;
+
+/**
+ * One of the six outcomes of rolling the die, all the outcomes together form one chance node
+ */
+@Getter
+public class PigRoll extends ChanceAction {
+    private final int value;
+
+    public PigRoll(int value) {
+        super(1.0 / 6);
+        this.value = value;
+    }
+
+    @Override
+    public Game performAction(Game game) {
+        ((PigGame) game).roll(value);
+        return game;
+    }
+
+    @Override
+    public String toString() {
+        return "PigRoll(" + value + ")";
+    }
+}
@@ -0,0 +1,87 @@
+package mcts.games.tictactoe;
+
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.Action;
+import mcts.services.AiService;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The game logic of tic-tac-toe for the ai
+ */
+public class TicTacToeAiService extends AiService {
+    private final AiConfig aiConfig;
+
+    public TicTacToeAiService(AiConfig aiConfig) {
+        super(aiConfig);
+        this.aiConfig = aiConfig;
+    }
+
+    @Override
+    public List<Action> getLegalActions(Game game) {
+        TicTacToeGame ticTacToeGame = (TicTacToeGame) game;
+        List<Action> legalActions = new ArrayList<>(9);
+        if (ticTacToeGame.getWinner() != TicTacToeGame.EMPTY) {
+            return legalActions;
+        }
+        int[] board = ticTacToeGame.getBoard();
+        for (int cell = 0; cell < board.length; cell++) {
+            if (board[cell] == TicTacToeGame.EMPTY) {
+                legalActions.add(TicTacToeMove.of(cell));
+            }
+        }
+        return legalActions;
+    }
+
+    @Override
+    public int getStatus(Game game, boolean stoppedSimulation) {
+        TicTacToeGame ticTacToeGame = (TicTacToeGame) game;
+        int winner = ticTacToeGame.getWinner();
+        if (winner != TicTacToeGame.EMPTY) {
+            return winner;
+        }
+        if (ticTacToeGame.isFull() || stoppedSimulation) {
+            return aiConfig.getDraw();
+        }
+        return aiConfig.getOngoingGame();
+    }
+
+    @Override
+    public int getCurrentPlayer(Game game) {
+        return ((TicTacToeGame) game).getCurrentPlayer();
+    }
+
+    @Override
+    public boolean isSameState(Game game, Game otherGame) {
+        TicTacToeGame ticTacToeGame = (TicTacToeGame) game;
+        TicTacToeGame otherTicTacToeGame = (TicTacToeGame) otherGame;
+        return ticTacToeGame.getCurrentPlayer() == otherTicTacToeGame.getCurrentPlayer()
+                && Arrays.equals(ticTacToeGame.getBoard(), otherTicTacToeGame.getBoard());
+    }
+
+    @Override
+    public long getStateHash(Game game) {
+        //every cell is a digit in base 3, the current player follows from the number of marks
+        long hash = 0;
+        for (int cell : ((TicTacToeGame) game).getBoard()) {
+            hash = hash * 3 + cell + 1;
+        }
+        return hash;
+    }
+
+    @Override
+    protected void writeGame(Game game, DataOutput out) throws IOException {
+        ((TicTacToeGame) game).write(out);
+    }
+
+    @Override
+    protected Game readGame(DataInput in) throws IOException {
+        return TicTacToeGame.read(in);
+    }
+}
@@ -0,0 +1,143 @@
+package mcts.games.tictactoe;
+
+import lombok.Getter;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.ActionBuckets;
+import mcts.domain.ai.actions.IncrementalActions;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A game of tic-tac-toe, the cells of the board are numbered from 0 to 8 row by row.
+ * The empty cells are kept as the legal actions for the rollouts
+ */
+@Getter
+public class TicTacToeGame extends Game implements IncrementalActions {
+    public static final int EMPTY = -1;
+    private static final int[][] LINES = {
+            {0, 1, 2}, {3, 4, 5}, {6, 7, 8},
+            {0, 3, 6}, {1, 4, 7}, {2, 5, 8},
+            {0, 4, 8}, {2, 4, 6}
+    };
+    private static final ActionBuckets NO_ACTIONS = new ActionBuckets();
+
+    private final int[] board;
+    private final ActionBuckets actionBuckets;
+    private int currentPlayer;
+    private int moves;
+
+    public TicTacToeGame() {
+        this.board = new int[9];
+        this.actionBuckets = new ActionBuckets();
+        Arrays.fill(board, EMPTY);
+        resetActionBuckets();
+    }
+
+    public TicTacToeGame(TicTacToeGame game) {
+        super(game);
+        this.board = game.board.clone();
+        this.actionBuckets = new ActionBuckets(game.actionBuckets);
+        this.currentPlayer = game.currentPlayer;
+        this.moves = game.moves;
+    }
+
+    @Override
+    public Game copy() {
+        return new TicTacToeGame(this);
+    }
+
+    /**
+     * Put a mark of the current player in a cell and give the turn to the other player
+     *
+     * @param cell the empty cell
+     */
+    public void place(int cell) {
+        board[cell] = currentPlayer;
+        actionBuckets.remove(TicTacToeMove.of(cell));
+        currentPlayer = 1 - currentPlayer;
+        moves++;
+    }
+
+    /**
+     * Remove the mark that was placed last and give the turn back
+     *
+     * @param cell the cell of the last mark
+     */
+    public void remove(int cell) {
+        board[cell] = EMPTY;
+        actionBuckets.add(TicTacToeMove.of(cell));
+        currentPlayer = 1 - currentPlayer;
+        moves--;
+    }
+
+    /**
+     * Get the player who has three marks in a row
+     *
+     * @return the winner, EMPTY when nobody has won
+     */
+    public int getWinner() {
+        for (int[] line : LINES) {
+            int player = board[line[0]];
+            if (player != EMPTY && player == board[line[1]] && player == board[line[2]]) {
+                return player;
+            }
+        }
+        return EMPTY;
+    }
+
+    public boolean isFull() {
+        return moves == board.length;
+    }
+
+    @Override
+    public ActionBuckets getActionBuckets() {
+        return getWinner() != EMPTY ? NO_ACTIONS : actionBuckets;
+    }
+
+    /**
+     * Make the empty cells the legal actions again, after the board was filled in without placing marks
+     */
+    private void resetActionBuckets() {
+        actionBuckets.clear();
+        for (int cell = 0; cell < board.length; cell++) {
+            if (board[cell] == EMPTY) {
+                actionBuckets.add(TicTacToeMove.of(cell));
+            }
+        }
+    }
+
+    /**
+     * Write the board and the turn, so the game can be sent to a worker of a distributed search
+     *
+     * @param out the output to write to
+     * @throws IOException when the output can't be written
+     */
+    public void write(DataOutput out) throws IOException {
+        for (int cell : board) {
+            out.writeByte(cell);
+        }
+        out.writeByte(currentPlayer);
+        out.writeByte(moves);
+    }
+
+    /**
+     * Read a game that was written by write
+     *
+     * @param in the input to read from
+     * @return the game
+     * @throws IOException when the input can't be read
+     */
+    public static TicTacToeGame read(DataInput in) throws IOException {
+        TicTacToeGame game = new TicTacToeGame();
+        for (int cell = 0; cell < game.board.length; cell++) {
+            game.board[cell] = in.readByte();
+        }
+        game.currentPlayer = in.readByte();
+        game.moves = in.readByte();
+        game.resetActionBuckets();
+        return game;
+    }
+}
@@ -0,0 +1,53 @@
+package mcts.games.tictactoe;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.ReversibleAction;
+
+/**
+ * Place a mark of the current player in a cell
+ */
+@Getter
+@RequiredArgsConstructor
+public class TicTacToeMove implements ReversibleAction {
+    private static final TicTacToeMove[] MOVES = new TicTacToeMove[9];
+
+    static {
+        for (int cell = 0; cell < MOVES.length; cell++) {
+            MOVES[cell] = new TicTacToeMove(cell);
+        }
+    }
+
+    private final int cell;
+
+    /**
+     * Get the shared move of a cell, the moves are immutable so every game uses the same instances
+     *
+     * @param cell the cell
+     * @return the move
+     */
+    public static TicTacToeMove of(int cell) {
+        return MOVES[cell];
+    }
+
+    @Override
+    public void apply(Game game) {
+        ((TicTacToeGame) game).place(cell);
+    }
+
+    @Override
+    public void undo(Game game) {
+        ((TicTacToeGame) game).remove(cell);
+    }
+
+    @Override
+    public long getActionKey() {
+        return cell;
+    }
+
+    @Override
+    public String toString() {
+        return "TicTacToeMove(" + cell + ")";
+    }
+}
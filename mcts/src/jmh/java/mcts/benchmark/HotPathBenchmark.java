@@ -0,0 +1,123 @@
+package mcts.benchmark;
+
+import mcts.config.AiConfig;
+import mcts.config.SelectionPolicyConfig;
+import mcts.domain.Game;
+import mcts.domain.ai.Node;
+import mcts.domain.ai.SearchRandom;
+import mcts.domain.ai.State;
+import mcts.domain.ai.UCT;
+import mcts.games.ReferenceGame;
+import mcts.games.ReferenceSearch;
+import mcts.games.ReferenceSetup;
+import mcts.services.AiService;
+import mcts.services.MonteCarloService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the separate phases of the search on the start position of every reference game
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HotPathBenchmark {
+
+    @Param({"TIC_TAC_TOE", "CONNECT_FOUR", "PIG"})
+    private ReferenceGame referenceGame;
+
+    private ReferenceSearch search;
+    private MonteCarloService monteCarloService;
+    private UCT uct;
+    private Game game;
+    private int playerId;
+    private Node expandedNode;
+    private Node leafNode;
+    private int winner;
+
+    @Setup
+    public void setUp() {
+        AiConfig aiConfig = ReferenceSetup.createConfig();
+        AiService aiService = referenceGame.createAiService(aiConfig);
+        search = ReferenceSetup.createSearch(aiConfig, aiService);
+        monteCarloService = search.getMonteCarloService();
+        uct = new UCT(SelectionPolicyConfig.createSelectionPolicy(aiConfig));
+        SearchRandom.use(new SplittableRandom(42));
+        game = referenceGame.createGame();
+        playerId = aiService.getCurrentPlayer(game);
+
+        //a root with visited children for the selection
+        expandedNode = new Node(new State(game, playerId, null));
+        monteCarloService.expandNode(expandedNode);
+        for (int i = 0; i < 1000; i++) {
+            Node child = expandedNode.getRandomChildNode();
+            if (child.isChanceNode()) {
+                child = child.getChildByProbability();
+            }
+            monteCarloService.backPropagation(child, monteCarloService.simulateRandomPlayout(child));
+        }
+
+        //a path as deep as the game allows for the backpropagation
+        leafNode = new Node(new State(game, playerId, null));
+        while (leafNode.getState().getGame() != null && aiService.getStatus(leafNode.getState().getGame(), false) == aiConfig.getOngoingGame()
+                && getDepth(leafNode) < 40) {
+            monteCarloService.expandNode(leafNode);
+            leafNode = leafNode.getChildArray().get(0);
+            if (leafNode.isChanceNode() || leafNode.isGroupNode()) {
+                leafNode = leafNode.getChildArray().get(0);
+            }
+        }
+        winner = aiService.getCurrentPlayer(game);
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    private int getDepth(Node node) {
+        int depth = 0;
+        for (Node parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    @Benchmark
+    public Node findBestNodeWithUCT() {
+        return uct.findBestNodeWithUCT(expandedNode);
+    }
+
+    @Benchmark
+    public Node expandNode() {
+        Node node = new Node(new State(game, playerId, null));
+        monteCarloService.expandNode(node);
+        return node;
+    }
+
+    @Benchmark
+    public int simulateRandomPlayout() {
+        return monteCarloService.simulateRandomPlayout(game);
+    }
+
+    @Benchmark
+    public Node backPropagation() {
+        monteCarloService.backPropagation(leafNode, winner);
+        return leafNode;
+    }
+}
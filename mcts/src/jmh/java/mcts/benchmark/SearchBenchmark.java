@@ -0,0 +1,69 @@
+package mcts.benchmark;
+
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.SimulationResult;
+import mcts.games.ReferenceGame;
+import mcts.games.ReferenceSearch;
+import mcts.games.ReferenceSetup;
+import mcts.services.AiService;
+import mcts.services.MonteCarloService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete searches of the start position of every reference game with a fixed number of simulations
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SearchBenchmark {
+
+    @Param({"TIC_TAC_TOE", "CONNECT_FOUR", "PIG"})
+    private ReferenceGame referenceGame;
+
+    @Param({"1000", "10000"})
+    private int numberOfSimulations;
+
+    private ReferenceSearch search;
+    private MonteCarloService monteCarloService;
+    private Game game;
+    private int playerId;
+
+    @Setup
+    public void setUp() {
+        AiConfig aiConfig = ReferenceSetup.createConfig();
+        aiConfig.setUseNumberOfSimulations(true);
+        aiConfig.setNumberOfSimulations(numberOfSimulations);
+        AiService aiService = referenceGame.createAiService(aiConfig);
+        search = ReferenceSetup.createSearch(aiConfig, aiService);
+        monteCarloService = search.getMonteCarloService();
+        game = referenceGame.createGame();
+        playerId = aiService.getCurrentPlayer(game);
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public SimulationResult findNextState() {
+        return monteCarloService.findNextState(game, playerId);
+    }
+}
@@ -2,9 +2,13 @@ package mcts.config;
 
 import lombok.Getter;
 import lombok.Setter;
+import mcts.domain.ai.selection.SelectionPolicyType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Getter
 @Setter
 @Configuration
@@ -20,15 +24,131 @@ public class AiConfig {
     private int numberOfSimulations;
     private long simulationTime;
     private double learningRate;
+    private SelectionPolicyType selectionPolicy;
     private int ongoingGame;
     private long skippedSimulation;
     private boolean useRandomActionType;
     private int draw;
     private int searchDepth;
+    private boolean useInPlaceRollouts;
     private boolean lessTimeFewActions;
     private long fewActionsSimulationTime;
     private int fewActions;
     private boolean onlyRandomMoves;
     private boolean useChanceNodes;
     private boolean useGroupNodes;
+    private boolean useLazyExpansion;
+
+    //settings to run the search on multiple threads
+    private boolean useRootParallelization;
+    private boolean useTreeParallelization;
+    private int numberOfThreads;
+    private int virtualLoss;
+
+    //settings to make searches reproducible
+    private boolean useRandomSeed;
+    private long randomSeed;
+
+    //settings to store the tree in primitive arrays, only used by a single threaded search
+    private boolean useArrayTree;
+    private int arrayTreeCapacity;
+
+    //settings to reuse the tree of the previous move of a game
+    private boolean useTreeReuse;
+    private int treeReuseDepth;
+    private int maxRetainedTrees;
+    private long treeRetentionTime;
+
+    //settings to share the nodes of identical game states
+    private boolean useTranspositionTable;
+    private int transpositionTableSize;
+
+    //settings to measure the phases of every search
+    private boolean useInstrumentation;
+
+    //settings to limit the number of nodes in a tree, 0 for no limit
+    private int maxNodes;
+    private boolean usePruning;
+    private double pruneFraction;
+
+    //settings to schedule the searches of many games on a shared pool of threads
+    private int numberOfSchedulerThreads;
+    private long timeSlice;
+    private long maxSearchDelay;
+    private int maxQueuedSearches;
+
+    //settings to keep searching the tree of a game while the opponent thinks, only used by the search scheduler
+    private boolean usePondering;
+    private long maxPonderTime;
+    private int maxPonderingThreads;
+
+    //settings to stop a search before its budget is used up when the best move is decided
+    private boolean useEarlyStopping;
+    private int earlyStoppingInterval;
+    private int earlyStoppingMinVisits;
+    private double earlyStoppingConfidence;
+
+    //settings to extend a search once when the best two moves are still close at the end of its budget
+    private boolean useTimeExtension;
+    private double timeExtensionFactor;
+
+    //settings to evaluate the simulated nodes with a LeafEvaluator bean instead of random rollouts to the end of the game
+    private boolean useLeafEvaluator;
+    private int rolloutDepth;
+    private int leafBatchSize;
+
+    //settings to play multiple rollouts from every simulated node, not used when the leaves are evaluated in batches
+    private int leafRollouts;
+    private boolean useLeafParallelization;
+
+    //settings to keep the root statistics of finished searches in a memory-mapped file that survives restarts
+    private boolean usePositionCache;
+    private String positionCacheFile;
+    private int positionCacheSize;
+    private int positionCacheMoves;
+    //a position with at least this many cached visits is answered without searching, 0 to always search
+    private int positionCacheMinVisits;
+    //the cached statistics are scaled down to this many visits when they are added to the root of a new tree
+    private int positionCacheSeedVisits;
+
+    //settings to blend the all-moves-as-first statistics of the actions into their average score during the selection (RAVE)
+    private boolean useRave;
+    private int raveEquivalence;
+
+    //settings to share the simulations of a search with worker processes, the workers are given as host:port
+    private boolean useDistributedSearch;
+    private List<String> distributedWorkers = new ArrayList<>();
+    //the time the coordinator waits for the workers after its own search, a worker that answers later is left out
+    private long distributedGracePeriod;
+    private int distributedConnectTimeout;
+
+    //settings to run this process as a worker of a distributed search
+    private boolean useDistributedWorker;
+    private int distributedWorkerPort;
+    //the largest encoded game state a worker accepts, a request with a larger game state is refused before it is read
+    private int distributedMaxGameBytes;
+
+    /**
+     * Get the number of threads the search is allowed to use
+     *
+     * @return the configured number of threads, or the number of available processors when it isn't set
+     */
+    public int getSearchThreads() {
+        if (numberOfThreads <= 0) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return numberOfThreads;
+    }
+
+    /**
+     * Get the number of threads the search scheduler runs the searches of all games on
+     *
+     * @return the configured number of threads, or the number of available processors when it isn't set
+     */
+    public int getSchedulerThreads() {
+        if (numberOfSchedulerThreads <= 0) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return numberOfSchedulerThreads;
+    }
 }
\ No newline at end of file
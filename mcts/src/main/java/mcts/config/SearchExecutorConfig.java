@@ -0,0 +1,33 @@
+package mcts.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@RequiredArgsConstructor
+public class SearchExecutorConfig {
+
+    private final AiConfig aiConfig;
+
+    /**
+     * The worker pool on which parallel searches run their trees
+     *
+     * @return a fixed pool with one thread for every search thread in the config
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService searchExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "mcts-search-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(aiConfig.getSearchThreads(), threadFactory);
+    }
+}
@@ -0,0 +1,44 @@
+package mcts.config;
+
+import lombok.RequiredArgsConstructor;
+import mcts.domain.ai.selection.PuctPolicy;
+import mcts.domain.ai.selection.SelectionPolicy;
+import mcts.domain.ai.selection.Ucb1Policy;
+import mcts.domain.ai.selection.Ucb1TunedPolicy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@RequiredArgsConstructor
+public class SelectionPolicyConfig {
+
+    private final AiConfig aiConfig;
+
+    /**
+     * The formula used to select the child nodes during the search
+     *
+     * @return the selection policy chosen in the config
+     */
+    @Bean
+    public SelectionPolicy selectionPolicy() {
+        return createSelectionPolicy(aiConfig);
+    }
+
+    /**
+     * Create the selection policy that is chosen in a config
+     *
+     * @param aiConfig the config
+     * @return the selection policy
+     */
+    public static SelectionPolicy createSelectionPolicy(AiConfig aiConfig) {
+        switch (aiConfig.getSelectionPolicy()) {
+            case UCB1_TUNED:
+                return new Ucb1TunedPolicy(aiConfig.getWinScore());
+            case PUCT:
+                return new PuctPolicy(aiConfig.getLearningRate());
+            case UCB1:
+            default:
+                return new Ucb1Policy(aiConfig.getLearningRate());
+        }
+    }
+}
@@ -8,10 +8,22 @@ import lombok.Setter;
 public class Game {
 
     String id;
+    //a hash of the game state, game implementations can keep it up to date while performing actions
+    long stateHash;
 
     public Game(){}
 
     public Game(Game game) {
         this.id = game.getId();
+        this.stateHash = game.getStateHash();
+    }
+
+    /**
+     * Create a copy of this game state, games that extend this class have to return a copy of their own type
+     *
+     * @return a copy of the game state
+     */
+    public Game copy() {
+        return new Game(this);
     }
 }
@@ -3,6 +3,7 @@ package mcts.domain;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
+import mcts.domain.ai.SearchStatistics;
 import mcts.domain.ai.actions.Action;
 
 @Getter
@@ -11,4 +12,11 @@ import mcts.domain.ai.actions.Action;
 public class SimulationResult {
     private Game game;
     private Action action;
+    //null when the simulation was skipped
+    private SearchStatistics statistics;
+
+    public SimulationResult(Game game, Action action) {
+        this.game = game;
+        this.action = action;
+    }
 }
@@ -0,0 +1,86 @@
+package mcts.domain.ai;
+
+import java.util.SplittableRandom;
+
+/**
+ * A table to pick an index according to a list of probabilities in constant time, built with Vose's alias method.
+ * Every column holds the probability of keeping its own index and an alias index for the rest of the column
+ */
+public class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * Build the table, the probabilities are scaled so they add up to 1
+     *
+     * @param probabilities the probability of every index
+     */
+    public AliasTable(double[] probabilities) {
+        int size = probabilities.length;
+        if (size == 0) {
+            throw new IllegalArgumentException("Tried to build an alias table without probabilities");
+        }
+        this.probability = new double[size];
+        this.alias = new int[size];
+
+        double total = 0;
+        for (double p : probabilities) {
+            total += p;
+        }
+
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = probabilities[i] * size / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            }
+            else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            }
+            else {
+                large[largeCount++] = more;
+            }
+        }
+        //what is left over only differs from 1 by rounding errors
+        while (largeCount > 0) {
+            int more = large[--largeCount];
+            probability[more] = 1.0;
+            alias[more] = more;
+        }
+        while (smallCount > 0) {
+            int less = small[--smallCount];
+            probability[less] = 1.0;
+            alias[less] = less;
+        }
+    }
+
+    /**
+     * Pick a random index according to the probabilities
+     *
+     * @return the picked index
+     */
+    public int sample() {
+        SplittableRandom random = SearchRandom.current();
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    public int size() {
+        return probability.length;
+    }
+}
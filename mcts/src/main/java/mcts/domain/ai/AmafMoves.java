@@ -0,0 +1,105 @@
+package mcts.domain.ai;
+
+import mcts.domain.ai.actions.Action;
+
+/**
+ * The moves that were played during one simulation, as pairs of a player and the key of the action, for the
+ * all-moves-as-first statistics. The moves are kept in an open addressing hash set that is cleared in constant time,
+ * so one set can be reused by all the simulations of a thread
+ */
+public class AmafMoves {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private long[] actionKeys = new long[INITIAL_CAPACITY];
+    private int[] players = new int[INITIAL_CAPACITY];
+    //a slot is used when its stamp is the current generation, so clearing the set only starts a new generation
+    private int[] stamps = new int[INITIAL_CAPACITY];
+    private int generation = 1;
+    private int size;
+
+    /**
+     * Remove all the moves
+     */
+    public void clear() {
+        size = 0;
+        if (++generation == 0) {
+            stamps = new int[stamps.length];
+            generation = 1;
+        }
+    }
+
+    /**
+     * Add a move, an action without a key is ignored
+     *
+     * @param player    the player who played the action
+     * @param actionKey the key of the action
+     */
+    public void add(int player, long actionKey) {
+        if (actionKey == Action.NO_KEY) {
+            return;
+        }
+        if ((size + 1) * 2 > stamps.length) {
+            grow();
+        }
+        int mask = stamps.length - 1;
+        int slot = hash(player, actionKey) & mask;
+        while (stamps[slot] == generation) {
+            if (actionKeys[slot] == actionKey && players[slot] == player) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        stamps[slot] = generation;
+        actionKeys[slot] = actionKey;
+        players[slot] = player;
+        size++;
+    }
+
+    /**
+     * Check whether a player played an action
+     *
+     * @param player    the player
+     * @param actionKey the key of the action
+     * @return true if the move was added since the last clear
+     */
+    public boolean contains(int player, long actionKey) {
+        if (actionKey == Action.NO_KEY) {
+            return false;
+        }
+        int mask = stamps.length - 1;
+        int slot = hash(player, actionKey) & mask;
+        while (stamps[slot] == generation) {
+            if (actionKeys[slot] == actionKey && players[slot] == player) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldActionKeys = actionKeys;
+        int[] oldPlayers = players;
+        int[] oldStamps = stamps;
+        int oldGeneration = generation;
+        actionKeys = new long[oldStamps.length * 2];
+        players = new int[oldStamps.length * 2];
+        stamps = new int[oldStamps.length * 2];
+        generation = 1;
+        size = 0;
+        for (int slot = 0; slot < oldStamps.length; slot++) {
+            if (oldStamps[slot] == oldGeneration) {
+                add(oldPlayers[slot], oldActionKeys[slot]);
+            }
+        }
+    }
+
+    private static int hash(int player, long actionKey) {
+        long hash = actionKey * 0x9E3779B97F4A7C15L + player * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,338 @@
+package mcts.domain.ai;
+
+import lombok.Getter;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.Action;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A tree that stores its nodes in primitive arrays instead of Node and State objects.
+ * A node is identified by its index in the arrays and the children of a node are always stored next to each other,
+ * so a node only needs the index of its first child and the number of children
+ */
+public class ArrayTree {
+    public static final int NO_NODE = -1;
+    public static final int ROOT = 0;
+
+    private static final byte CHANCE_NODE = 1;
+    private static final byte GROUP_NODE = 2;
+
+    @Getter
+    private int size;
+    private int[] parent;
+    private int[] firstChild;
+    private int[] childCount;
+    private int[] visitCount;
+    private double[] winScore;
+    private double[] squaredScore;
+    private int[] playerNo;
+    private double[] probability;
+    private double[] prior;
+    private byte[] flags;
+    private Game[] games;
+    private Action[] actions;
+    private AliasTable[] aliasTables;
+
+    public ArrayTree(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.parent = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new int[capacity];
+        this.visitCount = new int[capacity];
+        this.winScore = new double[capacity];
+        this.squaredScore = new double[capacity];
+        this.playerNo = new int[capacity];
+        this.probability = new double[capacity];
+        this.prior = new double[capacity];
+        this.flags = new byte[capacity];
+        this.games = new Game[capacity];
+        this.actions = new Action[capacity];
+        this.aliasTables = new AliasTable[capacity];
+    }
+
+    /**
+     * Create the root node of the tree. All the nodes of a previous search are dropped, but the arrays are kept
+     * so the tree can be reused without allocating them again
+     *
+     * @param game      the game state of the root
+     * @param playerId  the player who has to act
+     * @return the index of the root
+     */
+    public int createRoot(Game game, int playerId) {
+        Arrays.fill(games, 0, size, null);
+        Arrays.fill(actions, 0, size, null);
+        Arrays.fill(aliasTables, 0, size, null);
+        size = 0;
+        int root = allocateNodes(NO_NODE, 1);
+        games[root] = game;
+        playerNo[root] = playerId;
+        return root;
+    }
+
+    /**
+     * Reserve a block of consecutive nodes as the children of a node
+     *
+     * @param node  the parent of the new nodes
+     * @param count the number of children
+     * @return the index of the first child
+     */
+    public int allocateChildren(int node, int count) {
+        int first = allocateNodes(node, count);
+        firstChild[node] = first;
+        childCount[node] = count;
+        return first;
+    }
+
+    private int allocateNodes(int parentNode, int count) {
+        ensureCapacity(size + count);
+        int first = size;
+        for (int i = first; i < first + count; i++) {
+            parent[i] = parentNode;
+            firstChild[i] = NO_NODE;
+            childCount[i] = 0;
+            visitCount[i] = 0;
+            winScore[i] = 0;
+            squaredScore[i] = 0;
+            playerNo[i] = 0;
+            probability[i] = 0;
+            prior[i] = 0;
+            flags[i] = 0;
+            games[i] = null;
+            actions[i] = null;
+            aliasTables[i] = null;
+        }
+        size += count;
+        return first;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= parent.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, parent.length * 2);
+        parent = Arrays.copyOf(parent, newCapacity);
+        firstChild = Arrays.copyOf(firstChild, newCapacity);
+        childCount = Arrays.copyOf(childCount, newCapacity);
+        visitCount = Arrays.copyOf(visitCount, newCapacity);
+        winScore = Arrays.copyOf(winScore, newCapacity);
+        squaredScore = Arrays.copyOf(squaredScore, newCapacity);
+        playerNo = Arrays.copyOf(playerNo, newCapacity);
+        probability = Arrays.copyOf(probability, newCapacity);
+        prior = Arrays.copyOf(prior, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        games = Arrays.copyOf(games, newCapacity);
+        actions = Arrays.copyOf(actions, newCapacity);
+        aliasTables = Arrays.copyOf(aliasTables, newCapacity);
+    }
+
+    /**
+     * Fill in the state of a node
+     *
+     * @param node      the node
+     * @param game      the game state of the node, null for chance and group nodes
+     * @param playerId  the player who performed the action leading to this node
+     * @param action    the action leading to this node, null for chance and group nodes
+     */
+    public void setState(int node, Game game, int playerId, Action action) {
+        games[node] = game;
+        playerNo[node] = playerId;
+        actions[node] = action;
+    }
+
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    public int getFirstChild(int node) {
+        return firstChild[node];
+    }
+
+    public int getChildCount(int node) {
+        return childCount[node];
+    }
+
+    public int getVisitCount(int node) {
+        return visitCount[node];
+    }
+
+    public double getWinScore(int node) {
+        return winScore[node];
+    }
+
+    public double getSquaredScore(int node) {
+        return squaredScore[node];
+    }
+
+    public int getPlayerNo(int node) {
+        return playerNo[node];
+    }
+
+    public double getProbability(int node) {
+        return probability[node];
+    }
+
+    public void setProbability(int node, double nodeProbability) {
+        probability[node] = nodeProbability;
+    }
+
+    public double getPrior(int node) {
+        return prior[node];
+    }
+
+    public void setPrior(int node, double nodePrior) {
+        prior[node] = nodePrior;
+    }
+
+    public Game getGame(int node) {
+        return games[node];
+    }
+
+    public Action getAction(int node) {
+        return actions[node];
+    }
+
+    public boolean isChanceNode(int node) {
+        return (flags[node] & CHANCE_NODE) != 0;
+    }
+
+    public void setChanceNode(int node) {
+        flags[node] |= CHANCE_NODE;
+    }
+
+    public boolean isGroupNode(int node) {
+        return (flags[node] & GROUP_NODE) != 0;
+    }
+
+    public void setGroupNode(int node) {
+        flags[node] |= GROUP_NODE;
+    }
+
+    /**
+     * Build the alias table of a chance node from the probabilities of its children
+     *
+     * @param node the chance node
+     */
+    public void buildAliasTable(int node) {
+        double[] probabilities = Arrays.copyOfRange(probability, firstChild[node], firstChild[node] + childCount[node]);
+        aliasTables[node] = new AliasTable(probabilities);
+    }
+
+    public void incrementVisit(int node) {
+        visitCount[node]++;
+    }
+
+    public void addVisits(int node, int visits) {
+        visitCount[node] += visits;
+    }
+
+    /**
+     * Add the score of one simulation to a node
+     *
+     * @param node  the node
+     * @param score the score of the simulation
+     */
+    public void addScore(int node, double score) {
+        winScore[node] += score;
+        squaredScore[node] += score * score;
+    }
+
+    /**
+     * Add the scores of several simulations to a node at once
+     *
+     * @param node          the node
+     * @param score         the total score of the simulations
+     * @param squaredScores the total of the squares of the scores of the simulations
+     */
+    public void addScores(int node, double score, double squaredScores) {
+        winScore[node] += score;
+        squaredScore[node] += squaredScores;
+    }
+
+    /**
+     * A method for selecting a random node out of all the child nodes
+     *
+     * @param node the parent node
+     * @return a random child
+     */
+    public int getRandomChild(int node) {
+        return firstChild[node] + SearchRandom.current().nextInt(childCount[node]);
+    }
+
+    /**
+     * A method which is used to select the node with the highest score out of all the child nodes.
+     * A child that was never visited has no score and is only chosen when none of the children were visited
+     *
+     * @param node the parent node
+     * @return the child with highest score
+     */
+    public int getChildWithMaxScore(int node) {
+        if (childCount[node] == 0) {
+            throw new IllegalArgumentException("No nodes were found when selecting the child with max score");
+        }
+        int winningNode = firstChild[node];
+        double maxScore = Double.NEGATIVE_INFINITY;
+        int end = firstChild[node] + childCount[node];
+        for (int child = firstChild[node]; child < end; child++) {
+            double score = visitCount[child] > 0 ? winScore[child] / visitCount[child] : Double.NEGATIVE_INFINITY;
+            if (score > maxScore) {
+                winningNode = child;
+                maxScore = score;
+            }
+        }
+        if (isChanceNode(winningNode)) {
+            winningNode = getChildByProbability(winningNode);
+        }
+        if (isGroupNode(winningNode)) {
+            winningNode = getChildWithMaxScore(winningNode);
+        }
+        return winningNode;
+    }
+
+    /**
+     * A method to get the statistics of the children of a node by the key of their action.
+     * Only visited normal actions with a key are included, chance and group nodes are skipped
+     *
+     * @param node the node
+     * @return the statistics of the children
+     */
+    public List<MoveStatistics> getMoveStatistics(int node) {
+        List<MoveStatistics> moves = new ArrayList<>(childCount[node]);
+        int end = firstChild[node] + childCount[node];
+        for (int child = firstChild[node]; child < end; child++) {
+            Action action = actions[child];
+            if (action != null && !isChanceNode(child) && !isGroupNode(child) && visitCount[child] > 0
+                    && action.getActionKey() != Action.NO_KEY) {
+                moves.add(new MoveStatistics(action.getActionKey(), visitCount[child], winScore[child], squaredScore[child]));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * A method for chance nodes to choose the child by probability
+     *
+     * @param node the chance node
+     * @return a child by probability
+     */
+    public int getChildByProbability(int node) {
+        if (!isChanceNode(node)) {
+            throw new IllegalArgumentException("Tried to get child by probability but node is not a chance node");
+        }
+        if (aliasTables[node] != null) {
+            return firstChild[node] + aliasTables[node].sample();
+        }
+        double randomDouble = SearchRandom.current().nextDouble();
+        double cumulativeProbability = 0.0;
+        int end = firstChild[node] + childCount[node];
+        for (int child = firstChild[node]; child < end; child++) {
+            cumulativeProbability += probability[child];
+            if (randomDouble <= cumulativeProbability) {
+                return child;
+            }
+        }
+        throw new IllegalArgumentException("Tried to get child by probability but probability doesn't add up to 100%");
+    }
+}
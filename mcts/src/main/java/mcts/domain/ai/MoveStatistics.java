@@ -0,0 +1,17 @@
+package mcts.domain.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The statistics of one child of the root of a finished search, keyed by the action key of its action.
+ * They are kept in the position cache and sent back by the workers of a distributed search
+ */
+@Getter
+@AllArgsConstructor
+public class MoveStatistics {
+    private final long actionKey;
+    private final int visits;
+    private final double winScore;
+    private final double squaredScore;
+}
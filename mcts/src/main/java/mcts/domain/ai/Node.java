@@ -1,21 +1,41 @@
 package mcts.domain.ai;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import mcts.domain.ai.actions.Action;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 
 @Getter
 @Setter
 public class Node {
+    private static final VarHandle EXPANSION_CLAIMED;
+
+    static {
+        try {
+            EXPANSION_CLAIMED = MethodHandles.lookup().findVarHandle(Node.class, "expansionClaimed", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private State state;
     private Node parent;
-    private List<Node> childArray;
+    //the children are published as a complete list, so threads never see a partially expanded node
+    private volatile List<Node> childArray;
     private boolean chanceNode;
     private boolean groupNode;
+    //a chance node samples its children with an alias table of their probabilities
+    private AliasTable aliasTable;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile boolean expansionClaimed;
 
     public Node() {
         this.childArray = new ArrayList<>();
@@ -35,24 +55,55 @@ public class Node {
         this.childArray = new ArrayList<>();
     }
 
+    /**
+     * A method to claim the expansion of this node, so only one thread expands it when multiple threads search the tree
+     *
+     * @return true if this call claimed the expansion, false if the node was claimed before
+     */
+    public boolean claimExpansion() {
+        return EXPANSION_CLAIMED.compareAndSet(this, false, true);
+    }
+
+    /**
+     * A method to turn the node into a leaf again, the node can be expanded again when it's selected.
+     * The statistics of the children are already part of the statistics of the node, so nothing is lost
+     */
+    public void collapse() {
+        childArray = new ArrayList<>();
+        expansionClaimed = false;
+    }
+
     /**
      * A method for selecting a random node out of all the child nodes
      *
      * @return a random node
      */
     public Node getRandomChildNode() {
-        Random random = new Random();
-        return childArray.get(random.nextInt(childArray.size()));
+        List<Node> children = childArray;
+        return children.get(SearchRandom.current().nextInt(children.size()));
     }
 
     /**
-     * A method which is used to select the node with the highest score out of all the child nodes
+     * A method which is used to select the node with the highest score out of all the child nodes.
+     * A child that was never visited has no score and is only chosen when none of the children were visited
      *
      * @return the node with highest score
      */
     public Node getChildWithMaxScore() {
-        Node winningNode = childArray.stream().max(Comparator.comparing(node -> node.state.getWinScore()/node.state.getVisitCount()))
-                    .orElseThrow(() -> new IllegalArgumentException("No nodes were found when selecting the child with max score"));
+        List<Node> children = childArray;
+        if (children.isEmpty()) {
+            throw new IllegalArgumentException("No nodes were found when selecting the child with max score");
+        }
+        Node winningNode = children.get(0);
+        double maxScore = Double.NEGATIVE_INFINITY;
+        for (Node child : children) {
+            int visitCount = child.state.getVisitCount();
+            double score = visitCount > 0 ? child.state.getWinScore() / visitCount : Double.NEGATIVE_INFINITY;
+            if (score > maxScore) {
+                winningNode = child;
+                maxScore = score;
+            }
+        }
         if (winningNode.isChanceNode()) {
             winningNode = winningNode.getChildByProbability();
         }
@@ -62,6 +113,88 @@ public class Node {
         return winningNode;
     }
 
+    /**
+     * A method to add the statistics of the children of a node from another tree to the children of this node.
+     * Both nodes have to be expanded from the same game state, so their children were created in the same order.
+     * The children of group nodes are merged as well, since those are the actions that can be chosen
+     *
+     * @param node the node whose child statistics have to be added
+     * @return false when the children of both nodes don't match
+     */
+    public boolean mergeChildStatistics(Node node) {
+        List<Node> otherChildren = node.getChildArray();
+        if (childArray.size() != otherChildren.size()) {
+            return false;
+        }
+        for (int i = 0; i < childArray.size(); i++) {
+            Node child = childArray.get(i);
+            Node otherChild = otherChildren.get(i);
+            if (child.isGroupNode() != otherChild.isGroupNode() || child.isChanceNode() != otherChild.isChanceNode()) {
+                return false;
+            }
+        }
+        for (int i = 0; i < childArray.size(); i++) {
+            Node child = childArray.get(i);
+            Node otherChild = otherChildren.get(i);
+            child.getState().merge(otherChild.getState());
+            if (child.isGroupNode()) {
+                child.mergeChildStatistics(otherChild);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A method to get the statistics of the children of this node by the key of their action.
+     * Only visited normal actions with a key are included, chance and group nodes are skipped
+     *
+     * @return the statistics of the children
+     */
+    public List<MoveStatistics> getMoveStatistics() {
+        List<MoveStatistics> moves = new ArrayList<>(childArray.size());
+        for (Node child : childArray) {
+            State childState = child.getState();
+            Action action = childState.getAction();
+            if (action != null && !child.isChanceNode() && !child.isGroupNode() && childState.getVisitCount() > 0
+                    && action.getActionKey() != Action.NO_KEY) {
+                moves.add(new MoveStatistics(action.getActionKey(), childState.getVisitCount(), childState.getWinScore(),
+                        childState.getSquaredScore()));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * A method to add the statistics of the children of a node of another search to the children of this node with
+     * the same action key. Moves without a matching child, like the moves below a chance or group node, are left out
+     *
+     * @param moves the statistics of the children of the other node
+     * @return false when this node isn't expanded
+     */
+    public boolean mergeMoveStatistics(List<MoveStatistics> moves) {
+        if (childArray.isEmpty()) {
+            return false;
+        }
+        Map<Long, Node> childrenByKey = new HashMap<>();
+        for (Node child : childArray) {
+            Action action = child.getState().getAction();
+            if (action != null && !child.isChanceNode() && !child.isGroupNode() && action.getActionKey() != Action.NO_KEY) {
+                childrenByKey.put(action.getActionKey(), child);
+            }
+        }
+        int mergedVisits = 0;
+        for (MoveStatistics move : moves) {
+            Node child = childrenByKey.get(move.getActionKey());
+            if (child != null) {
+                child.getState().addVisits(move.getVisits());
+                child.getState().addScores(move.getWinScore(), move.getSquaredScore());
+                mergedVisits += move.getVisits();
+            }
+        }
+        state.addVisits(mergedVisits);
+        return true;
+    }
+
     /**
      * A method for chance nodes to choose th child by probability
      *
@@ -71,8 +204,10 @@ public class Node {
         if (!chanceNode) {
             throw new IllegalArgumentException("Tried to get child by probability but node is not a chance node");
         }
-        Random random = new Random();
-        double randomDouble = random.nextDouble();
+        if (aliasTable != null) {
+            return childArray.get(aliasTable.sample());
+        }
+        double randomDouble = SearchRandom.current().nextDouble();
         double cumulativeProbability = 0.0;
         for (Node child : childArray) {
             cumulativeProbability += child.getState().getProbability();
@@ -0,0 +1,218 @@
+package mcts.domain.ai;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A cache of the root statistics of finished searches, stored in a memory-mapped file so it survives restarts.
+ * The file has a fixed number of slots, every position maps to a bucket of four slots. When all the slots of a bucket
+ * are taken, the position that was used the longest time ago is replaced. A slot keeps the most visited moves of a position:
+ *
+ * <pre>
+ * header: magic (int), version (int), slots (int), moves per slot (int), clock (long)
+ * slot:   key (long), last used (long), number of moves (int),
+ *         per move: action key (long), visits (int), win score (double), squared score (double)
+ * </pre>
+ */
+public class PositionCache implements Closeable {
+    private static final int MAGIC = 0x4D435453;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int CLOCK_OFFSET = 16;
+    private static final int SLOT_HEADER_SIZE = 20;
+    private static final int MOVE_SIZE = 28;
+    private static final int BUCKET_SIZE = 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slots;
+    private final int movesPerSlot;
+    private final int slotSize;
+    private long clock;
+
+    private PositionCache(FileChannel channel, MappedByteBuffer buffer, int slots, int movesPerSlot) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slots = slots;
+        this.movesPerSlot = movesPerSlot;
+        this.slotSize = SLOT_HEADER_SIZE + movesPerSlot * MOVE_SIZE;
+        this.clock = buffer.getLong(CLOCK_OFFSET);
+    }
+
+    /**
+     * Open the cache file, or create it when it doesn't exist. A file that was created with another number of slots
+     * or moves is cleared. Only the header is read, the slots are loaded by the operating system when they are used
+     *
+     * @param file          the cache file
+     * @param size          the number of positions, rounded up to a power of two
+     * @param movesPerSlot  the number of moves that are kept per position
+     * @return the cache
+     * @throws IOException when the file can't be opened or mapped
+     */
+    public static PositionCache open(Path file, int size, int movesPerSlot) throws IOException {
+        if (movesPerSlot <= 0) {
+            throw new IllegalArgumentException("The position cache has to keep at least one move per position");
+        }
+        int slots = Integer.highestOneBit(Math.max(size, BUCKET_SIZE) - 1) << 1;
+        long fileSize = HEADER_SIZE + (long) slots * (SLOT_HEADER_SIZE + (long) movesPerSlot * MOVE_SIZE);
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The position cache can't be larger than 2GB, use fewer positions or moves");
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean valid = channel.size() == fileSize;
+            if (!valid) {
+                channel.truncate(0);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            if (!valid || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != slots
+                    || buffer.getInt(12) != movesPerSlot) {
+                clear(buffer, fileSize);
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, slots);
+                buffer.putInt(12, movesPerSlot);
+                buffer.putLong(CLOCK_OFFSET, 0);
+            }
+            return new PositionCache(channel, buffer, slots, movesPerSlot);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void clear(MappedByteBuffer buffer, long fileSize) {
+        long offset = 0;
+        for (; offset + 8 <= fileSize; offset += 8) {
+            buffer.putLong((int) offset, 0);
+        }
+        for (; offset < fileSize; offset++) {
+            buffer.put((int) offset, (byte) 0);
+        }
+    }
+
+    /**
+     * Get the moves that were stored for a position
+     *
+     * @param key the key of the position
+     * @return the stored moves, null when the position isn't in the cache
+     */
+    public synchronized List<MoveStatistics> get(long key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        int offset = getOffset(slot);
+        buffer.putLong(offset + 8, tick());
+        int moveCount = buffer.getInt(offset + 16);
+        List<MoveStatistics> moves = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            int moveOffset = offset + SLOT_HEADER_SIZE + i * MOVE_SIZE;
+            moves.add(new MoveStatistics(buffer.getLong(moveOffset), buffer.getInt(moveOffset + 8), buffer.getDouble(moveOffset + 12),
+                    buffer.getDouble(moveOffset + 20)));
+        }
+        return moves;
+    }
+
+    /**
+     * Store the moves of a position. Only the most visited moves are kept when there are more moves than fit in a slot.
+     * The position is stored in its own slot, an empty slot of its bucket or the slot of the bucket that was used the longest time ago
+     *
+     * @param key   the key of the position
+     * @param moves the moves of the position
+     */
+    public synchronized void put(long key, List<MoveStatistics> moves) {
+        if (moves.isEmpty()) {
+            return;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            slot = findReplacedSlot(key);
+        }
+
+        List<MoveStatistics> keptMoves = moves;
+        if (moves.size() > movesPerSlot) {
+            keptMoves = new ArrayList<>(moves);
+            keptMoves.sort(Comparator.comparingInt(MoveStatistics::getVisits).reversed());
+            keptMoves = keptMoves.subList(0, movesPerSlot);
+        }
+
+        int offset = getOffset(slot);
+        buffer.putLong(offset, key);
+        buffer.putLong(offset + 8, tick());
+        buffer.putInt(offset + 16, keptMoves.size());
+        for (int i = 0; i < keptMoves.size(); i++) {
+            MoveStatistics move = keptMoves.get(i);
+            int moveOffset = offset + SLOT_HEADER_SIZE + i * MOVE_SIZE;
+            buffer.putLong(moveOffset, move.getActionKey());
+            buffer.putInt(moveOffset + 8, move.getVisits());
+            buffer.putDouble(moveOffset + 12, move.getWinScore());
+            buffer.putDouble(moveOffset + 20, move.getSquaredScore());
+        }
+    }
+
+    private int findSlot(long key) {
+        int bucket = getBucket(key);
+        for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot++) {
+            int offset = getOffset(slot);
+            if (buffer.getInt(offset + 16) > 0 && buffer.getLong(offset) == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int findReplacedSlot(long key) {
+        int bucket = getBucket(key);
+        int replacedSlot = bucket;
+        long oldest = Long.MAX_VALUE;
+        for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot++) {
+            int offset = getOffset(slot);
+            if (buffer.getInt(offset + 16) == 0) {
+                return slot;
+            }
+            long lastUsed = buffer.getLong(offset + 8);
+            if (lastUsed < oldest) {
+                oldest = lastUsed;
+                replacedSlot = slot;
+            }
+        }
+        return replacedSlot;
+    }
+
+    private long tick() {
+        clock++;
+        buffer.putLong(CLOCK_OFFSET, clock);
+        return clock;
+    }
+
+    private int getBucket(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & (slots - BUCKET_SIZE);
+    }
+
+    private int getOffset(int slot) {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    /**
+     * Write the changes to the file
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
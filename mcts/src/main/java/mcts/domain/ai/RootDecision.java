@@ -0,0 +1,105 @@
+package mcts.domain.ai;
+
+import lombok.Getter;
+
+/**
+ * The statistics of the children of a root that decide which move a search would play if it stopped now.
+ * The leader is the child with the highest average score, which is the child the search chooses,
+ * the runner-up is the child with the second highest average score
+ */
+@Getter
+public class RootDecision {
+    private int children;
+    private int leaderVisits;
+    private double leaderMean;
+    private double leaderError;
+    private int runnerUpVisits;
+    private double runnerUpMean;
+    private double runnerUpError;
+
+    private RootDecision() {
+    }
+
+    /**
+     * Collect the statistics of the children of a root node
+     *
+     * @param root the root of the tree
+     * @return the statistics of the leader and the runner-up
+     */
+    public static RootDecision of(Node root) {
+        RootDecision decision = new RootDecision();
+        for (Node child : root.getChildArray()) {
+            State state = child.getState();
+            decision.add(state.getVisitCount(), state.getWinScore(), state.getSquaredScore());
+        }
+        return decision;
+    }
+
+    /**
+     * Collect the statistics of the children of the root of an array tree
+     *
+     * @param tree the tree
+     * @param root the index of the root
+     * @return the statistics of the leader and the runner-up
+     */
+    public static RootDecision of(ArrayTree tree, int root) {
+        RootDecision decision = new RootDecision();
+        int end = tree.getFirstChild(root) + tree.getChildCount(root);
+        for (int child = tree.getFirstChild(root); child < end; child++) {
+            decision.add(tree.getVisitCount(child), tree.getWinScore(child), tree.getSquaredScore(child));
+        }
+        return decision;
+    }
+
+    private void add(int visits, double winScore, double squaredScore) {
+        children++;
+        double mean = visits > 0 ? winScore / visits : Double.NEGATIVE_INFINITY;
+        double error = getStandardError(visits, winScore, squaredScore);
+        if (children == 1 || mean > leaderMean) {
+            if (children > 1) {
+                runnerUpVisits = leaderVisits;
+                runnerUpMean = leaderMean;
+                runnerUpError = leaderError;
+            }
+            leaderVisits = visits;
+            leaderMean = mean;
+            leaderError = error;
+            return;
+        }
+        if (children == 2 || mean > runnerUpMean) {
+            runnerUpVisits = visits;
+            runnerUpMean = mean;
+            runnerUpError = error;
+        }
+    }
+
+    /**
+     * This method is used to calculate the standard error of the average score of a child
+     *
+     * @param visits        the number of visits of the child
+     * @param winScore      the sum of the scores of the child
+     * @param squaredScore  the sum of the squares of the scores of the child
+     * @return the standard error, infinite when the child has less than two visits
+     */
+    private static double getStandardError(int visits, double winScore, double squaredScore) {
+        if (visits < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double mean = winScore / visits;
+        double variance = Math.max(squaredScore / visits - mean * mean, 0);
+        return Math.sqrt(variance / visits);
+    }
+
+    /**
+     * Check whether the confidence intervals of the average scores of the leader and the runner-up no longer overlap
+     *
+     * @param confidence the number of standard errors on each side of the averages
+     * @return true if the leader is better than the runner-up with the given confidence
+     */
+    public boolean isSeparated(double confidence) {
+        if (children == 1) {
+            return true;
+        }
+        return leaderMean - confidence * leaderError > runnerUpMean + confidence * runnerUpError;
+    }
+}
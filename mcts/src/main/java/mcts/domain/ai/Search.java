@@ -0,0 +1,47 @@
+package mcts.domain.ai;
+
+import lombok.Getter;
+import lombok.Setter;
+import mcts.domain.Game;
+import mcts.domain.SimulationResult;
+
+import java.util.SplittableRandom;
+
+/**
+ * A search of a game state that can be run in parts. The search keeps its tree, its random generator and the budget
+ * it has used, so it can be continued on any thread
+ */
+@Getter
+@Setter
+public class Search {
+    private final Game game;
+    private final int playerId;
+    private final SplittableRandom random;
+    private final SearchStatistics statistics = new SearchStatistics();
+    private Tree tree;
+    private volatile SimulationResult result;
+    private volatile long timeBudget;
+    private volatile long searchTime;
+    private volatile int maxSimulations;
+    private volatile int simulations;
+    //the number of simulations when the search was last checked for early stopping
+    private volatile int checkedSimulations;
+    private volatile long deadline = Long.MAX_VALUE;
+    private volatile boolean stopped;
+    private boolean pondering;
+
+    public Search(Game game, int playerId, SplittableRandom random) {
+        this.game = game;
+        this.playerId = playerId;
+        this.random = random;
+    }
+
+    /**
+     * Check whether the search has its result
+     *
+     * @return true if the search is finished
+     */
+    public boolean isFinished() {
+        return result != null;
+    }
+}
@@ -0,0 +1,49 @@
+package mcts.domain.ai;
+
+import java.util.SplittableRandom;
+
+/**
+ * The source of all the random numbers the search draws. Every thread has its own generator, so threads never contend
+ * and no generator is created per call. A search with a fixed seed gives its threads generators split from that seed,
+ * so the same search draws the same random numbers every time it runs
+ */
+public final class SearchRandom {
+    private static final ThreadLocal<SplittableRandom> RANDOM = ThreadLocal.withInitial(SplittableRandom::new);
+
+    private SearchRandom() {
+    }
+
+    /**
+     * Get the generator of the current thread
+     *
+     * @return the generator of the current thread
+     */
+    public static SplittableRandom current() {
+        return RANDOM.get();
+    }
+
+    /**
+     * Let the current thread draw its random numbers from a given generator
+     *
+     * @param random the generator to use
+     */
+    public static void use(SplittableRandom random) {
+        RANDOM.set(random);
+    }
+
+    /**
+     * Create a generator for every thread of a search, all derived from one seed
+     *
+     * @param seed      the seed of the search
+     * @param threads   the number of threads
+     * @return a generator for every thread
+     */
+    public static SplittableRandom[] split(long seed, int threads) {
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[threads];
+        for (int i = 0; i < threads; i++) {
+            streams[i] = seedRandom.split();
+        }
+        return streams;
+    }
+}
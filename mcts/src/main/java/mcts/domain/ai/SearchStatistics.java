@@ -0,0 +1,121 @@
+package mcts.domain.ai;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The statistics of one search. Every search thread fills its own statistics, which are merged when the search is done.
+ * The times of the phases are in nanoseconds and are only measured when 'useInstrumentation' is set
+ */
+@Getter
+public class SearchStatistics {
+    //rollouts are counted per power of two of their length: 0, 1, 2-3, 4-7, ...
+    private static final int ROLLOUT_LENGTH_BUCKETS = 32;
+
+    private int simulations;
+    private long selectionTime;
+    private long expansionTime;
+    private long simulationTime;
+    private long backPropagationTime;
+    private int maxDepth;
+    private int rollouts;
+    private long rolloutMoves;
+    private int maxRolloutLength;
+    private final int[] rolloutLengths = new int[ROLLOUT_LENGTH_BUCKETS];
+    @Setter
+    private long searchTime;
+    @Setter
+    private int nodeCount;
+    @Setter
+    private int[] rootChildVisits;
+    //set when the search stopped because its move was decided before its budget was used up
+    @Setter
+    private boolean stoppedEarly;
+    //set when the budget of the search was extended because its best two moves were close
+    @Setter
+    private boolean extended;
+
+    /**
+     * Add one simulation with the time spent in each phase
+     *
+     * @param selectionTime         the time spent selecting the leaf
+     * @param expansionTime         the time spent expanding the leaf and choosing the node to simulate
+     * @param simulationTime        the time spent in the rollout
+     * @param backPropagationTime   the time spent updating the nodes on the path
+     * @param depth                 the depth of the simulated node
+     */
+    public void addSimulation(long selectionTime, long expansionTime, long simulationTime, long backPropagationTime, int depth) {
+        addSimulations(1, selectionTime, expansionTime, simulationTime, backPropagationTime, depth);
+    }
+
+    /**
+     * Add an iteration that ran several simulations from the same node, with the time spent in each phase
+     *
+     * @param count                 the number of simulations
+     * @param selectionTime         the time spent selecting the leaf
+     * @param expansionTime         the time spent expanding the leaf and choosing the node to simulate
+     * @param simulationTime        the time spent in the rollouts
+     * @param backPropagationTime   the time spent updating the nodes on the path
+     * @param depth                 the depth of the simulated node
+     */
+    public void addSimulations(int count, long selectionTime, long expansionTime, long simulationTime, long backPropagationTime, int depth) {
+        simulations += count;
+        this.selectionTime += selectionTime;
+        this.expansionTime += expansionTime;
+        this.simulationTime += simulationTime;
+        this.backPropagationTime += backPropagationTime;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    /**
+     * Add the length of one rollout
+     *
+     * @param length the number of random actions of the rollout
+     */
+    public void addRollout(int length) {
+        rollouts++;
+        rolloutMoves += length;
+        maxRolloutLength = Math.max(maxRolloutLength, length);
+        rolloutLengths[32 - Integer.numberOfLeadingZeros(length)]++;
+    }
+
+    /**
+     * Add the statistics of another search thread
+     *
+     * @param other the statistics to add
+     */
+    public void merge(SearchStatistics other) {
+        simulations += other.simulations;
+        selectionTime += other.selectionTime;
+        expansionTime += other.expansionTime;
+        simulationTime += other.simulationTime;
+        backPropagationTime += other.backPropagationTime;
+        maxDepth = Math.max(maxDepth, other.maxDepth);
+        rollouts += other.rollouts;
+        rolloutMoves += other.rolloutMoves;
+        maxRolloutLength = Math.max(maxRolloutLength, other.maxRolloutLength);
+        stoppedEarly |= other.stoppedEarly;
+        extended |= other.extended;
+        for (int i = 0; i < ROLLOUT_LENGTH_BUCKETS; i++) {
+            rolloutLengths[i] += other.rolloutLengths[i];
+        }
+    }
+
+    /**
+     * Get the number of simulations per second of search time
+     *
+     * @return the simulations per second, 0 when no search time was recorded
+     */
+    public double getSimulationsPerSecond() {
+        return searchTime > 0 ? simulations * 1000.0 / searchTime : 0;
+    }
+
+    /**
+     * Get the average number of random actions of a rollout
+     *
+     * @return the average rollout length
+     */
+    public double getAverageRolloutLength() {
+        return rollouts > 0 ? (double) rolloutMoves / rollouts : 0;
+    }
+}
@@ -0,0 +1,28 @@
+package mcts.domain.ai;
+
+import lombok.Getter;
+import lombok.Setter;
+import mcts.domain.SimulationResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A search that runs on the search scheduler. The task is the handle of the search: the scheduler can tell the current
+ * best action and the number of simulations of a running task, and can stop or extend it
+ */
+@Getter
+public class SearchTask {
+    private final Search search;
+    private final int priority;
+    private final long sequence;
+    private final CompletableFuture<SimulationResult> result = new CompletableFuture<>();
+    //the part of the budget that was used when the task was queued, the queue may not see it change
+    @Setter
+    private double queuedProgress;
+
+    public SearchTask(Search search, int priority, long sequence) {
+        this.search = search;
+        this.priority = priority;
+        this.sequence = sequence;
+    }
+}
@@ -6,23 +6,60 @@ import lombok.Setter;
 import mcts.domain.Game;
 import mcts.domain.ai.actions.Action;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 @Getter
 @Setter
 @NoArgsConstructor
 public class State {
-    private Game game;
+    private static final VarHandle VISIT_COUNT;
+    private static final VarHandle WIN_SCORE;
+    private static final VarHandle SQUARED_SCORE;
+    private static final VarHandle VIRTUAL_LOSS;
+    private static final VarHandle AMAF_VISITS;
+    private static final VarHandle AMAF_SCORE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VISIT_COUNT = lookup.findVarHandle(State.class, "visitCount", int.class);
+            WIN_SCORE = lookup.findVarHandle(State.class, "winScore", double.class);
+            SQUARED_SCORE = lookup.findVarHandle(State.class, "squaredScore", double.class);
+            VIRTUAL_LOSS = lookup.findVarHandle(State.class, "virtualLoss", int.class);
+            AMAF_VISITS = lookup.findVarHandle(State.class, "amafVisits", int.class);
+            AMAF_SCORE = lookup.findVarHandle(State.class, "amafScore", double.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    //with lazy expansion the game state is created when the state is first visited, possibly by another thread
+    private volatile Game game;
     private Action action;
     private int playerNo;
-    private int visitCount;
-    private double winScore;
+    //the statistics are updated atomically, so multiple threads can search the same tree
+    private volatile int visitCount;
+    private volatile double winScore;
+    //the sum of the squares of the scores of all simulations, used to calculate the variance
+    private volatile double squaredScore;
+    private volatile int virtualLoss;
+    //the all-moves-as-first statistics: the simulations through the parent in which the action was played later on by the same player
+    private volatile int amafVisits;
+    private volatile double amafScore;
     private double probability;
+    private double prior;
 
     public State(State state) {
-        this.game = new Game(state.getGame());
+        this.game = state.getGame().copy();
         this.playerNo = state.getPlayerNo();
         this.visitCount = state.getVisitCount();
         this.winScore = state.getWinScore();
+        this.squaredScore = state.getSquaredScore();
+        this.amafVisits = state.getAmafVisits();
+        this.amafScore = state.getAmafScore();
         this.probability = 0;
+        this.prior = state.getPrior();
         this.action = state.getAction();
     }
 
@@ -37,10 +74,85 @@ public class State {
     }
 
     public void incrementVisit() {
-        visitCount++;
+        VISIT_COUNT.getAndAdd(this, 1);
     }
 
+    /**
+     * Add the visits of several simulations at once
+     *
+     * @param visits the number of simulations
+     */
+    public void addVisits(int visits) {
+        VISIT_COUNT.getAndAdd(this, visits);
+    }
+
+    /**
+     * Add the score of one simulation
+     *
+     * @param winScore the score of the simulation
+     */
     public void addScore(double winScore) {
-        this.winScore += winScore;
+        addAtomically(WIN_SCORE, winScore);
+        addAtomically(SQUARED_SCORE, winScore * winScore);
+    }
+
+    /**
+     * Add the scores of several simulations at once
+     *
+     * @param winScore      the total score of the simulations
+     * @param squaredScore  the total of the squares of the scores of the simulations
+     */
+    public void addScores(double winScore, double squaredScore) {
+        addAtomically(WIN_SCORE, winScore);
+        addAtomically(SQUARED_SCORE, squaredScore);
+    }
+
+    /**
+     * Add the score of a simulation in which the action of this state was played later on
+     *
+     * @param score the score of the simulation for the player of this state
+     */
+    public void addAmafScore(double score) {
+        AMAF_VISITS.getAndAdd(this, 1);
+        addAtomically(AMAF_SCORE, score);
+    }
+
+    private void addAtomically(VarHandle field, double value) {
+        double current;
+        do {
+            current = (double) field.getVolatile(this);
+        } while (!field.compareAndSet(this, current, current + value));
+    }
+
+    /**
+     * Temporarily count a number of lost visits for this state, so other threads searching the same tree
+     * prefer other branches while a simulation through this state is running
+     *
+     * @param virtualLoss the number of lost visits to add
+     */
+    public void addVirtualLoss(int virtualLoss) {
+        VIRTUAL_LOSS.getAndAdd(this, virtualLoss);
+    }
+
+    /**
+     * Remove the lost visits that were added when the simulation through this state started
+     *
+     * @param virtualLoss the number of lost visits to remove
+     */
+    public void removeVirtualLoss(int virtualLoss) {
+        VIRTUAL_LOSS.getAndAdd(this, -virtualLoss);
+    }
+
+    /**
+     * Add the statistics of another state to the statistics of this state
+     *
+     * @param state the state whose visits and score have to be added
+     */
+    public void merge(State state) {
+        VISIT_COUNT.getAndAdd(this, state.getVisitCount());
+        addAtomically(WIN_SCORE, state.getWinScore());
+        addAtomically(SQUARED_SCORE, state.getSquaredScore());
+        AMAF_VISITS.getAndAdd(this, state.getAmafVisits());
+        addAtomically(AMAF_SCORE, state.getAmafScore());
     }
 }
@@ -0,0 +1,68 @@
+package mcts.domain.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A table with a fixed number of slots that maps the hash of a game state to the node of that game state, so game states
+ * that are reached by different move orders can share one node.
+ * Every hash maps to a bucket of two slots, when both slots are taken the node with the fewest visits is replaced.
+ * A node that is replaced stays in the tree, it just can't be shared anymore
+ */
+public class TranspositionTable {
+    private final AtomicReferenceArray<Node> nodes;
+    private final AtomicLongArray hashes;
+    private final int mask;
+
+    public TranspositionTable(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+        this.nodes = new AtomicReferenceArray<>(capacity);
+        this.hashes = new AtomicLongArray(capacity);
+        this.mask = capacity - 2;
+    }
+
+    /**
+     * Get the node stored for a hash. Different game states can have the same hash, so the game state of the node
+     * still has to be compared
+     *
+     * @param hash the hash of the game state
+     * @return the node stored for the hash, null if there is none
+     */
+    public Node get(long hash) {
+        int bucket = getBucket(hash);
+        for (int slot = bucket; slot < bucket + 2; slot++) {
+            Node node = nodes.get(slot);
+            if (node != null && hashes.get(slot) == hash) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Store the node of a game state. A node with the same hash is overwritten, otherwise an empty slot of the bucket
+     * is used or the node of the bucket with the fewest visits is replaced
+     *
+     * @param hash the hash of the game state
+     * @param node the node of the game state
+     */
+    public void put(long hash, Node node) {
+        int bucket = getBucket(hash);
+        int slot = bucket;
+        Node first = nodes.get(bucket);
+        Node second = nodes.get(bucket + 1);
+        if (first != null && hashes.get(bucket) != hash) {
+            if (second == null || hashes.get(bucket + 1) == hash
+                    || second.getState().getVisitCount() < first.getState().getVisitCount()) {
+                slot = bucket + 1;
+            }
+        }
+        hashes.set(slot, hash);
+        nodes.set(slot, node);
+    }
+
+    private int getBucket(long hash) {
+        long mixed = hash * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & mask;
+    }
+}
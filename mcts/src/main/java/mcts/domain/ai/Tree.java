@@ -3,12 +3,24 @@ package mcts.domain.ai;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Getter
 @Setter
 public class Tree {
     Node root;
+    TranspositionTable transpositionTable;
+    long lastUsed;
+    final AtomicInteger nodeCount = new AtomicInteger(1);
+    final AtomicInteger prunedNodes = new AtomicInteger();
+    final AtomicBoolean pruning = new AtomicBoolean();
 
     public Tree() {
         root = new Node(new State());
     }
-}
\ No newline at end of file
+
+    public Tree(Node root) {
+        this.root = root;
+    }
+}
@@ -1,17 +1,16 @@
 package mcts.domain.ai;
 
 import lombok.RequiredArgsConstructor;
-import mcts.config.AiConfig;
+import mcts.domain.ai.selection.SelectionPolicy;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class UCT {
 
-    private final AiConfig aiConfig;
+    private final SelectionPolicy selectionPolicy;
 
     /**
      * This method is used to calculate a value, which is used to select the best node to use, for a node.
@@ -23,24 +22,102 @@ public class UCT {
      * @return a score which is used to select the best node
      */
     public double uctValue(int totalVisit, double nodeWinScore, int nodeVisit) {
-        if (nodeVisit == 0) {
-            return Integer.MAX_VALUE;
-        }
-        return (nodeWinScore / (double) nodeVisit)
-                + aiConfig.getLearningRate() * Math.sqrt(Math.log(totalVisit) / (double) nodeVisit);
+        return selectionPolicy.value(totalVisit, Math.log(totalVisit), nodeVisit, nodeWinScore, 0, 0);
     }
 
     /**
-     * This method is used to find the best node to be used
+     * This method is used to find the best node to be used.
+     * The virtual loss of a node is counted as visits without score, so threads searching the same tree spread out
      *
      * @param node the parent node from whom you want to tess the child nodes
      * @return the node with the highest uct value
      */
     public Node findBestNodeWithUCT(Node node) {
-        int parentVisit = node.getState().getVisitCount();
-        return Collections.max(
-                node.getChildArray(),
-                Comparator.comparing(c -> uctValue(parentVisit,
-                        c.getState().getWinScore(), c.getState().getVisitCount())));
+        State parentState = node.getState();
+        int parentVisit = parentState.getVisitCount() + parentState.getVirtualLoss();
+        double logParentVisit = Math.log(parentVisit);
+
+        List<Node> children = node.getChildArray();
+        Node bestNode = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            State state = child.getState();
+            double value = selectionPolicy.value(parentVisit, logParentVisit, state.getVisitCount() + state.getVirtualLoss(),
+                    state.getWinScore(), state.getSquaredScore(), state.getPrior());
+            if (bestNode == null || Double.compare(value, bestValue) > 0) {
+                bestNode = child;
+                bestValue = value;
+            }
+        }
+        if (bestNode == null) {
+            throw new IllegalArgumentException("No nodes were found when selecting the child with UCT");
+        }
+        return bestNode;
+    }
+
+    /**
+     * This method is used to find the best node to be used with the all-moves-as-first statistics blended into the
+     * average score of every child (RAVE). The weight of the AMAF average is sqrt(k / (3n + k)) for a child with n visits,
+     * so it guides the first visits of a child and fades out as the average of its own visits becomes reliable
+     *
+     * @param node              the parent node from whom you want to test the child nodes
+     * @param raveEquivalence   k, the number of visits at which both averages weigh the same
+     * @return the node with the highest blended value
+     */
+    public Node findBestNodeWithRave(Node node, int raveEquivalence) {
+        State parentState = node.getState();
+        int parentVisit = parentState.getVisitCount() + parentState.getVirtualLoss();
+        double logParentVisit = Math.log(parentVisit);
+
+        List<Node> children = node.getChildArray();
+        Node bestNode = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            State state = child.getState();
+            int visitCount = state.getVisitCount() + state.getVirtualLoss();
+            double winScore = state.getWinScore();
+            int amafVisits = state.getAmafVisits();
+            if (visitCount > 0 && amafVisits > 0) {
+                double beta = Math.sqrt(raveEquivalence / (3.0 * visitCount + raveEquivalence));
+                double mean = (1 - beta) * winScore / visitCount + beta * state.getAmafScore() / amafVisits;
+                winScore = mean * visitCount;
+            }
+            double value = selectionPolicy.value(parentVisit, logParentVisit, visitCount, winScore, state.getSquaredScore(), state.getPrior());
+            if (bestNode == null || Double.compare(value, bestValue) > 0) {
+                bestNode = child;
+                bestValue = value;
+            }
+        }
+        if (bestNode == null) {
+            throw new IllegalArgumentException("No nodes were found when selecting the child with RAVE");
+        }
+        return bestNode;
+    }
+
+    /**
+     * This method is used to find the best node to be used in an array tree
+     *
+     * @param tree the tree that contains the node
+     * @param node the parent node from whom you want to test the child nodes
+     * @return the child with the highest uct value
+     */
+    public int findBestNodeWithUCT(ArrayTree tree, int node) {
+        int parentVisit = tree.getVisitCount(node);
+        double logParentVisit = Math.log(parentVisit);
+
+        int bestNode = ArrayTree.NO_NODE;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int end = tree.getFirstChild(node) + tree.getChildCount(node);
+        for (int child = tree.getFirstChild(node); child < end; child++) {
+            double value = selectionPolicy.value(parentVisit, logParentVisit, tree.getVisitCount(child),
+                    tree.getWinScore(child), tree.getSquaredScore(child), tree.getPrior(child));
+            if (bestNode == ArrayTree.NO_NODE || Double.compare(value, bestValue) > 0) {
+                bestNode = child;
+                bestValue = value;
+            }
+        }
+        return bestNode;
     }
 }
@@ -7,6 +7,7 @@ import mcts.domain.Game;
  * An action for the ai to perform
  */
 public interface Action {
+    long NO_KEY = Long.MIN_VALUE;
 
     /**
      * To logic to be able to perform an action
@@ -16,4 +17,33 @@ public interface Action {
      */
     Game performAction(Game game);
 
+    /**
+     * The kind of the action, chance and group actions override this
+     *
+     * @return the kind of the action
+     */
+    default ActionKind getKind() {
+        return ActionKind.NORMAL;
+    }
+
+    /**
+     * The number of the type of the action. Actions of the same type are put under the same chance or group node
+     *
+     * @return the number of the type, by default the same for every action of the same class
+     */
+    default int getTypeId() {
+        return ActionTypes.getTypeId(getClass());
+    }
+
+    /**
+     * A key that identifies the action in every game state in which it can be performed, so it can be stored in the
+     * position cache and recognized when it is played later on in a simulation for the all-moves-as-first statistics.
+     * Two different actions in the same game state must have different keys
+     *
+     * @return the key of the action, NO_KEY when the action can't be stored
+     */
+    default long getActionKey() {
+        return NO_KEY;
+    }
+
 }
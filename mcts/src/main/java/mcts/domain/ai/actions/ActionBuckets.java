@@ -0,0 +1,194 @@
+package mcts.domain.ai.actions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The legal actions of a game state grouped by the type of the action, for games that keep their legal actions up to date
+ * while actions are performed and undone. A random type and a random action of that type are chosen in constant time
+ * without creating objects. Adding and removing an action is linear in the number of types and the size of its bucket,
+ * which are small for the games this is meant for
+ */
+public class ActionBuckets {
+    private static final int INITIAL_BUCKETS = 4;
+
+    private int[] typeIds;
+    private Action[][] actions;
+    private int[] counts;
+    private int bucketCount;
+    //the buckets that contain actions, and the position of every bucket in this list or -1 when it is empty
+    private int[] activeBuckets;
+    private int[] activePositions;
+    private int activeCount;
+    private int size;
+
+    public ActionBuckets() {
+        this.typeIds = new int[INITIAL_BUCKETS];
+        this.actions = new Action[INITIAL_BUCKETS][];
+        this.counts = new int[INITIAL_BUCKETS];
+        this.activeBuckets = new int[INITIAL_BUCKETS];
+        this.activePositions = new int[INITIAL_BUCKETS];
+    }
+
+    public ActionBuckets(ActionBuckets buckets) {
+        this.typeIds = buckets.typeIds.clone();
+        this.actions = new Action[buckets.actions.length][];
+        for (int bucket = 0; bucket < buckets.bucketCount; bucket++) {
+            this.actions[bucket] = buckets.actions[bucket].clone();
+        }
+        this.counts = buckets.counts.clone();
+        this.bucketCount = buckets.bucketCount;
+        this.activeBuckets = buckets.activeBuckets.clone();
+        this.activePositions = buckets.activePositions.clone();
+        this.activeCount = buckets.activeCount;
+        this.size = buckets.size;
+    }
+
+    /**
+     * Add a legal action
+     *
+     * @param action the action, it must not be in the buckets yet
+     */
+    public void add(Action action) {
+        int bucket = getBucket(action.getTypeId());
+        Action[] bucketActions = actions[bucket];
+        if (counts[bucket] == bucketActions.length) {
+            bucketActions = Arrays.copyOf(bucketActions, bucketActions.length * 2);
+            actions[bucket] = bucketActions;
+        }
+        bucketActions[counts[bucket]++] = action;
+        if (counts[bucket] == 1) {
+            activePositions[bucket] = activeCount;
+            activeBuckets[activeCount++] = bucket;
+        }
+        size++;
+    }
+
+    /**
+     * Remove an action that is no longer legal, the last action of its bucket takes its place
+     *
+     * @param action the action, the same instance that was added
+     * @return true if the action was removed, false when it wasn't in the buckets
+     */
+    public boolean remove(Action action) {
+        int bucket = findBucket(action.getTypeId());
+        if (bucket < 0) {
+            return false;
+        }
+        Action[] bucketActions = actions[bucket];
+        int count = counts[bucket];
+        for (int i = 0; i < count; i++) {
+            if (bucketActions[i] == action) {
+                bucketActions[i] = bucketActions[count - 1];
+                bucketActions[count - 1] = null;
+                counts[bucket] = count - 1;
+                size--;
+                if (count == 1) {
+                    deactivate(bucket);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove all the actions, the buckets are kept for the next actions
+     */
+    public void clear() {
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            Arrays.fill(actions[bucket], 0, counts[bucket], null);
+            counts[bucket] = 0;
+            activePositions[bucket] = -1;
+        }
+        activeCount = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Choose a random action
+     *
+     * @param random    the generator to use
+     * @param byType    true to give every type of action the same chance and then every action of the type,
+     *                  false to give every action the same chance
+     * @return a random action, null when there are no actions
+     */
+    public Action chooseRandom(SplittableRandom random, boolean byType) {
+        if (size == 0) {
+            return null;
+        }
+        if (byType) {
+            int bucket = activeBuckets[random.nextInt(activeCount)];
+            return actions[bucket][random.nextInt(counts[bucket])];
+        }
+        int index = random.nextInt(size);
+        for (int i = 0; i < activeCount; i++) {
+            int bucket = activeBuckets[i];
+            if (index < counts[bucket]) {
+                return actions[bucket][index];
+            }
+            index -= counts[bucket];
+        }
+        throw new IllegalStateException("The sizes of the action buckets don't add up");
+    }
+
+    /**
+     * Add all the actions to a list
+     *
+     * @param list the list to add the actions to
+     */
+    public void addTo(List<Action> list) {
+        for (int i = 0; i < activeCount; i++) {
+            int bucket = activeBuckets[i];
+            for (int j = 0; j < counts[bucket]; j++) {
+                list.add(actions[bucket][j]);
+            }
+        }
+    }
+
+    private int findBucket(int typeId) {
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            if (typeIds[bucket] == typeId) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    private int getBucket(int typeId) {
+        int bucket = findBucket(typeId);
+        if (bucket >= 0) {
+            return bucket;
+        }
+        if (bucketCount == typeIds.length) {
+            int length = typeIds.length * 2;
+            typeIds = Arrays.copyOf(typeIds, length);
+            actions = Arrays.copyOf(actions, length);
+            counts = Arrays.copyOf(counts, length);
+            activeBuckets = Arrays.copyOf(activeBuckets, length);
+            activePositions = Arrays.copyOf(activePositions, length);
+        }
+        bucket = bucketCount++;
+        typeIds[bucket] = typeId;
+        actions[bucket] = new Action[4];
+        activePositions[bucket] = -1;
+        return bucket;
+    }
+
+    private void deactivate(int bucket) {
+        int position = activePositions[bucket];
+        int lastBucket = activeBuckets[--activeCount];
+        activeBuckets[position] = lastBucket;
+        activePositions[lastBucket] = position;
+        activePositions[bucket] = -1;
+    }
+}
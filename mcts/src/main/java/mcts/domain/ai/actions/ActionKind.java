@@ -0,0 +1,19 @@
+package mcts.domain.ai.actions;
+
+/**
+ * The kind of an action, which decides how the action is added to the tree
+ */
+public enum ActionKind {
+    /**
+     * An action that gets its own node
+     */
+    NORMAL,
+    /**
+     * An action with a probability, all the actions of the same type are put under one chance node
+     */
+    CHANCE,
+    /**
+     * An action that is grouped with the other actions of the same type under one group node
+     */
+    GROUP
+}
@@ -0,0 +1,30 @@
+package mcts.domain.ai.actions;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gives every class of action a number, so actions can be grouped by their type without comparing classes.
+ * The number of a class is calculated once and cached by the class itself
+ */
+public final class ActionTypes {
+    private static final AtomicInteger NEXT_TYPE_ID = new AtomicInteger();
+    private static final ClassValue<Integer> TYPE_IDS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return NEXT_TYPE_ID.getAndIncrement();
+        }
+    };
+
+    private ActionTypes() {
+    }
+
+    /**
+     * Get the number of a class of action
+     *
+     * @param type the class of the action
+     * @return the number of the class, the same for every action of that class
+     */
+    public static int getTypeId(Class<?> type) {
+        return TYPE_IDS.get(type);
+    }
+}
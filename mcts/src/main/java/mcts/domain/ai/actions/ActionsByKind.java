@@ -0,0 +1,87 @@
+package mcts.domain.ai.actions;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The possible moves of an expanded node sorted by the kind of their action in one pass. The group and chance moves are put
+ * together per type of action, in the order their type first appeared, and the normal moves keep their order.
+ * Both tree backends expand their nodes from this, so their children are created in the same order
+ *
+ * @param <T> the type of a move, an action or a state with an action
+ */
+@Getter
+public class ActionsByKind<T> {
+    private final List<List<T>> groups = new ArrayList<>();
+    private final List<List<T>> chances = new ArrayList<>();
+    private final List<T> normals;
+
+    private ActionsByKind(int size) {
+        this.normals = new ArrayList<>(size);
+    }
+
+    /**
+     * Sort moves by the kind of their action
+     *
+     * @param moves             the possible moves
+     * @param actionOf          the action of a move, a move without an action is a normal move
+     * @param useGroupNodes     true to put the group moves together, otherwise they are normal moves
+     * @param useChanceNodes    true to put the chance moves together, otherwise they are normal moves
+     * @param <T>               the type of a move
+     * @return the sorted moves
+     */
+    public static <T> ActionsByKind<T> of(List<T> moves, Function<T, Action> actionOf, boolean useGroupNodes, boolean useChanceNodes) {
+        ActionsByKind<T> actionsByKind = new ActionsByKind<>(moves.size());
+        //there are only a few types of actions, so the buckets of a kind are searched one by one
+        List<Integer> groupTypes = new ArrayList<>();
+        List<Integer> chanceTypes = new ArrayList<>();
+        for (T move : moves) {
+            Action action = actionOf.apply(move);
+            ActionKind kind = action != null ? action.getKind() : ActionKind.NORMAL;
+            if (kind == ActionKind.GROUP && useGroupNodes) {
+                addToTypeBucket(actionsByKind.groups, groupTypes, move, action.getTypeId());
+            }
+            else if (kind == ActionKind.CHANCE && useChanceNodes) {
+                addToTypeBucket(actionsByKind.chances, chanceTypes, move, action.getTypeId());
+            }
+            else {
+                actionsByKind.normals.add(move);
+            }
+        }
+        return actionsByKind;
+    }
+
+    /**
+     * Add a move to the bucket of the type of its action, a new bucket is made for a type that wasn't seen yet
+     *
+     * @param buckets   the buckets in the order their type first appeared
+     * @param types     the type of every bucket
+     * @param move      the move to add
+     * @param typeId    the type of the action of the move
+     * @param <T>       the type of a move
+     */
+    private static <T> void addToTypeBucket(List<List<T>> buckets, List<Integer> types, T move, int typeId) {
+        for (int i = 0; i < types.size(); i++) {
+            if (types.get(i) == typeId) {
+                buckets.get(i).add(move);
+                return;
+            }
+        }
+        List<T> bucket = new ArrayList<>();
+        bucket.add(move);
+        buckets.add(bucket);
+        types.add(typeId);
+    }
+
+    /**
+     * Get the number of children the moves give, one for every group or chance bucket and one for every normal move
+     *
+     * @return the number of children
+     */
+    public int getChildCount() {
+        return groups.size() + chances.size() + normals.size();
+    }
+}
@@ -13,4 +13,9 @@ public class ChanceAction implements Action {
     public Game performAction(Game game) {
         return null;
     }
+
+    @Override
+    public ActionKind getKind() {
+        return ActionKind.CHANCE;
+    }
 }
@@ -9,4 +9,9 @@ public class GroupNode implements Action {
     public Game performAction(Game game) {
         return null;
     }
+
+    @Override
+    public ActionKind getKind() {
+        return ActionKind.GROUP;
+    }
 }
@@ -0,0 +1,17 @@
+package mcts.domain.ai.actions;
+
+/**
+ * A game that keeps its legal actions up to date while actions are performed and undone, instead of generating them
+ * for every action of a rollout. The AiService chooses the random actions of the rollouts from these buckets,
+ * so they have to contain the same actions as getLegalActions of the AiService, and no actions when the game has ended
+ */
+public interface IncrementalActions {
+
+    /**
+     * Get the legal actions of the game state. The buckets belong to the game, they must not be changed
+     * and are only valid until the next action is performed
+     *
+     * @return the legal actions grouped by type
+     */
+    ActionBuckets getActionBuckets();
+}
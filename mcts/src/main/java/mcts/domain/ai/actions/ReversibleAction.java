@@ -0,0 +1,30 @@
+package mcts.domain.ai.actions;
+
+import mcts.domain.Game;
+
+/**
+ * An action that changes a game state in place and can be undone again.
+ * Simulations perform these actions on one copy of the game state instead of copying it for every action
+ */
+public interface ReversibleAction extends Action {
+
+    /**
+     * Perform the action on the game state itself
+     *
+     * @param game the game state to change
+     */
+    void apply(Game game);
+
+    /**
+     * Undo the action on a game state on which it was the last action to be applied
+     *
+     * @param game the game state to restore
+     */
+    void undo(Game game);
+
+    @Override
+    default Game performAction(Game game) {
+        apply(game);
+        return game;
+    }
+}
@@ -0,0 +1,57 @@
+package mcts.domain.ai.distributed;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A request of the coordinator of a distributed search to a worker to search a game state and send back its root statistics.
+ * The game state is encoded by the AiService of the game
+ */
+@Getter
+@AllArgsConstructor
+public class SearchRequest {
+    private final int playerId;
+    private final long timeBudget;
+    private final int maxSimulations;
+    private final byte[] game;
+
+    /**
+     * Write the request to a connection
+     *
+     * @param out the output of the connection
+     * @throws IOException when the request can't be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(playerId);
+        out.writeLong(timeBudget);
+        out.writeInt(maxSimulations);
+        out.writeInt(game.length);
+        out.write(game);
+    }
+
+    /**
+     * Read a request from a connection. The length of the game state is checked before it is read,
+     * so a corrupt request can't make the worker allocate more than the maximum
+     *
+     * @param in            the input of the connection
+     * @param maxGameLength the largest encoded game state that is accepted
+     * @return the request
+     * @throws IOException when the request can't be read or its game state is too large, an EOFException when the connection was closed
+     */
+    public static SearchRequest read(DataInput in, int maxGameLength) throws IOException {
+        int playerId = in.readInt();
+        long timeBudget = in.readLong();
+        int maxSimulations = in.readInt();
+        int length = in.readInt();
+        if (length < 0 || length > maxGameLength) {
+            throw new IOException("Invalid game length " + length + ", at most " + maxGameLength + " bytes are accepted");
+        }
+        byte[] game = new byte[length];
+        in.readFully(game);
+        return new SearchRequest(playerId, timeBudget, maxSimulations, game);
+    }
+}
@@ -0,0 +1,58 @@
+package mcts.domain.ai.distributed;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import mcts.domain.ai.MoveStatistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The answer of a worker of a distributed search: the number of simulations it ran and the statistics of the children of its root
+ */
+@Getter
+@AllArgsConstructor
+public class SearchResponse {
+    private final int simulations;
+    private final List<MoveStatistics> moves;
+
+    /**
+     * Write the response to a connection
+     *
+     * @param out the output of the connection
+     * @throws IOException when the response can't be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(simulations);
+        out.writeInt(moves.size());
+        for (MoveStatistics move : moves) {
+            out.writeLong(move.getActionKey());
+            out.writeInt(move.getVisits());
+            out.writeDouble(move.getWinScore());
+            out.writeDouble(move.getSquaredScore());
+        }
+    }
+
+    /**
+     * Read a response from a connection
+     *
+     * @param in the input of the connection
+     * @return the response
+     * @throws IOException when the response can't be read
+     */
+    public static SearchResponse read(DataInput in) throws IOException {
+        int simulations = in.readInt();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid number of moves " + count);
+        }
+        List<MoveStatistics> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(new MoveStatistics(in.readLong(), in.readInt(), in.readDouble(), in.readDouble()));
+        }
+        return new SearchResponse(simulations, moves);
+    }
+}
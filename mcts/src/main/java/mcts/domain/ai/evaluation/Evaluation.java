@@ -0,0 +1,86 @@
+package mcts.domain.ai.evaluation;
+
+import lombok.Getter;
+
+/**
+ * The result of a simulation. This is either the status of a finished game, like a random rollout returns,
+ * or the expected result of every player when a leaf evaluator estimated it
+ */
+@Getter
+public class Evaluation implements SimulationOutcome {
+    private final int status;
+    //the expected result of every player indexed by player id, from 0 for a loss to 1 for a win, null for a finished game
+    private final double[] values;
+
+    private Evaluation(int status, double[] values) {
+        this.status = status;
+        this.values = values;
+    }
+
+    /**
+     * Create the result of a finished game
+     *
+     * @param status the status of the game, the winner or a draw
+     * @return the result
+     */
+    public static Evaluation of(int status) {
+        return new Evaluation(status, null);
+    }
+
+    /**
+     * Create an estimated result
+     *
+     * @param values the expected result of every player indexed by player id, from 0 for a loss to 1 for a win
+     * @return the result
+     */
+    public static Evaluation of(double... values) {
+        if (values == null) {
+            throw new IllegalArgumentException("An estimated evaluation needs a value for every player");
+        }
+        return new Evaluation(Integer.MIN_VALUE, values);
+    }
+
+    /**
+     * Check whether the result was estimated instead of played out
+     *
+     * @return true if the result was estimated
+     */
+    public boolean isEstimated() {
+        return values != null;
+    }
+
+    /**
+     * Get the expected result of a player
+     *
+     * @param playerNo the id of the player
+     * @return the expected result, 0 for a player without a value
+     */
+    public double getValue(int playerNo) {
+        return playerNo >= 0 && playerNo < values.length ? values[playerNo] : 0;
+    }
+
+    @Override
+    public int getSimulations() {
+        return 1;
+    }
+
+    @Override
+    public double getScore(int playerNo, double winScore, double drawScore, int draw) {
+        if (isEstimated()) {
+            return getValue(playerNo) * winScore;
+        }
+        if (playerNo == status) {
+            return winScore;
+        }
+        if (status == draw) {
+            return drawScore;
+        }
+        return 0;
+    }
+
+    @Override
+    public double getSquaredScore(int playerNo, double winScore, double drawScore, int draw) {
+        double score = getScore(playerNo, winScore, drawScore, draw);
+        return score * score;
+    }
+}
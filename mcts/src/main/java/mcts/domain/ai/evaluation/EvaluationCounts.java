@@ -0,0 +1,85 @@
+package mcts.domain.ai.evaluation;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The results of several simulations from the same node, counted so they can be backpropagated in one pass.
+ * Finished games are counted per status and estimated results are summed per player
+ */
+public class EvaluationCounts implements SimulationOutcome {
+    @Getter
+    private int simulations;
+    private final Map<Integer, Integer> statusCounts = new HashMap<>();
+    private double[] valueSums = new double[0];
+    private double[] squaredValueSums = new double[0];
+
+    /**
+     * Count the result of one simulation
+     *
+     * @param evaluation the result of the simulation
+     */
+    public void add(Evaluation evaluation) {
+        simulations++;
+        if (!evaluation.isEstimated()) {
+            statusCounts.merge(evaluation.getStatus(), 1, Integer::sum);
+            return;
+        }
+        double[] values = evaluation.getValues();
+        ensurePlayers(values.length);
+        for (int playerNo = 0; playerNo < values.length; playerNo++) {
+            valueSums[playerNo] += values[playerNo];
+            squaredValueSums[playerNo] += values[playerNo] * values[playerNo];
+        }
+    }
+
+    /**
+     * Add the results counted by another thread
+     *
+     * @param other the counts to add
+     */
+    public void merge(EvaluationCounts other) {
+        simulations += other.simulations;
+        other.statusCounts.forEach((status, count) -> statusCounts.merge(status, count, Integer::sum));
+        ensurePlayers(other.valueSums.length);
+        for (int playerNo = 0; playerNo < other.valueSums.length; playerNo++) {
+            valueSums[playerNo] += other.valueSums[playerNo];
+            squaredValueSums[playerNo] += other.squaredValueSums[playerNo];
+        }
+    }
+
+    private void ensurePlayers(int players) {
+        if (players > valueSums.length) {
+            valueSums = Arrays.copyOf(valueSums, players);
+            squaredValueSums = Arrays.copyOf(squaredValueSums, players);
+        }
+    }
+
+    /**
+     * Get the number of finished games with a status
+     *
+     * @param status the winner or a draw
+     * @return the number of games
+     */
+    public int getCount(int status) {
+        return statusCounts.getOrDefault(status, 0);
+    }
+
+    @Override
+    public double getScore(int playerNo, double winScore, double drawScore, int draw) {
+        return getCount(playerNo) * winScore + getCount(draw) * drawScore + getValueSum(valueSums, playerNo) * winScore;
+    }
+
+    @Override
+    public double getSquaredScore(int playerNo, double winScore, double drawScore, int draw) {
+        return (getCount(playerNo) + getValueSum(squaredValueSums, playerNo)) * winScore * winScore
+                + getCount(draw) * drawScore * drawScore;
+    }
+
+    private static double getValueSum(double[] sums, int playerNo) {
+        return playerNo >= 0 && playerNo < sums.length ? sums[playerNo] : 0;
+    }
+}
@@ -0,0 +1,37 @@
+package mcts.domain.ai.evaluation;
+
+import mcts.domain.Game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An estimate of the result of a game state that replaces or shortens the random rollout of a simulation.
+ * Register an implementation as a bean and set 'useLeafEvaluator' to use it.
+ * The game states are nodes of the search tree or states of a running rollout, so they must not be changed
+ */
+public interface LeafEvaluator {
+
+    /**
+     * Estimate the result of an ongoing game state
+     *
+     * @param game the game state to evaluate
+     * @return the expected result for every player
+     */
+    Evaluation evaluate(Game game);
+
+    /**
+     * Estimate the results of a batch of ongoing game states in one call. Override this method when evaluating
+     * many game states at once is cheaper than evaluating them one by one
+     *
+     * @param games the game states to evaluate
+     * @return the expected result for every game state, in the same order as the game states
+     */
+    default List<Evaluation> evaluate(List<Game> games) {
+        List<Evaluation> evaluations = new ArrayList<>(games.size());
+        for (Game game : games) {
+            evaluations.add(evaluate(game));
+        }
+        return evaluations;
+    }
+}
@@ -0,0 +1,37 @@
+package mcts.domain.ai.evaluation;
+
+/**
+ * The result of one or more simulations from the same node, as it is backpropagated to the nodes on the path
+ */
+public interface SimulationOutcome {
+
+    /**
+     * Get the number of simulations
+     *
+     * @return the number of simulations
+     */
+    int getSimulations();
+
+    /**
+     * Calculate the total score of a player over all the simulations. A win gives the win score, a draw gives the draw score
+     * and an estimated result gives its part of the win score
+     *
+     * @param playerNo  the player who performed the action leading to the node
+     * @param winScore  the score of a win
+     * @param drawScore the score of a draw
+     * @param draw      the status of a draw
+     * @return the total score
+     */
+    double getScore(int playerNo, double winScore, double drawScore, int draw);
+
+    /**
+     * Calculate the total of the squared scores of a player over all the simulations
+     *
+     * @param playerNo  the player who performed the action leading to the node
+     * @param winScore  the score of a win
+     * @param drawScore the score of a draw
+     * @param draw      the status of a draw
+     * @return the total of the squared scores
+     */
+    double getSquaredScore(int playerNo, double winScore, double drawScore, int draw);
+}
@@ -0,0 +1,18 @@
+package mcts.domain.ai.selection;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The PUCT formula, which divides the exploration over the children according to their prior probability.
+ * Children that haven't been visited yet have an average score of 0, so the prior decides which one is tried first
+ */
+@RequiredArgsConstructor
+public class PuctPolicy implements SelectionPolicy {
+    private final double learningRate;
+
+    @Override
+    public double value(int parentVisit, double logParentVisit, int visitCount, double winScore, double squaredScore, double prior) {
+        double averageScore = visitCount == 0 ? 0 : winScore / visitCount;
+        return averageScore + learningRate * prior * Math.sqrt(parentVisit) / (1 + visitCount);
+    }
+}
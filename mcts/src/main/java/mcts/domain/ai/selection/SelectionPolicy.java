@@ -0,0 +1,21 @@
+package mcts.domain.ai.selection;
+
+/**
+ * A formula to calculate the value of a child node, the child with the highest value is selected.
+ * The value is calculated for every child on every level of every simulation, so implementations only do arithmetic
+ */
+public interface SelectionPolicy {
+
+    /**
+     * Calculate the value of a child node
+     *
+     * @param parentVisit       the number of visits of the parent
+     * @param logParentVisit    the natural logarithm of the number of visits of the parent, calculated once per parent
+     * @param visitCount        the number of visits of the child
+     * @param winScore          the total score of the child
+     * @param squaredScore      the total of the squared scores of the simulations through the child
+     * @param prior             the prior probability of the child
+     * @return the value of the child
+     */
+    double value(int parentVisit, double logParentVisit, int visitCount, double winScore, double squaredScore, double prior);
+}
@@ -0,0 +1,10 @@
+package mcts.domain.ai.selection;
+
+/**
+ * The selection policies that can be chosen in the config
+ */
+public enum SelectionPolicyType {
+    UCB1,
+    UCB1_TUNED,
+    PUCT
+}
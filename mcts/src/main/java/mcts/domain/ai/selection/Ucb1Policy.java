@@ -0,0 +1,21 @@
+package mcts.domain.ai.selection;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The UCB1 formula: the average score plus an exploration term that shrinks as the child is visited more.
+ * A child that hasn't been visited yet gets the highest value, so it is selected first
+ */
+@RequiredArgsConstructor
+public class Ucb1Policy implements SelectionPolicy {
+    private final double learningRate;
+
+    @Override
+    public double value(int parentVisit, double logParentVisit, int visitCount, double winScore, double squaredScore, double prior) {
+        if (visitCount == 0) {
+            return Integer.MAX_VALUE;
+        }
+        return (winScore / (double) visitCount)
+                + learningRate * Math.sqrt(logParentVisit / (double) visitCount);
+    }
+}
@@ -0,0 +1,25 @@
+package mcts.domain.ai.selection;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The UCB1-Tuned formula, which bounds the exploration term by an estimate of the variance of the scores of the child.
+ * Children with consistent results are explored less than children with varying results.
+ * The scores are scaled to the range of 0 to 1 with the maximum score of one simulation
+ */
+@RequiredArgsConstructor
+public class Ucb1TunedPolicy implements SelectionPolicy {
+    private final double maxScore;
+
+    @Override
+    public double value(int parentVisit, double logParentVisit, int visitCount, double winScore, double squaredScore, double prior) {
+        if (visitCount == 0) {
+            return Integer.MAX_VALUE;
+        }
+        double mean = winScore / maxScore / visitCount;
+        double variance = Math.max(squaredScore / (maxScore * maxScore) / visitCount - mean * mean, 0);
+        double explorationFactor = logParentVisit / visitCount;
+        double varianceBound = variance + Math.sqrt(2 * explorationFactor);
+        return maxScore * (mean + Math.sqrt(explorationFactor * Math.min(0.25, varianceBound)));
+    }
+}
@@ -5,15 +5,27 @@ import lombok.extern.slf4j.Slf4j;
 import mcts.config.AiConfig;
 import mcts.domain.Game;
 import mcts.domain.ai.Node;
+import mcts.domain.ai.SearchRandom;
 import mcts.domain.ai.SimulationTimeStruct;
 import mcts.domain.ai.State;
 import mcts.domain.ai.actions.Action;
-import mcts.domain.ai.actions.ChanceAction;
+import mcts.domain.ai.actions.ActionBuckets;
+import mcts.domain.ai.actions.ActionKind;
+import mcts.domain.ai.actions.IncrementalActions;
+import mcts.domain.ai.actions.ReversibleAction;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -37,9 +49,6 @@ public class AiService {
 
         int currentPlayerAtStartSimulation = getCurrentPlayer(game);
 
-        //Get all the types of actions
-        List<Class<? extends Action>> actionTypes = actions.stream().map(Action::getClass).distinct().collect(Collectors.toList());
-
         //If there only have to be played random moves
         if (aiConfig.isOnlyRandomMoves()) {
             //TODO: Turn all the chance actions in normal actions
@@ -52,7 +61,8 @@ public class AiService {
         }
 
         //If the only type of action is a ChanceRollDiceAction convert it to a normal dice roll action and execute it
-        if (actionTypes.size() == 1 && actionTypes.get(0).getSuperclass() == ChanceAction.class) {
+        if (!actions.isEmpty() && actions.stream().allMatch(action -> action.getKind() == ActionKind.CHANCE
+                && action.getTypeId() == actions.get(0).getTypeId())) {
             //TODO: Turn all the chance actions in normal actions
         }
 
@@ -86,6 +96,33 @@ public class AiService {
         return actions.parallelStream().map(action -> new State(getNextState(game, action), playerId, action)).collect(Collectors.toList());
     }
 
+    /**
+     * Calculate all the possible states you can reach from a given game state without creating their game states.
+     * The game state of a state is only created by performing its action when the state is visited for the first time
+     *
+     * @param game the game state from which you want to start
+     * @return all the possible states without a game state
+     */
+    public List<State> getAllLazyStates(Game game) {
+        int playerId = getCurrentPlayer(game);
+        List<Action> actions = getLegalActions(game);
+
+        return actions.stream().map(action -> new State(null, playerId, action)).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the prior probability that an action is the best action in a game state, this is used by the PUCT selection policy
+     *
+     * @param game              the game state in which the action is performed
+     * @param action            the action
+     * @param numberOfActions   the number of possible actions in the game state
+     * @return the prior probability of the action
+     */
+    public double getPrior(Game game, Action action, int numberOfActions) {
+        //TODO: you can give actions that are more likely to be good a higher probability
+        return 1.0 / numberOfActions;
+    }
+
     /**
      * get the next game state after performing an action to a game state
      *
@@ -94,7 +131,89 @@ public class AiService {
      * @return the next game state after performing the action
      */
     public Game getNextState(Game game, Action action) {
-        return new Game(action.performAction(new Game(game)));
+        return action.performAction(game.copy()).copy();
+    }
+
+    /**
+     * Check whether two game states are the same, this is used to find the game state in a tree of a previous search
+     *
+     * @param game      the first game state
+     * @param otherGame the second game state
+     * @return true if both game states are the same
+     */
+    public boolean isSameState(Game game, Game otherGame) {
+        //TODO: compare all the fields that make up the game state
+        return false;
+    }
+
+    /**
+     * Get a hash of a game state, game states that are the same have to get the same hash.
+     * This is called for every state that is added to the tree, so it has to be cheap. A game can for example
+     * keep a zobrist hash in 'stateHash' and update it while performing an action
+     *
+     * @param game the game state
+     * @return the hash of the game state
+     */
+    public long getStateHash(Game game) {
+        //TODO: keep 'stateHash' of the game up to date or return a hash of all the fields that make up the game state
+        return game.getStateHash();
+    }
+
+    /**
+     * Encode a game state so it can be sent to the workers of a distributed search
+     *
+     * @param game the game state
+     * @return the encoded game state
+     */
+    public byte[] encodeGame(Game game) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeGame(game, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode a game state", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a game state that was encoded by encodeGame
+     *
+     * @param data the encoded game state
+     * @return the game state
+     */
+    public Game decodeGame(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return readGame(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode a game state", e);
+        }
+    }
+
+    /**
+     * Write the fields that make up a game state, readGame has to read them in the same order.
+     * The id of the game isn't written, a worker searches the game state without reusing a tree
+     *
+     * @param game the game state
+     * @param out  the output to write to
+     * @throws IOException when the output can't be written
+     */
+    protected void writeGame(Game game, DataOutput out) throws IOException {
+        //TODO: write all the fields that make up the game state
+        out.writeLong(game.getStateHash());
+    }
+
+    /**
+     * Read a game state that was written by writeGame
+     *
+     * @param in the input to read from
+     * @return the game state
+     * @throws IOException when the input can't be read
+     */
+    protected Game readGame(DataInput in) throws IOException {
+        //TODO: create a game state of your game and read all the fields in the order they were written by writeGame
+        Game game = new Game();
+        game.setStateHash(in.readLong());
+        return game;
     }
 
     /**
@@ -115,11 +234,50 @@ public class AiService {
      * @return the next game state after performing the action
      */
     public Game randomAction(Game game) {
+        Action action = chooseRandomAction(game);
+        if (action == null) {
+            return game;
+        }
+        return getNextState(game, action);
+    }
+
+    /**
+     * Perform a random action on a game state that may be changed, like the copy a simulation runs on.
+     * A reversible action is applied in place, other actions are performed without copying the game state first
+     *
+     * @param game the game state to change
+     * @return the game state after performing the action
+     */
+    public Game applyRandomAction(Game game) {
+        Action action = chooseRandomAction(game);
+        if (action == null) {
+            return game;
+        }
+        if (action instanceof ReversibleAction) {
+            ((ReversibleAction) action).apply(game);
+            return game;
+        }
+        return action.performAction(game);
+    }
+
+    /**
+     * Choose a random legal action of a game state. A game that implements IncrementalActions keeps its legal actions
+     * grouped by type, so the action is chosen from those buckets without creating the list of legal actions.
+     * An override of chooseRandomAction with a list isn't used for such games
+     *
+     * @param game the game state
+     * @return a random legal action, null when there are no legal actions
+     */
+    public Action chooseRandomAction(Game game) {
+        if (game instanceof IncrementalActions) {
+            ActionBuckets buckets = ((IncrementalActions) game).getActionBuckets();
+            return buckets.chooseRandom(SearchRandom.current(), aiConfig.isUseRandomActionType());
+        }
         List<Action> actions = getLegalActions(game);
         if (actions.isEmpty()) {
-            return game;
+            return null;
         }
-        return getNextState(game, chooseRandomAction(actions));
+        return chooseRandomAction(actions);
     }
 
     /**
@@ -130,16 +288,38 @@ public class AiService {
      */
     public Action chooseRandomAction(List<Action> actions) {
         //TODO: you can also implement something different where certain actions have different probabilities of being chosen
-        Random random = new Random();
+        SplittableRandom random = SearchRandom.current();
 
         //Rather than giving every action the same chance of being picked give each action type the same chance of being picked
         if (aiConfig.isUseRandomActionType()) {
-            //Get all the classes from all the action types
-            List<Class<? extends Action>> actionTypes = actions.stream().map(Action::getClass).distinct().collect(Collectors.toList());
-            //Choose a random class
-            Class<? extends Action> actionType = actionTypes.get(random.nextInt(actionTypes.size()));
-            //Filter actions on this class
-            actions = actions.stream().filter(action -> action.getClass() == actionType).collect(Collectors.toList());
+            //Get all the types of actions in one pass, there are only a few types so they are searched one by one
+            int[] actionTypes = new int[actions.size()];
+            int numberOfTypes = 0;
+            for (Action action : actions) {
+                int typeId = action.getTypeId();
+                int type = 0;
+                while (type < numberOfTypes && actionTypes[type] != typeId) {
+                    type++;
+                }
+                if (type == numberOfTypes) {
+                    actionTypes[numberOfTypes++] = typeId;
+                }
+            }
+            //Choose a random type
+            int actionType = actionTypes[random.nextInt(numberOfTypes)];
+            //Choose a random action of this type
+            int typeActions = 0;
+            for (Action action : actions) {
+                if (action.getTypeId() == actionType) {
+                    typeActions++;
+                }
+            }
+            int randomAction = random.nextInt(typeActions);
+            for (Action action : actions) {
+                if (action.getTypeId() == actionType && randomAction-- == 0) {
+                    return action;
+                }
+            }
         }
 
         int randomAction = random.nextInt(actions.size());
@@ -172,10 +352,22 @@ public class AiService {
      * @return the score gotten upon reaching the end of the branch
      */
     public double calculateVirtualWins(Node node) {
+        return calculateVirtualWins(node.getState().getGame());
+    }
+
+    /**
+     * Adds domain logic to the calculations by awarding extra points fo doing certain things
+     * <p>
+     * This is only executed if 'useOtherMetrics' is set to true
+     *
+     * @param game the game state of the last node of the branch, the one on which backpropagation starts
+     * @return the score gotten upon reaching the end of the branch
+     */
+    public double calculateVirtualWins(Game game) {
 
         double virtualScore = 0.0;
 
-        if (aiConfig.isUseOtherMetrics() && node.getState().getGame() != null) {
+        if (aiConfig.isUseOtherMetrics() && game != null) {
             //TODO: implement points awarding logic
         }
 
@@ -0,0 +1,76 @@
+package mcts.services;
+
+import lombok.RequiredArgsConstructor;
+import mcts.config.AiConfig;
+import mcts.domain.ai.AmafMoves;
+import mcts.domain.ai.Node;
+import mcts.domain.ai.State;
+import mcts.domain.ai.actions.ActionKind;
+import mcts.domain.ai.evaluation.Evaluation;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keeps the all-moves-as-first statistics of the nodes for RAVE. Every search thread records the moves of its
+ * simulations in its own set, the statistics are added to the nodes after the simulation is backpropagated
+ */
+@Service
+@RequiredArgsConstructor
+public class AmafService {
+
+    private final AiConfig aiConfig;
+    private final AiService aiService;
+    private final ThreadLocal<AmafMoves> amafMoves = ThreadLocal.withInitial(AmafMoves::new);
+
+    /**
+     * Get the set in which the moves of a simulation are recorded while it's played. The all-moves-as-first
+     * statistics are only kept when 'useRave' is set and a single rollout is played
+     *
+     * @param rollouts the number of rollouts of the simulation
+     * @return the empty set of the current thread, null when no statistics are kept
+     */
+    public AmafMoves startSimulation(int rollouts) {
+        if (rollouts != 1 || !aiConfig.isUseRave()) {
+            return null;
+        }
+        AmafMoves moves = amafMoves.get();
+        moves.clear();
+        return moves;
+    }
+
+    /**
+     * Update the all-moves-as-first statistics of a simulation. Going up from the simulated node, every child of a node
+     * on the path gets the result of the simulation when its player played its action later on in the simulation,
+     * in the tree below the node or in the rollout
+     *
+     * @param nodeToExplore the child node where the simulation has ended
+     * @param path          the nodes from the root to the simulated node, null to follow the parents of the simulated node
+     * @param evaluation    the result of the simulation
+     * @param moves         the moves of the rollout, the actions on the path are added while going up
+     */
+    public void update(Node nodeToExplore, List<Node> path, Evaluation evaluation, AmafMoves moves) {
+        double bonusScore = aiService.calculateVirtualWins(nodeToExplore);
+        double winScore = aiConfig.getWinScore() + bonusScore;
+        double drawScore = aiConfig.getDrawScore() + bonusScore;
+        int index = path != null ? path.size() - 1 : 0;
+        Node node = nodeToExplore;
+        while (node != null) {
+            //the children of a chance node are outcomes, not actions a player chose
+            if (!node.isChanceNode()) {
+                for (Node child : node.getChildArray()) {
+                    State state = child.getState();
+                    if (state.getAction() != null && !child.isChanceNode() && !child.isGroupNode()
+                            && moves.contains(state.getPlayerNo(), state.getAction().getActionKey())) {
+                        state.addAmafScore(evaluation.getScore(state.getPlayerNo(), winScore, drawScore, aiConfig.getDraw()));
+                    }
+                }
+            }
+            State state = node.getState();
+            if (state.getAction() != null && !node.isChanceNode() && !node.isGroupNode() && state.getAction().getKind() != ActionKind.CHANCE) {
+                moves.add(state.getPlayerNo(), state.getAction().getActionKey());
+            }
+            node = path != null ? (--index >= 0 ? path.get(index) : null) : node.getParent();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package mcts.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.SimulationResult;
+import mcts.domain.ai.ArrayTree;
+import mcts.domain.ai.RootDecision;
+import mcts.domain.ai.SearchStatistics;
+import mcts.domain.ai.UCT;
+import mcts.domain.ai.actions.Action;
+import mcts.domain.ai.actions.ActionsByKind;
+import mcts.domain.ai.actions.ChanceAction;
+import mcts.domain.ai.evaluation.SimulationOutcome;
+import mcts.domain.ai.selection.SelectionPolicyType;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Searches a game state in a tree that is stored in primitive arrays, for single-threaded searches.
+ * Every thread keeps its own tree, so the arrays are reused by the next search on the same thread
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ArrayTreeSearchService {
+
+    private final AiConfig aiConfig;
+    private final AiService aiService;
+    private final UCT uct;
+    private final SearchMetricsService searchMetricsService;
+    private final RolloutService rolloutService;
+    private final SearchBudgetService searchBudgetService;
+    private final PositionCacheService positionCacheService;
+    private final ThreadLocal<ArrayTree> arrayTrees = new ThreadLocal<>();
+
+    /**
+     * Search a tree that is stored in primitive arrays. The arrays of the tree are reused by the next search on this thread
+     *
+     * @param game          the game state for which you want to find the best move
+     * @param playerId      the player who has to act
+     * @param end           the time at which the search has to stop
+     * @param statistics    the statistics to add the simulations to
+     * @return the game state after you performed the best possible move
+     */
+    public SimulationResult findNextState(Game game, int playerId, long end, SearchStatistics statistics) {
+        ArrayTree tree = arrayTrees.get();
+        if (tree == null) {
+            tree = new ArrayTree(aiConfig.getArrayTreeCapacity());
+            arrayTrees.set(tree);
+        }
+        int rootNode = tree.createRoot(game, playerId);
+        long start = System.currentTimeMillis();
+        int simulations = search(tree, rootNode, end, aiConfig.getNumberOfSimulations(), statistics);
+        if (searchBudgetService.needsExtension(RootDecision.of(tree, rootNode), statistics)) {
+            statistics.setExtended(true);
+            simulations += search(tree, rootNode, searchBudgetService.getExtendedEnd(start, end),
+                    searchBudgetService.getExtendedSimulations(aiConfig.getNumberOfSimulations()), statistics);
+        }
+
+        int[] rootChildVisits = new int[tree.getChildCount(rootNode)];
+        for (int i = 0; i < rootChildVisits.length; i++) {
+            rootChildVisits[i] = tree.getVisitCount(tree.getFirstChild(rootNode) + i);
+        }
+        statistics.setRootChildVisits(rootChildVisits);
+        statistics.setNodeCount(tree.getSize());
+        statistics.setSearchTime(System.currentTimeMillis() - start);
+
+        if (positionCacheService.isEnabled()) {
+            positionCacheService.put(game, playerId, tree.getMoveStatistics(rootNode));
+        }
+
+        int winnerNode = tree.getChildWithMaxScore(rootNode);
+        log.info("Game[{}]: AI[{}] simulated {} games on {} nodes{}, ran {}", game.getId(), tree.getPlayerNo(winnerNode), simulations,
+                tree.getSize(), searchBudgetService.getBudgetNote(statistics), tree.getAction(winnerNode));
+        searchMetricsService.record(statistics);
+
+        return new SimulationResult(tree.getGame(winnerNode).copy(), tree.getAction(winnerNode), statistics);
+    }
+
+    /**
+     * Run the select, expand, simulate and backpropagate loop on an array tree until the budget is used up
+     *
+     * @param tree              the tree to search
+     * @param rootNode          the root of the tree
+     * @param end               the time at which the search has to stop
+     * @param maxSimulations    the number of simulations to run when 'useNumberOfSimulations' is set
+     * @param statistics        the statistics to add the simulations to
+     * @return the number of simulations that were run
+     */
+    private int search(ArrayTree tree, int rootNode, long end, int maxSimulations, SearchStatistics statistics) {
+        return searchBudgetService.search(() -> runSimulation(tree, rootNode, statistics), () -> RootDecision.of(tree, rootNode),
+                end, maxSimulations, statistics);
+    }
+
+    /**
+     * Run one select, expand, simulate and backpropagate iteration on an array tree
+     *
+     * @param tree      the tree to search
+     * @param rootNode      the root of the tree
+     * @param statistics    the statistics to add the simulation to
+     * @return the number of simulations that were run
+     */
+    private int runSimulation(ArrayTree tree, int rootNode, SearchStatistics statistics) {
+        boolean timed = aiConfig.isUseInstrumentation();
+        long start = timed ? System.nanoTime() : 0;
+        int promisingNode = selectPromisingNode(tree, rootNode);
+        long selected = timed ? System.nanoTime() : 0;
+        //an array tree can't remove nodes, so when it's full the leaf is simulated without expanding it
+        if (aiService.getStatus(tree.getGame(promisingNode), false) == aiConfig.getOngoingGame()
+                && (aiConfig.getMaxNodes() <= 0 || tree.getSize() < aiConfig.getMaxNodes())) {
+            expandNode(tree, promisingNode);
+        }
+        int nodeToExplore = promisingNode;
+
+        if (tree.getChildCount(promisingNode) > 0) {
+            nodeToExplore = tree.getRandomChild(promisingNode);
+            if (tree.isChanceNode(nodeToExplore)) {
+                nodeToExplore = tree.getChildByProbability(nodeToExplore);
+            }
+            if (tree.isGroupNode(nodeToExplore)) {
+                nodeToExplore = tree.getChildWithMaxScore(nodeToExplore);
+            }
+        }
+        long expanded = timed ? System.nanoTime() : 0;
+        int rollouts = Math.max(aiConfig.getLeafRollouts(), 1);
+        SimulationOutcome outcome = rollouts > 1 ? rolloutService.runRollouts(tree.getGame(nodeToExplore), rollouts, statistics)
+                : rolloutService.evaluateLeaf(tree.getGame(nodeToExplore), statistics);
+        long simulated = timed ? System.nanoTime() : 0;
+        backPropagation(tree, nodeToExplore, outcome);
+
+        if (timed) {
+            int depth = 0;
+            for (int parent = tree.getParent(nodeToExplore); parent != ArrayTree.NO_NODE; parent = tree.getParent(parent)) {
+                depth++;
+            }
+            statistics.addSimulations(rollouts, selected - start, expanded - selected, simulated - expanded, System.nanoTime() - simulated, depth);
+        }
+        else {
+            statistics.addSimulations(rollouts, 0, 0, 0, 0, 0);
+        }
+        return rollouts;
+    }
+
+    /**
+     * Select the best node out of the child nodes of the root node of an array tree
+     *
+     * @param tree      the tree to search
+     * @param rootNode  the node from whom you want to test it's child nodes
+     * @return the best child node
+     */
+    public int selectPromisingNode(ArrayTree tree, int rootNode) {
+        int node = rootNode;
+        while (tree.getChildCount(node) != 0) {
+            if (tree.isChanceNode(node)) {
+                node = tree.getChildByProbability(node);
+            }
+            else {
+                node = uct.findBestNodeWithUCT(tree, node);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Add all the possible child nodes to a node of an array tree. The group and chance nodes come first,
+     * followed by the normal actions, in the same order as they are created for a normal tree
+     *
+     * @param tree  the tree that contains the node
+     * @param node  the node you want to expand
+     */
+    public void expandNode(ArrayTree tree, int node) {
+        Game game = tree.getGame(node);
+        int playerId = aiService.getCurrentPlayer(game);
+        List<Action> actions = aiService.getLegalActions(game);
+        ActionsByKind<Action> actionsByKind = ActionsByKind.of(actions, Function.identity(), aiConfig.isUseGroupNodes(),
+                aiConfig.isUseChanceNodes());
+        int child = tree.allocateChildren(node, actionsByKind.getChildCount());
+
+        for (List<Action> typeActions : actionsByKind.getGroups()) {
+            tree.setState(child, null, playerId, null);
+            tree.setGroupNode(child);
+            createTypeChildren(tree, child, game, playerId, typeActions);
+            child++;
+        }
+
+        for (List<Action> typeActions : actionsByKind.getChances()) {
+            tree.setState(child, null, playerId, null);
+            tree.setChanceNode(child);
+            int chanceChild = createTypeChildren(tree, child, game, playerId, typeActions);
+            for (Action action : typeActions) {
+                tree.setProbability(chanceChild++, ((ChanceAction) action).getProbability());
+            }
+            tree.buildAliasTable(child);
+            child++;
+        }
+
+        for (Action action : actionsByKind.getNormals()) {
+            tree.setState(child++, aiService.getNextState(game, action), playerId, action);
+        }
+
+        if (aiConfig.getSelectionPolicy() == SelectionPolicyType.PUCT) {
+            assignPriors(tree, node, game, actions.size());
+        }
+    }
+
+    /**
+     * Give the children of an expanded node of an array tree their prior probability, in the same way as for a normal tree
+     *
+     * @param tree              the tree that contains the node
+     * @param node              the expanded node, or one of its group or chance nodes
+     * @param game              the game state of the expanded node
+     * @param numberOfActions   the number of possible actions in the game state
+     * @return the sum of the priors of the children
+     */
+    private double assignPriors(ArrayTree tree, int node, Game game, int numberOfActions) {
+        double totalPrior = 0;
+        int end = tree.getFirstChild(node) + tree.getChildCount(node);
+        for (int child = tree.getFirstChild(node); child < end; child++) {
+            double prior;
+            if (tree.isGroupNode(child) || tree.isChanceNode(child)) {
+                prior = assignPriors(tree, child, game, numberOfActions);
+                if (tree.isGroupNode(child) && prior > 0) {
+                    int groupEnd = tree.getFirstChild(child) + tree.getChildCount(child);
+                    for (int groupChild = tree.getFirstChild(child); groupChild < groupEnd; groupChild++) {
+                        tree.setPrior(groupChild, tree.getPrior(groupChild) / prior);
+                    }
+                }
+            }
+            else {
+                prior = aiService.getPrior(game, tree.getAction(child), numberOfActions);
+            }
+            tree.setPrior(child, prior);
+            totalPrior += prior;
+        }
+        return totalPrior;
+    }
+
+    /**
+     * Add actions of the same type as children of a group or chance node of an array tree
+     *
+     * @param tree      the tree that contains the node
+     * @param node      the group or chance node
+     * @param game      the game state on which the actions are performed
+     * @param playerId  the player who performs the actions
+     * @param actions   the actions of one type
+     * @return the index of the first child
+     */
+    private int createTypeChildren(ArrayTree tree, int node, Game game, int playerId, List<Action> actions) {
+        int firstChild = tree.allocateChildren(node, actions.size());
+        int child = firstChild;
+        for (Action action : actions) {
+            tree.setState(child++, aiService.getNextState(game, action), playerId, action);
+        }
+        return firstChild;
+    }
+
+    /**
+     * Update all the parent nodes of an array tree from the result of one or more simulations of the same node
+     *
+     * @param tree              the tree that contains the node
+     * @param nodeToExplore     the child node where the simulations have ended
+     * @param outcome           the result of the simulations
+     */
+    public void backPropagation(ArrayTree tree, int nodeToExplore, SimulationOutcome outcome) {
+        int tempNode = nodeToExplore;
+        double bonusScore = aiService.calculateVirtualWins(tree.getGame(tempNode));
+        double winScore = aiConfig.getWinScore() + bonusScore;
+        double drawScore = aiConfig.getDrawScore() + bonusScore;
+
+        do {
+            tree.addVisits(tempNode, outcome.getSimulations());
+            int playerNo = tree.getPlayerNo(tempNode);
+            tree.addScores(tempNode, outcome.getScore(playerNo, winScore, drawScore, aiConfig.getDraw()),
+                    outcome.getSquaredScore(playerNo, winScore, drawScore, aiConfig.getDraw()));
+            tempNode = tree.getParent(tempNode);
+        } while (tempNode != ArrayTree.NO_NODE);
+    }
+}
@@ -0,0 +1,188 @@
+package mcts.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.ai.Node;
+import mcts.domain.ai.SearchStatistics;
+import mcts.domain.ai.distributed.SearchRequest;
+import mcts.domain.ai.distributed.SearchResponse;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends a search to the worker processes of a distributed search and collects their root statistics.
+ * Every search opens its own connection to every worker, a worker that can't be reached or answers too late
+ * is left out of the search, so the coordinator never waits longer than its own budget and the grace period
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DistributedCoordinatorService {
+
+    private final AiConfig aiConfig;
+    private final AiService aiService;
+    private ExecutorService connections;
+
+    /**
+     * Start the threads that wait for the workers when 'useDistributedSearch' is set
+     */
+    @PostConstruct
+    public void start() {
+        if (!aiConfig.isUseDistributedSearch()) {
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "mcts-coordinator-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        connections = Executors.newCachedThreadPool(threadFactory);
+        log.info("Distributing searches over the workers {}", getWorkers());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (connections != null) {
+            connections.shutdownNow();
+            connections = null;
+        }
+    }
+
+    /**
+     * Check whether searches are distributed over workers
+     *
+     * @return true if the coordinator is started and has at least one worker
+     */
+    public boolean isEnabled() {
+        return connections != null && !getWorkers().isEmpty();
+    }
+
+    /**
+     * Get the workers of the distributed search
+     *
+     * @return the workers as host:port
+     */
+    public List<String> getWorkers() {
+        List<String> workers = aiConfig.getDistributedWorkers();
+        return workers != null ? workers : new ArrayList<>();
+    }
+
+    /**
+     * Send a search of a game state to every worker
+     *
+     * @param game              the game state to search
+     * @param playerId          the player who has to act
+     * @param timeBudget        the time every worker may search
+     * @param maxSimulations    the number of simulations every worker runs when 'useNumberOfSimulations' is set
+     * @return the answers of the workers, in the order of the workers
+     */
+    public List<Future<SearchResponse>> requestSearches(Game game, int playerId, long timeBudget, int maxSimulations) {
+        SearchRequest request = new SearchRequest(playerId, timeBudget, maxSimulations, aiService.encodeGame(game));
+        List<Future<SearchResponse>> responses = new ArrayList<>();
+        for (String worker : getWorkers()) {
+            responses.add(connections.submit(() -> requestSearch(worker, request)));
+        }
+        return responses;
+    }
+
+    /**
+     * Send a search to one worker and wait for its answer. The read timeout of the connection is the budget of the search
+     * and the grace period, so a worker that hangs doesn't keep the thread
+     *
+     * @param worker    the worker as host:port
+     * @param request   the search
+     * @return the answer of the worker
+     * @throws IOException when the worker can't be reached or the connection fails
+     */
+    private SearchResponse requestSearch(String worker, SearchRequest request) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.setTcpNoDelay(true);
+            socket.connect(getAddress(worker), aiConfig.getDistributedConnectTimeout());
+            socket.setSoTimeout((int) Math.min(request.getTimeBudget() + aiConfig.getDistributedGracePeriod(), Integer.MAX_VALUE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            request.write(out);
+            out.flush();
+            return SearchResponse.read(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+        }
+    }
+
+    /**
+     * Get the address of a worker
+     *
+     * @param worker the worker as host:port
+     * @return the address of the worker
+     */
+    private static InetSocketAddress getAddress(String worker) {
+        int separator = worker.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("A worker has to be given as host:port, not " + worker);
+        }
+        return new InetSocketAddress(worker.substring(0, separator).trim(), Integer.parseInt(worker.substring(separator + 1).trim()));
+    }
+
+    /**
+     * Wait for the answers of the workers and add their root statistics to the root of the search of the coordinator.
+     * A worker whose answer doesn't come before the deadline is left out
+     *
+     * @param rootNode      the root of the coordinator, it has to be expanded
+     * @param responses     the answers of the workers
+     * @param deadline      the time after which answers are no longer used
+     * @param statistics    the statistics to add the simulations of the workers to
+     * @return the number of workers whose search was merged
+     */
+    public int mergeSearches(Node rootNode, List<Future<SearchResponse>> responses, long deadline, SearchStatistics statistics) {
+        int workers = 0;
+        for (Future<SearchResponse> response : responses) {
+            SearchResponse searchResponse = awaitResponse(response, deadline);
+            if (searchResponse != null && rootNode.mergeMoveStatistics(searchResponse.getMoves())) {
+                statistics.addSimulations(searchResponse.getSimulations(), 0, 0, 0, 0, 0);
+                workers++;
+            }
+        }
+        return workers;
+    }
+
+    /**
+     * Wait for the answer of a worker until a deadline
+     *
+     * @param response  the answer of the worker
+     * @param deadline  the time after which the answer is no longer used
+     * @return the answer, null when the worker failed or didn't answer in time
+     */
+    private SearchResponse awaitResponse(Future<SearchResponse> response, long deadline) {
+        try {
+            return response.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            log.warn("A worker didn't answer in time and was left out of the search");
+        } catch (ExecutionException e) {
+            log.warn("A worker failed and was left out of the search: {}", e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.cancel(true);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,133 @@
+package mcts.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.ai.distributed.SearchRequest;
+import mcts.domain.ai.distributed.SearchResponse;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the searches of the coordinator of a distributed search in this process. Every connection is served on its own thread,
+ * it reads a search, searches the game state with the settings of this process and writes back the statistics of the root
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DistributedWorkerService {
+
+    private final AiConfig aiConfig;
+    private final AiService aiService;
+    private final MonteCarloService monteCarloService;
+    private ServerSocket serverSocket;
+    private ExecutorService connections;
+
+    /**
+     * Listen on 'distributedWorkerPort' when 'useDistributedWorker' is set
+     */
+    @PostConstruct
+    public void start() {
+        if (!aiConfig.isUseDistributedWorker()) {
+            return;
+        }
+        try {
+            serverSocket = new ServerSocket(aiConfig.getDistributedWorkerPort());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not listen on port " + aiConfig.getDistributedWorkerPort(), e);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "mcts-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        connections = Executors.newCachedThreadPool(threadFactory);
+        connections.submit(this::accept);
+        log.info("Waiting for distributed searches on port {}", serverSocket.getLocalPort());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (serverSocket == null) {
+            return;
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.warn("Could not close the worker socket", e);
+        }
+        connections.shutdownNow();
+        serverSocket = null;
+    }
+
+    /**
+     * Get the port the worker listens on, which is useful when 'distributedWorkerPort' is 0
+     *
+     * @return the port, -1 when the worker isn't started
+     */
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : -1;
+    }
+
+    /**
+     * Accept connections until the worker is stopped
+     */
+    private void accept() {
+        ServerSocket server = serverSocket;
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                connections.submit(() -> serve(socket));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    log.warn("Could not accept a connection", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Answer the searches of a connection until the coordinator closes it
+     *
+     * @param socket the connection
+     */
+    private void serve(Socket socket) {
+        try (Socket connection = socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            while (true) {
+                SearchRequest request;
+                try {
+                    request = SearchRequest.read(in, aiConfig.getDistributedMaxGameBytes());
+                } catch (EOFException e) {
+                    return;
+                }
+                Game game = aiService.decodeGame(request.getGame());
+                SearchResponse response = monteCarloService.searchRootMoves(game, request.getPlayerId(), request.getTimeBudget(),
+                        request.getMaxSimulations());
+                response.write(out);
+                out.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("A distributed search failed: {}", e.toString());
+        }
+    }
+}
@@ -7,13 +7,28 @@ import mcts.domain.Game;
 import mcts.domain.SimulationResult;
 import mcts.domain.ai.*;
 import mcts.domain.ai.actions.Action;
+import mcts.domain.ai.actions.ActionsByKind;
 import mcts.domain.ai.actions.ChanceAction;
-import mcts.domain.ai.actions.GroupNode;
+import mcts.domain.ai.actions.ReversibleAction;
+import mcts.domain.ai.distributed.SearchResponse;
+import mcts.domain.ai.evaluation.Evaluation;
+import mcts.domain.ai.evaluation.SimulationOutcome;
+import mcts.domain.ai.selection.SelectionPolicyType;
 import org.springframework.stereotype.Service;
 
-
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @Slf4j
@@ -23,6 +38,15 @@ public class MonteCarloService {
     private final AiConfig aiConfig;
     private final AiService aiService;
     private final UCT uct;
+    private final ExecutorService searchExecutor;
+    private final SearchMetricsService searchMetricsService;
+    private final RolloutService rolloutService;
+    private final AmafService amafService;
+    private final SearchBudgetService searchBudgetService;
+    private final ArrayTreeSearchService arrayTreeSearchService;
+    private final PositionCacheService positionCacheService;
+    private final DistributedCoordinatorService distributedCoordinatorService;
+    private final Map<String, Tree> retainedTrees = new ConcurrentHashMap<>();
 
     /**
      * This method is used to let the ai calculate the best possible for a given game state
@@ -35,51 +59,1019 @@ public class MonteCarloService {
     }
 
     public SimulationResult findNextState(Game game, int playerId) {
-        Tree tree = new Tree();
-        int simulations = 0;
-        Node rootNode = tree.getRoot();
-        rootNode.getState().setGame(game);
-        rootNode.getState().setPlayerNo(playerId);
+        //With a fixed seed the calling thread and every search thread get their own generator derived from the seed
+        SplittableRandom[] randomStreams = aiConfig.isUseRandomSeed() ?
+                SearchRandom.split(aiConfig.getRandomSeed(), aiConfig.getSearchThreads() + 1) : null;
+        //the calling thread gets its own generator back, so the next search with the seed starts from the same numbers
+        SplittableRandom callerRandom = useRandomStream(randomStreams, 0);
+        try {
+            return searchNextState(game, playerId, randomStreams);
+        } finally {
+            SearchRandom.use(callerRandom);
+        }
+    }
 
+    /**
+     * Search the best move for a game state on the calling thread and the search threads
+     *
+     * @param game          the game state for which you want to find the best move
+     * @param playerId      the player who has to act
+     * @param randomStreams the generators of the search, null when no fixed seed is used
+     * @return the game state after you performed the best possible move
+     */
+    private SimulationResult searchNextState(Game game, int playerId, SplittableRandom[] randomStreams) {
         //Ask for the optimal simulation time
         SimulationTimeStruct simStruct = aiService.getSimulationTime(game);
         //If aiService has returned a negative time that means the simulation has been skipped and we can return the game
         if (simStruct.getTime() < 0) {
             return new SimulationResult(simStruct.getGame(), simStruct.getAction());
         }
+        SimulationResult cachedResult = positionCacheService.findCachedMove(game, playerId);
+        if (cachedResult != null) {
+            return cachedResult;
+        }
 
-        long end = System.currentTimeMillis() + simStruct.getTime();
+        if (distributedCoordinatorService.isEnabled()) {
+            return findNextStateDistributed(game, playerId, simStruct.getTime(), randomStreams);
+        }
 
-        //start running games for allowed time
-        do {
-            Node promisingNode = selectPromisingNode(rootNode);
-            if (aiService.getStatus(promisingNode.getState().getGame(), false) == aiConfig.getOngoingGame()) {
-                expandNode(promisingNode);
+        long start = System.currentTimeMillis();
+        long end = start + simStruct.getTime();
+        SearchStatistics statistics = new SearchStatistics();
+
+        Tree tree;
+        if (aiConfig.isUseRootParallelization()) {
+            tree = searchRootParallel(game, playerId, end, randomStreams, statistics);
+        }
+        else if (aiConfig.isUseTreeParallelization()) {
+            tree = getTree(game, playerId);
+            searchTreeParallel(tree, end, aiConfig.getNumberOfSimulations(), randomStreams, statistics);
+            if (searchBudgetService.needsExtension(RootDecision.of(tree.getRoot()), statistics)) {
+                statistics.setExtended(true);
+                searchTreeParallel(tree, searchBudgetService.getExtendedEnd(start, end),
+                        searchBudgetService.getExtendedSimulations(aiConfig.getNumberOfSimulations()), randomStreams, statistics);
+            }
+        }
+        else if (aiConfig.isUseArrayTree()) {
+            return arrayTreeSearchService.findNextState(game, playerId, end, statistics);
+        }
+        else {
+            tree = getTree(game, playerId);
+            search(tree, end, aiConfig.getNumberOfSimulations(), statistics);
+            if (searchBudgetService.needsExtension(RootDecision.of(tree.getRoot()), statistics)) {
+                statistics.setExtended(true);
+                search(tree, searchBudgetService.getExtendedEnd(start, end),
+                        searchBudgetService.getExtendedSimulations(aiConfig.getNumberOfSimulations()), statistics);
+            }
+        }
+
+        statistics.setSearchTime(System.currentTimeMillis() - start);
+        return chooseMove(game, tree, statistics);
+    }
+
+    /**
+     * Prepare a search of a game state that can be run in parts, like the searches of the search scheduler.
+     * When the simulation is skipped the search already contains its result
+     *
+     * @param game      the game state for which you want to find the best move
+     * @param playerId  the player who has to act
+     * @return the search
+     */
+    public Search startSearch(Game game, int playerId) {
+        SplittableRandom random = aiConfig.isUseRandomSeed() ? SearchRandom.split(aiConfig.getRandomSeed(), 1)[0]
+                : SearchRandom.current().split();
+        Search search = new Search(game, playerId, random);
+
+        //the simulation time is asked with the generator of the search, the calling thread keeps its own generator
+        SplittableRandom callerRandom = SearchRandom.current();
+        SearchRandom.use(random);
+        try {
+            SimulationTimeStruct simStruct = aiService.getSimulationTime(game);
+            if (simStruct.getTime() < 0) {
+                search.setResult(new SimulationResult(simStruct.getGame(), simStruct.getAction()));
+                return search;
+            }
+            SimulationResult cachedResult = positionCacheService.findCachedMove(game, playerId);
+            if (cachedResult != null) {
+                search.setResult(cachedResult);
+                return search;
+            }
+            search.setTimeBudget(simStruct.getTime());
+            search.setMaxSimulations(aiConfig.getNumberOfSimulations());
+            search.setTree(getTree(game, playerId));
+        } finally {
+            SearchRandom.use(callerRandom);
+        }
+        return search;
+    }
+
+    /**
+     * Run simulations of a search on the current thread for at most one time slice, or until the search has used its budget.
+     * At least one simulation is run
+     *
+     * @param search    the search to continue
+     * @param timeSlice the time the search may run on this thread
+     */
+    public void runSearch(Search search, long timeSlice) {
+        //the thread keeps its own generator, the generator of the search isn't used after the time slice
+        SplittableRandom threadRandom = SearchRandom.current();
+        SearchRandom.use(search.getRandom());
+        try {
+            long start = System.currentTimeMillis();
+            long sliceEnd = start + timeSlice;
+            long searchTime = search.getSearchTime();
+            long now;
+            do {
+                int simulations = runSimulation(search.getTree(), 0, search.getStatistics());
+                search.setSimulations(search.getSimulations() + simulations);
+                now = System.currentTimeMillis();
+                search.setSearchTime(searchTime + now - start);
+            } while (now < sliceEnd && hasBudgetLeft(search));
+        } finally {
+            SearchRandom.use(threadRandom);
+        }
+    }
+
+    /**
+     * Check whether a search may run another simulation. A search stops when it is stopped, when it has passed its
+     * deadline, when its move is decided or when it has used its simulation time or number of simulations.
+     * A search that used its budget while its best two moves are still close is extended once
+     *
+     * @param search the search to check
+     * @return true if there is budget left for another simulation
+     */
+    public boolean hasBudgetLeft(Search search) {
+        SearchStatistics statistics = search.getStatistics();
+        if (search.isFinished() || search.isStopped() || statistics.isStoppedEarly() || System.currentTimeMillis() >= search.getDeadline()) {
+            return false;
+        }
+        //a pondering search has no move to decide, it runs until the opponent has moved
+        int checkedSimulations = search.getCheckedSimulations();
+        search.setCheckedSimulations(search.getSimulations());
+        if (!search.isPondering() && searchBudgetService.isEarlyStoppingCheck(checkedSimulations, search.getSimulations())
+                && searchBudgetService.isDecided(RootDecision.of(search.getTree().getRoot()))) {
+            statistics.setStoppedEarly(true);
+            return false;
+        }
+        if (aiConfig.isUseNumberOfSimulations() ? search.getSimulations() < search.getMaxSimulations()
+                : search.getSearchTime() < search.getTimeBudget()) {
+            return true;
+        }
+        if (search.isPondering() || !searchBudgetService.needsExtension(RootDecision.of(search.getTree().getRoot()), statistics)) {
+            return false;
+        }
+        statistics.setExtended(true);
+        search.setTimeBudget(search.getTimeBudget() + (long) (search.getTimeBudget() * aiConfig.getTimeExtensionFactor()));
+        search.setMaxSimulations(search.getMaxSimulations() + searchBudgetService.getExtendedSimulations(search.getMaxSimulations()));
+        return true;
+    }
+
+    /**
+     * Prepare a search that keeps expanding the retained tree of a game while the opponent thinks. The tree is taken
+     * out of the retained trees until the pondering is finished, so the next search of the game can't use it at the same time
+     *
+     * @param game the game state after the chosen move
+     * @return the pondering search, null when no tree of the game was retained
+     */
+    public Search startPondering(Game game) {
+        Tree tree = game.getId() != null ? retainedTrees.remove(game.getId()) : null;
+        if (tree == null) {
+            return null;
+        }
+        Search search = new Search(game, tree.getRoot().getState().getPlayerNo(), SearchRandom.current().split());
+        Set<Node> nodes = collectNodes(tree.getRoot());
+        tree.getNodeCount().set(nodes.size());
+        if (aiConfig.isUseTranspositionTable()) {
+            tree.setTranspositionTable(createTranspositionTable(nodes));
+        }
+        search.setTree(tree);
+        search.setPondering(true);
+        search.setTimeBudget(aiConfig.getMaxPonderTime());
+        search.setMaxSimulations(Integer.MAX_VALUE);
+        search.setDeadline(System.currentTimeMillis() + aiConfig.getMaxPonderTime());
+        return search;
+    }
+
+    /**
+     * Retain the tree of a pondering search again, so the next search of the game can reuse it
+     *
+     * @param search the pondering search
+     */
+    public void finishPondering(Search search) {
+        Tree tree = search.getTree();
+        tree.setLastUsed(System.currentTimeMillis());
+        retainedTrees.putIfAbsent(search.getGame().getId(), tree);
+        log.info("Game[{}]: AI pondered {} games", search.getGame().getId(), search.getSimulations());
+    }
+
+    /**
+     * Get the action that is the best so far for a search that may still be running on another thread.
+     * No game states are created, a node without a game state was added by a lazy expansion and is never shared
+     *
+     * @param search the search
+     * @return the best action so far, null when the root wasn't expanded yet
+     */
+    public Action getBestAction(Search search) {
+        SimulationResult result = search.getResult();
+        if (result != null) {
+            return result.getAction();
+        }
+        Node rootNode = search.getTree().getRoot();
+        if (rootNode.getChildArray().isEmpty()) {
+            return null;
+        }
+        Node bestNode = rootNode.getChildWithMaxScore();
+        if (bestNode.getState().getGame() == null) {
+            return bestNode.getState().getAction();
+        }
+        return getActionFromRoot(rootNode, bestNode);
+    }
+
+    /**
+     * Choose the best move of a search, the result is kept in the search
+     *
+     * @param search the search to finish
+     * @return the game state after you performed the best possible move
+     */
+    public SimulationResult finishSearch(Search search) {
+        if (!search.isFinished()) {
+            search.getStatistics().setSearchTime(search.getSearchTime());
+            search.setResult(chooseMove(search.getGame(), search.getTree(), search.getStatistics()));
+        }
+        return search.getResult();
+    }
+
+    /**
+     * Choose the child of the root with the best score and keep the tree for the next move when tree reuse is enabled
+     *
+     * @param game          the game state that was searched
+     * @param tree          the searched tree
+     * @param statistics    the statistics of the search
+     * @return the game state after you performed the best possible move
+     */
+    private SimulationResult chooseMove(Game game, Tree tree, SearchStatistics statistics) {
+        Node rootNode = tree.getRoot();
+        List<Node> rootChildren = rootNode.getChildArray();
+        int[] rootChildVisits = new int[rootChildren.size()];
+        for (int i = 0; i < rootChildVisits.length; i++) {
+            rootChildVisits[i] = rootChildren.get(i).getState().getVisitCount();
+        }
+        statistics.setRootChildVisits(rootChildVisits);
+        statistics.setNodeCount(tree.getNodeCount().get());
+
+        if (positionCacheService.isEnabled()) {
+            positionCacheService.put(game, rootNode.getState().getPlayerNo(), rootNode.getMoveStatistics());
+        }
+
+        Node winnerNode = rootNode.getChildWithMaxScore();
+        materialize(winnerNode);
+        Action winnerAction = getActionFromRoot(rootNode, winnerNode);
+        log.info("Game[{}]: AI[{}] simulated {} games on {} nodes ({} pruned){}, ran {}", game.getId(), winnerNode.getState().getPlayerNo(),
+                statistics.getSimulations(), tree.getNodeCount().get(), tree.getPrunedNodes().get(),
+                searchBudgetService.getBudgetNote(statistics), winnerAction);
+        searchMetricsService.record(statistics);
+
+        if (aiConfig.isUseTreeReuse() && !aiConfig.isUseRootParallelization()) {
+            retainTree(game, winnerNode);
+        }
+
+        return new SimulationResult(winnerNode.getState().getGame().copy(), winnerAction, statistics);
+    }
+
+    /**
+     * Let the current thread draw its random numbers from one of the generators of a search with a fixed seed
+     *
+     * @param randomStreams the generators of the search, null when no fixed seed is used
+     * @param index         the index of the generator for this thread
+     * @return the generator the thread used before, to restore when the search is done
+     */
+    private SplittableRandom useRandomStream(SplittableRandom[] randomStreams, int index) {
+        SplittableRandom previous = SearchRandom.current();
+        if (randomStreams != null) {
+            SearchRandom.use(randomStreams[index]);
+        }
+        return previous;
+    }
+
+    /**
+     * Get the action that leads from the root to the chosen node. A node that is shared through the transposition table
+     * keeps the action of the parent that created it, so when the node was created by another parent the action is
+     * looked up in the legal actions of the root
+     *
+     * @param rootNode      the root of the tree
+     * @param winnerNode    the chosen node
+     * @return the action to perform
+     */
+    private Action getActionFromRoot(Node rootNode, Node winnerNode) {
+        Node parent = winnerNode.getParent();
+        while (parent != null && (parent.isChanceNode() || parent.isGroupNode())) {
+            parent = parent.getParent();
+        }
+        if (parent == rootNode) {
+            return winnerNode.getState().getAction();
+        }
+
+        Game game = rootNode.getState().getGame();
+        Game winnerGame = winnerNode.getState().getGame();
+        Game scratchGame = game.copy();
+        for (Action action : aiService.getLegalActions(game)) {
+            boolean sameState;
+            if (action instanceof ReversibleAction) {
+                ((ReversibleAction) action).apply(scratchGame);
+                sameState = aiService.isSameState(scratchGame, winnerGame);
+                ((ReversibleAction) action).undo(scratchGame);
+            }
+            else {
+                sameState = aiService.isSameState(aiService.getNextState(game, action), winnerGame);
+            }
+            if (sameState) {
+                return action;
+            }
+        }
+        return winnerNode.getState().getAction();
+    }
+
+    /**
+     * Create a new tree with the given game state as root
+     *
+     * @param game      the game state of the root
+     * @param playerId  the player who has to act
+     * @return a new tree
+     */
+    private Tree createTree(Game game, int playerId) {
+        Tree tree = new Tree();
+        Node rootNode = tree.getRoot();
+        rootNode.getState().setGame(game);
+        rootNode.getState().setPlayerNo(playerId);
+        if (aiConfig.isUseTranspositionTable()) {
+            tree.setTranspositionTable(new TranspositionTable(aiConfig.getTranspositionTableSize()));
+            tree.getTranspositionTable().put(aiService.getStateHash(game), rootNode);
+        }
+        return tree;
+    }
+
+    /**
+     * Create a new tree and add the statistics of the position cache to its root
+     *
+     * @param game      the game state of the root
+     * @param playerId  the player who has to act
+     * @return a new tree
+     */
+    private Tree createSeededTree(Game game, int playerId) {
+        Tree tree = createTree(game, playerId);
+        if (positionCacheService.isEnabled()) {
+            seedRoot(tree);
+        }
+        return tree;
+    }
+
+    /**
+     * Expand the root of a new tree and add the statistics of the position cache to its children
+     *
+     * @param tree the new tree
+     */
+    private void seedRoot(Tree tree) {
+        Node rootNode = tree.getRoot();
+        Game game = rootNode.getState().getGame();
+        List<MoveStatistics> moves = positionCacheService.get(game, rootNode.getState().getPlayerNo());
+        if (moves == null || !expandRoot(tree)) {
+            return;
+        }
+        positionCacheService.seedChildren(rootNode, moves);
+    }
+
+    /**
+     * Expand the root of a tree before it is searched
+     *
+     * @param tree the tree
+     * @return true if this call expanded the root, false when the game has ended or the root was expanded before
+     */
+    private boolean expandRoot(Tree tree) {
+        Node rootNode = tree.getRoot();
+        if (aiService.getStatus(rootNode.getState().getGame(), false) != aiConfig.getOngoingGame() || !rootNode.claimExpansion()) {
+            return false;
+        }
+        //the transposition table needs the path of the expanded node
+        List<Node> path = new ArrayList<>(Collections.singletonList(rootNode));
+        tree.getNodeCount().addAndGet(expandNode(rootNode, tree.getTranspositionTable(), path));
+        return true;
+    }
+
+    /**
+     * Get the tree to search for a game state. When tree reuse is enabled the subtree of the previous search of the game
+     * that contains this game state becomes the new tree, otherwise a new tree is created
+     *
+     * @param game      the game state of the root
+     * @param playerId  the player who has to act
+     * @return the tree to search
+     */
+    private Tree getTree(Game game, int playerId) {
+        if (!aiConfig.isUseTreeReuse() || game.getId() == null) {
+            return createSeededTree(game, playerId);
+        }
+
+        Tree retainedTree = retainedTrees.remove(game.getId());
+        if (retainedTree == null) {
+            return createSeededTree(game, playerId);
+        }
+
+        Node reusedRoot = findMatchingNode(retainedTree.getRoot(), game);
+        if (reusedRoot == null) {
+            return createSeededTree(game, playerId);
+        }
+
+        log.info("Game[{}]: AI[{}] reused a tree with {} simulations", game.getId(), playerId, reusedRoot.getState().getVisitCount());
+        reusedRoot.setParent(null);
+        reusedRoot.getState().setGame(game);
+        reusedRoot.getState().setPlayerNo(playerId);
+        Tree tree = new Tree(reusedRoot);
+        Set<Node> nodes = collectNodes(reusedRoot);
+        tree.getNodeCount().set(nodes.size());
+        if (aiConfig.isUseTranspositionTable()) {
+            tree.setTranspositionTable(createTranspositionTable(nodes));
+        }
+        return tree;
+    }
+
+    /**
+     * Create a transposition table for a reused subtree. The table only refers to the nodes of the subtree, so the rest
+     * of the old tree can be collected and its nodes are never shared again
+     *
+     * @param nodes the nodes of the subtree
+     * @return a table with every node of the subtree that has a game state
+     */
+    private TranspositionTable createTranspositionTable(Set<Node> nodes) {
+        TranspositionTable table = new TranspositionTable(aiConfig.getTranspositionTableSize());
+        for (Node node : nodes) {
+            Game game = node.getState().getGame();
+            if (game != null && !node.isChanceNode() && !node.isGroupNode()) {
+                table.put(aiService.getStateHash(game), node);
             }
-            Node nodeToExplore = promisingNode;
+        }
+        return table;
+    }
 
-            if (promisingNode.getChildArray().size() > 0) {
-                nodeToExplore = promisingNode.getRandomChildNode();
-                if (nodeToExplore.isChanceNode()){
-                    nodeToExplore = nodeToExplore.getChildByProbability();
+    /**
+     * Search the nodes below a node of a retained tree for a game state, level by level.
+     * Chance and group nodes don't count as a level since they don't contain a game state
+     *
+     * @param node  the root of the retained tree
+     * @param game  the game state to find
+     * @return the node with the same game state, null if it wasn't found within the reuse depth
+     */
+    private Node findMatchingNode(Node node, Game game) {
+        List<Node> level = new ArrayList<>();
+        addGameNodes(node, level);
+        for (int depth = 0; depth <= aiConfig.getTreeReuseDepth() && !level.isEmpty(); depth++) {
+            List<Node> nextLevel = new ArrayList<>();
+            for (Node candidate : level) {
+                //nodes of a lazy expansion that were never visited don't have a game state
+                if (candidate.getState().getGame() != null && aiService.isSameState(candidate.getState().getGame(), game)) {
+                    return candidate;
                 }
-                if (nodeToExplore.isGroupNode()) {
-                    nodeToExplore = nodeToExplore.getChildWithMaxScore();
+                candidate.getChildArray().forEach(child -> addGameNodes(child, nextLevel));
+            }
+            level = nextLevel;
+        }
+        return null;
+    }
+
+    /**
+     * Add a node to a list, or the nodes below it with a game state when it's a chance or group node
+     *
+     * @param node  the node to add
+     * @param nodes the list to add the nodes to
+     */
+    private void addGameNodes(Node node, List<Node> nodes) {
+        if (node.isChanceNode() || node.isGroupNode()) {
+            node.getChildArray().forEach(child -> addGameNodes(child, nodes));
+        }
+        else {
+            nodes.add(node);
+        }
+    }
+
+    /**
+     * Keep the subtree of the chosen move, so the next search of the game can start from it.
+     * Trees that weren't used for longer than the retention time are dropped, and when there are still too many trees
+     * the least recently used ones are dropped
+     *
+     * @param game          the game state that was searched
+     * @param winnerNode    the node of the chosen move
+     */
+    private void retainTree(Game game, Node winnerNode) {
+        if (game.getId() == null) {
+            return;
+        }
+
+        //keep the child of the root, the chosen move could be the random outcome of a chance node
+        Node retainedRoot = winnerNode;
+        while (retainedRoot.getParent() != null && retainedRoot.getParent().getParent() != null) {
+            retainedRoot = retainedRoot.getParent();
+        }
+        retainedRoot.setParent(null);
+
+        long now = System.currentTimeMillis();
+        //the transposition table isn't kept, it refers to the whole searched tree and is built again from the subtree
+        Tree tree = new Tree(retainedRoot);
+        tree.setLastUsed(now);
+        retainedTrees.put(game.getId(), tree);
+
+        retainedTrees.values().removeIf(retainedTree -> now - retainedTree.getLastUsed() > aiConfig.getTreeRetentionTime());
+        while (retainedTrees.size() > aiConfig.getMaxRetainedTrees()) {
+            retainedTrees.entrySet().stream().min(Comparator.comparingLong(entry -> entry.getValue().getLastUsed()))
+                    .ifPresent(entry -> retainedTrees.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * Run the select, expand, simulate and backpropagate loop on a tree until the budget is used up
+     *
+     * @param tree              the tree to search
+     * @param end               the time at which the search has to stop
+     * @param maxSimulations    the number of simulations to run when 'useNumberOfSimulations' is set
+     * @param statistics        the statistics to add the simulations to
+     */
+    private void search(Tree tree, long end, int maxSimulations, SearchStatistics statistics) {
+        searchBudgetService.search(() -> runSimulation(tree, 0, statistics), () -> RootDecision.of(tree.getRoot()), end, maxSimulations, statistics);
+    }
+
+    /**
+     * Run one select, expand, simulate and backpropagate iteration on a tree,
+     * or one batch of iterations when the leaves are evaluated in batches
+     *
+     * @param tree          the tree to search
+     * @param virtualLoss   the virtual loss to add to the nodes on the path while the simulation runs, 0 for none
+     * @param statistics    the statistics to add the simulation to
+     * @return the number of simulations that were run
+     */
+    private int runSimulation(Tree tree, int virtualLoss, SearchStatistics statistics) {
+        if (searchBudgetService.getLeafBatchSize() > 1) {
+            return runBatch(tree, Math.max(aiConfig.getVirtualLoss(), 1), statistics);
+        }
+        boolean timed = aiConfig.isUseInstrumentation();
+        long start = timed ? System.nanoTime() : 0;
+        //with a transposition table a node can have multiple parents, so the path is remembered for the backpropagation
+        List<Node> path = tree.getTranspositionTable() != null ? new ArrayList<>() : null;
+        if (aiConfig.isUsePruning() && !hasNodeBudget(tree)) {
+            pruneTree(tree);
+        }
+
+        Node promisingNode = selectPromisingNode(tree.getRoot(), virtualLoss, path);
+        long selected = timed ? System.nanoTime() : 0;
+        Node nodeToExplore = expandLeaf(tree, promisingNode, virtualLoss, path);
+        long expanded = timed ? System.nanoTime() : 0;
+        int rollouts = Math.max(aiConfig.getLeafRollouts(), 1);
+        AmafMoves moves = amafService.startSimulation(rollouts);
+        Game game = nodeToExplore.getState().getGame();
+        Evaluation evaluation = rollouts == 1 ? rolloutService.evaluateLeaf(game, statistics, moves) : null;
+        SimulationOutcome outcome = evaluation != null ? evaluation : rolloutService.runRollouts(game, rollouts, statistics);
+        long simulated = timed ? System.nanoTime() : 0;
+        if (path != null) {
+            backPropagation(path, outcome, virtualLoss);
+        }
+        else {
+            backPropagation(nodeToExplore, outcome, virtualLoss);
+        }
+        if (moves != null) {
+            amafService.update(nodeToExplore, path, evaluation, moves);
+        }
+
+        if (timed) {
+            int depth = path != null ? path.size() - 1 : getDepth(nodeToExplore);
+            statistics.addSimulations(rollouts, selected - start, expanded - selected, simulated - expanded, System.nanoTime() - simulated, depth);
+        }
+        else {
+            statistics.addSimulations(rollouts, 0, 0, 0, 0, 0);
+        }
+        return rollouts;
+    }
+
+    /**
+     * Run a batch of simulations whose leaves are evaluated in one call of the leaf evaluator.
+     * The leaves are selected one after the other with a virtual loss, so the batch spreads over different branches,
+     * and the virtual loss is removed when the evaluations are backpropagated
+     *
+     * @param tree          the tree to search
+     * @param virtualLoss   the virtual loss to add to the nodes on the path of every leaf
+     * @param statistics    the statistics to add the simulations to
+     * @return the number of simulations that were run
+     */
+    private int runBatch(Tree tree, int virtualLoss, SearchStatistics statistics) {
+        int batchSize = searchBudgetService.getLeafBatchSize();
+        boolean timed = aiConfig.isUseInstrumentation();
+        boolean usePath = tree.getTranspositionTable() != null;
+        if (aiConfig.isUsePruning() && !hasNodeBudget(tree)) {
+            pruneTree(tree);
+        }
+
+        Node[] leaves = new Node[batchSize];
+        List<List<Node>> paths = new ArrayList<>(batchSize);
+        long[] selectionTimes = new long[batchSize];
+        long[] expansionTimes = new long[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            long start = timed ? System.nanoTime() : 0;
+            List<Node> path = usePath ? new ArrayList<>() : null;
+            Node promisingNode = selectPromisingNode(tree.getRoot(), virtualLoss, path);
+            long selected = timed ? System.nanoTime() : 0;
+            leaves[i] = expandLeaf(tree, promisingNode, virtualLoss, path);
+            paths.add(path);
+            selectionTimes[i] = selected - start;
+            expansionTimes[i] = (timed ? System.nanoTime() : 0) - selected;
+        }
+
+        long expanded = timed ? System.nanoTime() : 0;
+        List<Evaluation> evaluations = rolloutService.evaluateLeaves(leaves, statistics);
+        long simulated = timed ? System.nanoTime() : 0;
+        long simulationTime = (simulated - expanded) / batchSize;
+
+        for (int i = 0; i < batchSize; i++) {
+            long start = timed ? System.nanoTime() : 0;
+            if (usePath) {
+                backPropagation(paths.get(i), evaluations.get(i), virtualLoss);
+            }
+            else {
+                backPropagation(leaves[i], evaluations.get(i), virtualLoss);
+            }
+            if (timed) {
+                int depth = usePath ? paths.get(i).size() - 1 : getDepth(leaves[i]);
+                statistics.addSimulation(selectionTimes[i], expansionTimes[i], simulationTime, System.nanoTime() - start, depth);
+            }
+            else {
+                statistics.addSimulation(0, 0, 0, 0, 0);
+            }
+        }
+        return batchSize;
+    }
+
+    /**
+     * Expand a selected leaf and choose the node to simulate, a random child of the leaf when it was expanded
+     * or the leaf itself when it can't be expanded
+     *
+     * @param tree          the tree to search
+     * @param promisingNode the selected leaf
+     * @param virtualLoss   the virtual loss to add to the chosen nodes, 0 for none
+     * @param path          the path to add the chosen nodes to, null when the path isn't remembered
+     * @return the node to simulate
+     */
+    private Node expandLeaf(Tree tree, Node promisingNode, int virtualLoss, List<Node> path) {
+        //when the tree is full the leaf is simulated without expanding it
+        if (aiService.getStatus(promisingNode.getState().getGame(), false) == aiConfig.getOngoingGame()
+                && hasNodeBudget(tree) && promisingNode.claimExpansion()) {
+            tree.getNodeCount().addAndGet(expandNode(promisingNode, tree.getTranspositionTable(), path));
+        }
+        Node nodeToExplore = promisingNode;
+
+        if (promisingNode.getChildArray().size() > 0) {
+            nodeToExplore = visit(promisingNode.getRandomChildNode(), virtualLoss, path);
+            if (nodeToExplore.isChanceNode()){
+                nodeToExplore = visit(nodeToExplore.getChildByProbability(), virtualLoss, path);
+            }
+            if (nodeToExplore.isGroupNode()) {
+                nodeToExplore = visit(nodeToExplore.getChildWithMaxScore(), virtualLoss, path);
+            }
+        }
+        return nodeToExplore;
+    }
+
+    /**
+     * Get the number of nodes between a node and the root
+     *
+     * @param node the node
+     * @return the depth of the node, 0 for the root
+     */
+    private int getDepth(Node node) {
+        int depth = 0;
+        for (Node parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Check whether a tree may get more nodes
+     *
+     * @param tree the tree
+     * @return true if the tree has less nodes than 'maxNodes' or there is no limit
+     */
+    private boolean hasNodeBudget(Tree tree) {
+        return aiConfig.getMaxNodes() <= 0 || tree.getNodeCount().get() < aiConfig.getMaxNodes();
+    }
+
+    /**
+     * Make room in a full tree by turning the expanded nodes with the fewest visits back into leaves, until 'pruneFraction'
+     * of the node budget is free. The statistics of the removed nodes are already part of the nodes that are kept.
+     * Only one thread prunes a tree at a time, the other threads keep searching without expanding
+     *
+     * @param tree the tree to prune
+     */
+    private void pruneTree(Tree tree) {
+        if (!tree.getPruning().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Map<Node, Integer> descendants = new IdentityHashMap<>();
+            List<Node> candidates = new ArrayList<>();
+            int nodeCount = 1 + collectPruneCandidates(tree.getRoot(), descendants, candidates);
+            candidates.sort(Comparator.comparingInt(node -> node.getState().getVisitCount()));
+
+            int target = (int) (aiConfig.getMaxNodes() * (1 - aiConfig.getPruneFraction()));
+            Set<Node> collapsed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < candidates.size() && nodeCount > target; i++) {
+                Node node = candidates.get(i);
+                if (!hasCollapsedAncestor(node, collapsed)) {
+                    nodeCount -= descendants.get(node);
+                    node.collapse();
+                    collapsed.add(node);
                 }
             }
-            int winningPlayerId = simulateRandomPlayout(nodeToExplore);
 
-            simulations++;
+            //a collapsed node can contain nodes that were collapsed before, so the nodes that are left are counted again
+            int prunedCount = tree.getNodeCount().get();
+            tree.getNodeCount().set(countNodes(tree.getRoot()));
+            prunedCount -= tree.getNodeCount().get();
+            tree.getPrunedNodes().addAndGet(Math.max(prunedCount, 0));
+        } finally {
+            tree.getPruning().set(false);
+        }
+    }
+
+    /**
+     * Count the nodes below every node and collect the expanded nodes that can be turned back into leaves.
+     * The root, chance nodes and group nodes are never collapsed, a node that is shared through the transposition
+     * table is only counted below its first parent
+     *
+     * @param node          the node to start from
+     * @param descendants   the number of nodes below every node that was counted
+     * @param candidates    the list to add the nodes that can be collapsed to
+     * @return the number of nodes below the node
+     */
+    private int collectPruneCandidates(Node node, Map<Node, Integer> descendants, List<Node> candidates) {
+        if (descendants.containsKey(node)) {
+            return 0;
+        }
+        descendants.put(node, 0);
+        int count = 0;
+        for (Node child : node.getChildArray()) {
+            if (!descendants.containsKey(child)) {
+                count += 1 + collectPruneCandidates(child, descendants, candidates);
+            }
+        }
+        descendants.put(node, count);
+        if (count > 0 && node.getParent() != null && !node.isChanceNode() && !node.isGroupNode()) {
+            candidates.add(node);
+        }
+        return count;
+    }
+
+    /**
+     * Check whether one of the parents of a node was collapsed
+     *
+     * @param node      the node to check
+     * @param collapsed the nodes that were collapsed
+     * @return true if the node is no longer part of the tree
+     */
+    private boolean hasCollapsedAncestor(Node node, Set<Node> collapsed) {
+        for (Node parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            if (collapsed.contains(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-            backPropagation(nodeToExplore, winningPlayerId);
+    /**
+     * Count the nodes of a tree, a node that is shared through the transposition table is counted once
+     *
+     * @param root the root of the tree
+     * @return the number of nodes
+     */
+    private int countNodes(Node root) {
+        return collectNodes(root).size();
+    }
 
-        } while ((System.currentTimeMillis() < end && !aiConfig.isUseNumberOfSimulations()) ||
-                (simulations < aiConfig.getNumberOfSimulations() && aiConfig.isUseNumberOfSimulations()));
+    /**
+     * Collect the nodes of a tree, a node with multiple parents is collected once
+     *
+     * @param root the root of the tree
+     * @return the nodes of the tree
+     */
+    private Set<Node> collectNodes(Node root) {
+        Set<Node> collected = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Node> stack = new ArrayList<>();
+        stack.add(root);
+        collected.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            for (Node child : node.getChildArray()) {
+                if (collected.add(child)) {
+                    stack.add(child);
+                }
+            }
+        }
+        return collected;
+    }
 
-        Node winnerNode = rootNode.getChildWithMaxScore();
-        log.info("Game[{}]: AI[{}] simulated {} games, ran {}", game.getId(), winnerNode.getState().getPlayerNo(), simulations, winnerNode.getState().getAction());
+    /**
+     * Add the virtual loss to a node that is on the path of a running simulation and create its game state
+     * if it was added by a lazy expansion
+     *
+     * @param node          the node that is visited
+     * @param virtualLoss   the virtual loss to add, 0 for none
+     * @param path          the path to add the node to, null when the path isn't remembered
+     * @return the visited node
+     */
+    private Node visit(Node node, int virtualLoss, List<Node> path) {
+        materialize(node);
+        if (virtualLoss > 0) {
+            node.getState().addVirtualLoss(virtualLoss);
+        }
+        if (path != null) {
+            path.add(node);
+        }
+        return node;
+    }
 
-        return new SimulationResult(new Game(winnerNode.getState().getGame()), winnerNode.getState().getAction());
+    /**
+     * Create the game state of a node that was added by a lazy expansion, by performing its action on the game state
+     * of the nearest parent that has one. Chance and group nodes never get a game state
+     *
+     * @param node the node that is visited
+     */
+    private void materialize(Node node) {
+        State state = node.getState();
+        if (state.getGame() != null || state.getAction() == null) {
+            return;
+        }
+        Node source = node.getParent();
+        while (source.getState().getGame() == null) {
+            source = source.getParent();
+        }
+        state.setGame(aiService.getNextState(source.getState().getGame(), state.getAction()));
+    }
+
+    /**
+     * Let all the search threads run simulations on the same tree. Leaves are expanded only once and the virtual loss
+     * spreads the threads over different branches
+     *
+     * @param tree          the shared tree
+     * @param end           the time at which the search has to stop
+     * @param maxSimulations the number of simulations to run when 'useNumberOfSimulations' is set
+     * @param randomStreams the generators of the search, null when no fixed seed is used
+     * @param statistics    the statistics to add the simulations of all threads to
+     */
+    private void searchTreeParallel(Tree tree, long end, int maxSimulations, SplittableRandom[] randomStreams, SearchStatistics statistics) {
+        //otherwise the threads that select the root while one thread expands it simulate the root itself,
+        //and those simulations never reach a move
+        expandRoot(tree);
+        AtomicInteger simulations = new AtomicInteger();
+        AtomicBoolean decided = new AtomicBoolean();
+        List<Future<SearchStatistics>> searches = new ArrayList<>();
+        for (int i = 0; i < aiConfig.getSearchThreads(); i++) {
+            int thread = i + 1;
+            searches.add(searchExecutor.submit(() -> {
+                SplittableRandom threadRandom = useRandomStream(randomStreams, thread);
+                try {
+                    SearchStatistics threadStatistics = new SearchStatistics();
+                    int simulation;
+                    do {
+                        int threadSimulations = runSimulation(tree, aiConfig.getVirtualLoss(), threadStatistics);
+                        simulation = simulations.addAndGet(threadSimulations);
+                        if (searchBudgetService.isEarlyStoppingCheck(simulation - threadSimulations, simulation)
+                                && searchBudgetService.isDecided(RootDecision.of(tree.getRoot()))) {
+                            decided.set(true);
+                        }
+                    } while (!decided.get() && searchBudgetService.hasBudgetLeft(end, simulation, maxSimulations));
+                    return threadStatistics;
+                } finally {
+                    SearchRandom.use(threadRandom);
+                }
+            }));
+        }
+        searches.forEach(search -> statistics.merge(SearchThreads.getResult(search)));
+        if (decided.get()) {
+            statistics.setStoppedEarly(true);
+        }
+    }
+
+    /**
+     * Search independent trees on all the search threads and merge the statistics of their root children into one root.
+     * When a number of simulations is used, it is divided over the trees
+     *
+     * @param game          the game state for which you want to find the best move
+     * @param playerId      the player who has to act
+     * @param end           the time at which the search has to stop
+     * @param randomStreams the generators of the search, null when no fixed seed is used
+     * @param statistics    the statistics to add the simulations of all threads to
+     * @return the first tree, its root contains the statistics of all trees
+     */
+    private Tree searchRootParallel(Game game, int playerId, long end, SplittableRandom[] randomStreams, SearchStatistics statistics) {
+        int threads = aiConfig.getSearchThreads();
+        List<Future<Tree>> searches = new ArrayList<>();
+        List<SearchStatistics> threadStatistics = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i + 1;
+            int maxSimulations = aiConfig.getNumberOfSimulations() / threads + (i < aiConfig.getNumberOfSimulations() % threads ? 1 : 0);
+            SearchStatistics searchStatistics = new SearchStatistics();
+            threadStatistics.add(searchStatistics);
+            searches.add(searchExecutor.submit(() -> {
+                SplittableRandom threadRandom = useRandomStream(randomStreams, thread);
+                try {
+                    Tree tree = createTree(game, playerId);
+                    search(tree, end, maxSimulations, searchStatistics);
+                    return tree;
+                } finally {
+                    SearchRandom.use(threadRandom);
+                }
+            }));
+        }
+
+        Tree tree = null;
+        for (int i = 0; i < threads; i++) {
+            Tree searchedTree = SearchThreads.getResult(searches.get(i));
+            statistics.merge(threadStatistics.get(i));
+            if (tree == null) {
+                tree = searchedTree;
+            }
+            else if (tree.getRoot().mergeChildStatistics(searchedTree.getRoot())) {
+                tree.getRoot().getState().merge(searchedTree.getRoot().getState());
+            }
+            else {
+                log.warn("Game[{}]: tree of a search thread was expanded differently and was not merged", game.getId());
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Search a game state together with the workers of a distributed search. The workers search independent trees
+     * while this process searches its own tree, after which the statistics of the root children of the workers are added
+     * to the children of the local root with the same action key. When a number of simulations is used, it is divided
+     * over the workers and this process. A worker that fails or answers later than the grace period is left out
+     *
+     * @param game          the game state for which you want to find the best move
+     * @param playerId      the player who has to act
+     * @param time          the simulation time of the game state
+     * @param randomStreams the generators of the search, null when no fixed seed is used
+     * @return the game state after you performed the best possible move
+     */
+    private SimulationResult findNextStateDistributed(Game game, int playerId, long time, SplittableRandom[] randomStreams) {
+        long start = System.currentTimeMillis();
+        long end = start + time;
+        int searches = distributedCoordinatorService.getWorkers().size() + 1;
+        int maxSimulations = Math.max(aiConfig.getNumberOfSimulations() / searches, 1);
+        List<Future<SearchResponse>> responses = distributedCoordinatorService.requestSearches(game, playerId, time, maxSimulations);
+
+        SearchStatistics statistics = new SearchStatistics();
+        Tree tree = getTree(game, playerId);
+        searchTree(tree, end, maxSimulations, randomStreams, statistics);
+
+        int workers = distributedCoordinatorService.mergeSearches(tree.getRoot(), responses,
+                end + aiConfig.getDistributedGracePeriod(), statistics);
+        log.info("Game[{}]: AI[{}] merged the searches of {} of {} workers", game.getId(), playerId, workers, responses.size());
+
+        statistics.setSearchTime(System.currentTimeMillis() - start);
+        return chooseMove(game, tree, statistics);
+    }
+
+    /**
+     * Search a game state for the coordinator of a distributed search and get the statistics of the children of the root.
+     * The game state is searched in a new tree, on the search threads when 'useTreeParallelization' is set
+     *
+     * @param game              the game state to search
+     * @param playerId          the player who has to act
+     * @param time              the time the search may run
+     * @param maxSimulations    the number of simulations to run when 'useNumberOfSimulations' is set
+     * @return the number of simulations and the statistics of the children of the root
+     */
+    public SearchResponse searchRootMoves(Game game, int playerId, long time, int maxSimulations) {
+        long start = System.currentTimeMillis();
+        SearchStatistics statistics = new SearchStatistics();
+        Tree tree = createSeededTree(game, playerId);
+        searchTree(tree, start + time, maxSimulations, null, statistics);
+        statistics.setSearchTime(System.currentTimeMillis() - start);
+        statistics.setNodeCount(tree.getNodeCount().get());
+        searchMetricsService.record(statistics);
+        log.info("AI[{}] simulated {} games for a distributed search", playerId, statistics.getSimulations());
+        return new SearchResponse(statistics.getSimulations(), tree.getRoot().getMoveStatistics());
+    }
+
+    /**
+     * Search a tree on the search threads when 'useTreeParallelization' is set, otherwise on the current thread
+     *
+     * @param tree              the tree to search
+     * @param end               the time at which the search has to stop
+     * @param maxSimulations    the number of simulations to run when 'useNumberOfSimulations' is set
+     * @param randomStreams     the generators of the search, null when no fixed seed is used
+     * @param statistics        the statistics to add the simulations to
+     */
+    private void searchTree(Tree tree, long end, int maxSimulations, SplittableRandom[] randomStreams, SearchStatistics statistics) {
+        if (aiConfig.isUseTreeParallelization()) {
+            searchTreeParallel(tree, end, maxSimulations, randomStreams, statistics);
+        }
+        else {
+            search(tree, end, maxSimulations, statistics);
+        }
     }
 
     /**
@@ -89,14 +1081,31 @@ public class MonteCarloService {
      * @return the best child node
      */
     public Node selectPromisingNode(Node rootNode) {
-        Node node = rootNode;
-        while (node.getChildArray().size() != 0) {
+        return selectPromisingNode(rootNode, 0, null);
+    }
+
+    /**
+     * Select the best node out of the child nodes of the root node and add a virtual loss to every node on the way
+     *
+     * @param rootNode      the node from whom you want to test it's child nodes
+     * @param virtualLoss   the virtual loss to add to the nodes on the path, 0 for none
+     * @param path          the list to add the selected nodes to, null when the path isn't remembered
+     * @return the best child node
+     */
+    public Node selectPromisingNode(Node rootNode, int virtualLoss, List<Node> path) {
+        Node node = visit(rootNode, virtualLoss, path);
+        //a transposition can lead back to a node on the path, so the length of the path is limited
+        while (node.getChildArray().size() != 0 && (path == null || path.size() <= aiConfig.getSearchDepth())) {
             if (node.isChanceNode()) {
                 node = node.getChildByProbability();
             }
+            else if (aiConfig.isUseRave()) {
+                node = uct.findBestNodeWithRave(node, aiConfig.getRaveEquivalence());
+            }
             else {
                 node = uct.findBestNodeWithUCT(node);
             }
+            visit(node, virtualLoss, path);
         }
         return node;
     }
@@ -107,101 +1116,175 @@ public class MonteCarloService {
      * @param node the node you want to expand
      */
     public void expandNode(Node node) {
-        List<State> possibleStates = aiService.getAllStates(node.getState().getGame());
+        expandNode(node, null, null);
+    }
 
-        if (aiConfig.isUseGroupNodes()) {
-            createGroupNodes(node, possibleStates);
+    /**
+     * Add all the possible child nodes to a node, children with a game state that is already in the transposition table
+     * share the node from the table
+     *
+     * @param node  the node you want to expand
+     * @param table the transposition table of the tree, null when none is used
+     * @param path  the path from the root to the node, only needed when a transposition table is used
+     * @return the number of nodes that were created, nodes that are shared through the table aren't counted
+     */
+    public int expandNode(Node node, TranspositionTable table, List<Node> path) {
+        List<State> possibleStates = aiConfig.isUseLazyExpansion() ? aiService.getAllLazyStates(node.getState().getGame())
+                : aiService.getAllStates(node.getState().getGame());
+        int numberOfActions = possibleStates.size();
+        ActionsByKind<State> statesByKind = ActionsByKind.of(possibleStates, State::getAction, aiConfig.isUseGroupNodes(),
+                aiConfig.isUseChanceNodes());
+        List<Node> children = new ArrayList<>(statesByKind.getChildCount());
+
+        int createdNodes = 0;
+        for (List<State> typeStates : statesByKind.getGroups()) {
+            createdNodes += createMoveGroupNode(node, children, typeStates, table, path);
+        }
+        for (List<State> typeStates : statesByKind.getChances()) {
+            createdNodes += createChanceNode(node, children, typeStates, table, path);
+        }
+        for (State state : statesByKind.getNormals()) {
+            createdNodes += addChild(node, children, state, table, path);
         }
 
-        if(aiConfig.isUseChanceNodes()) {
-            createChanceNodes(node, possibleStates);
+        if (aiConfig.getSelectionPolicy() == SelectionPolicyType.PUCT) {
+            assignPriors(node.getState().getGame(), children, numberOfActions);
         }
 
-        possibleStates.forEach(state -> {
-            Node newNode = new Node(state);
-            newNode.setParent(node);
-            node.getChildArray().add(newNode);
-        });
+        //publish all the children at once, other threads may be reading the node
+        node.setChildArray(children);
+        return createdNodes;
     }
 
     /**
-     * This method is called to create all group nodes and filters out all the group states
+     * Add the child for a possible state to a list of children
      *
-     * @param node              the node to expand
-     * @param possibleStates    all the possible states
+     * @param parent    the parent of the child
+     * @param children  the list to add the child to
+     * @param state     the possible state
+     * @param table     the transposition table of the tree, null when none is used
+     * @param path      the path from the root to the expanded node
+     * @return 1 if a new node was created, 0 if a node of the table is shared
      */
-    private void createGroupNodes(Node node, List<State> possibleStates) {
-        List<Class<? extends Action>> groupActionTypes = possibleStates.stream().filter(state ->
-                state.getAction() != null && state.getAction().getClass().getSuperclass() == GroupNode.class)
-                .map(state -> state.getAction().getClass()).distinct().collect(Collectors.toList());
+    private int addChild(Node parent, List<Node> children, State state, TranspositionTable table, List<Node> path) {
+        Node child = createChild(parent, state, table, path);
+        children.add(child);
+        return child.getState() == state ? 1 : 0;
+    }
 
-        groupActionTypes.forEach(type -> {
-            List<State> typeActions = possibleStates.stream().filter(state -> state.getAction() != null &&
-                    state.getAction().getClass() == type).collect(Collectors.toList());
-            possibleStates.removeAll(typeActions);
-            createMoveGroupNode(node, typeActions);
-        });
+    /**
+     * Give the children of an expanded node their prior probability. A group or chance node gets the sum of the priors
+     * of its children, and the children of a group node get their prior relative to the other actions in the group
+     *
+     * @param game              the game state of the expanded node
+     * @param children          the children to give a prior
+     * @param numberOfActions   the number of possible actions in the game state
+     * @return the sum of the priors of the children
+     */
+    private double assignPriors(Game game, List<Node> children, int numberOfActions) {
+        double totalPrior = 0;
+        for (Node child : children) {
+            double prior;
+            if (child.isGroupNode() || child.isChanceNode()) {
+                prior = assignPriors(game, child.getChildArray(), numberOfActions);
+                if (child.isGroupNode() && prior > 0) {
+                    for (Node groupChild : child.getChildArray()) {
+                        groupChild.getState().setPrior(groupChild.getState().getPrior() / prior);
+                    }
+                }
+            }
+            else {
+                prior = aiService.getPrior(game, child.getState().getAction(), numberOfActions);
+            }
+            child.getState().setPrior(prior);
+            totalPrior += prior;
+        }
+        return totalPrior;
+    }
+
+    /**
+     * Create the node for a possible state, or take the node with the same game state from the transposition table.
+     * Nodes aren't shared as children of the root, since a shared node keeps the action of the parent that created it,
+     * and as outcome of a chance node, since the probability is stored in the node.
+     * A node on the path is never shared, that would create a cycle. States of a lazy expansion don't have a game state
+     * yet, so those aren't looked up in the table
+     *
+     * @param parent    the parent of the new node
+     * @param state     the possible state
+     * @param table     the transposition table of the tree, null when none is used
+     * @param path      the path from the root to the expanded node
+     * @return the child node
+     */
+    private Node createChild(Node parent, State state, TranspositionTable table, List<Node> path) {
+        long hash = 0;
+        boolean useTable = table != null && state.getGame() != null;
+        if (useTable) {
+            hash = aiService.getStateHash(state.getGame());
+            Node sharedNode = table.get(hash);
+            if (sharedNode != null && path.size() > 1 && !parent.isChanceNode() && !path.contains(sharedNode)
+                    && aiService.isSameState(sharedNode.getState().getGame(), state.getGame())) {
+                return sharedNode;
+            }
+        }
+
+        Node newNode = new Node(state);
+        newNode.setParent(parent);
+        if (useTable) {
+            table.put(hash, newNode);
+        }
+        return newNode;
     }
 
     /**
      * This methode is called to create a group node
      *
      * @param node              the node to expand
+     * @param children          the children of the node to expand
      * @param moveGroupStates   all the chance nodes of a certain type
+     * @param table             the transposition table of the tree, null when none is used
+     * @param path              the path from the root to the node
+     * @return the number of nodes that were created
      */
-    private void createMoveGroupNode(Node node, List<State> moveGroupStates) {
+    private int createMoveGroupNode(Node node, List<Node> children, List<State> moveGroupStates, TranspositionTable table, List<Node> path) {
         Node groupNode = new Node();
         groupNode.setParent(node);
         groupNode.setGroupNode(true);
         groupNode.getState().setPlayerNo(moveGroupStates.get(0).getPlayerNo());
-        node.getChildArray().add(groupNode);
+        children.add(groupNode);
 
-        moveGroupStates.forEach(state -> {
-            Node newNode = new Node(state);
-            newNode.setParent(node);
-            groupNode.getChildArray().add(newNode);
-        });
+        int createdNodes = 1;
+        for (State state : moveGroupStates) {
+            createdNodes += addChild(groupNode, groupNode.getChildArray(), state, table, path);
+        }
+        return createdNodes;
     }
 
 
-    /**
-     * This method is called to create all chance nodes and filters out all the chance states
-     *
-     * @param node              the node to expand
-     * @param possibleStates    all the possible states
-     */
-    private void createChanceNodes(Node node, List<State> possibleStates) {
-        List<Class<? extends Action>> chanceActionTypes = possibleStates.stream().filter(state ->
-                state.getAction() != null && state.getAction().getClass().getSuperclass() == ChanceAction.class)
-                .map(state -> state.getAction().getClass()).distinct().collect(Collectors.toList());
-
-        chanceActionTypes.forEach(type -> {
-            List<State> typeActions = possibleStates.stream().filter(state -> state.getAction() != null &&
-                    state.getAction().getClass() == type).collect(Collectors.toList());
-            possibleStates.removeAll(typeActions);
-            createChanceNode(node, typeActions);
-        });
-    }
-
     /**
      * This methode is called to create a chance node
      *
      * @param node          the node to expand
+     * @param children      the children of the node to expand
      * @param chanceStates  all the chance nodes of a certain type
+     * @param table         the transposition table of the tree, null when none is used
+     * @param path          the path from the root to the node
+     * @return the number of nodes that were created
      */
-    private void createChanceNode(Node node, List<State> chanceStates) {
+    private int createChanceNode(Node node, List<Node> children, List<State> chanceStates, TranspositionTable table, List<Node> path) {
         Node chanceNode = new Node();
         chanceNode.setParent(node);
         chanceNode.setChanceNode(true);
         chanceNode.getState().setPlayerNo(chanceStates.get(0).getPlayerNo());
-        node.getChildArray().add(chanceNode);
+        children.add(chanceNode);
 
-        chanceStates.forEach(state -> {
+        int createdNodes = 1;
+        for (State state : chanceStates) {
             state.setProbability(((ChanceAction)state.getAction()).getProbability());
-            Node newNode = new Node(state);
-            newNode.setParent(node);
-            chanceNode.getChildArray().add(newNode);
-        });
+            createdNodes += addChild(chanceNode, chanceNode.getChildArray(), state, table, path);
+        }
+
+        chanceNode.setAliasTable(new AliasTable(chanceStates.stream().mapToDouble(State::getProbability).toArray()));
+        return createdNodes;
     }
 
     /**
@@ -211,20 +1294,23 @@ public class MonteCarloService {
      * @param winningPlayerNo the winner of the game
      */
     public void backPropagation(Node nodeToExplore, int winningPlayerNo) {
+        backPropagation(nodeToExplore, Evaluation.of(winningPlayerNo), 0);
+    }
+
+    /**
+     * Update all the parent nodes from the result of one or more simulations of the same node
+     * and remove the virtual loss that was added to them
+     *
+     * @param nodeToExplore the child node where the simulations have ended
+     * @param outcome the result of the simulations
+     * @param virtualLoss the virtual loss that was added to the nodes on the path, 0 for none
+     */
+    public void backPropagation(Node nodeToExplore, SimulationOutcome outcome, int virtualLoss) {
         Node tempNode = nodeToExplore;
         double bonusScore = aiService.calculateVirtualWins(tempNode);
 
         do {
-            //increase visitcount for this particular node with 1
-            tempNode.getState().incrementVisit();
-
-            //give points if player won the game
-            if (tempNode.getState().getPlayerNo() == winningPlayerNo) {
-                tempNode.getState().addScore(aiConfig.getWinScore() + bonusScore);
-            }
-            else if (winningPlayerNo == aiConfig.getDraw()) {
-                tempNode.getState().addScore(aiConfig.getDrawScore() + bonusScore);
-            }
+            updateStatistics(tempNode, outcome, bonusScore, virtualLoss);
 
             //move over to parent
             tempNode = tempNode.getParent();
@@ -232,6 +1318,48 @@ public class MonteCarloService {
         } while (tempNode != null);
     }
 
+    /**
+     * Update all the nodes on the path of one or more simulations of the same node from their result. This is used when
+     * nodes can have multiple parents, so only the parents on the path of this simulation are updated
+     *
+     * @param path the nodes from the root to the node where the simulations have ended
+     * @param outcome the result of the simulations
+     * @param virtualLoss the virtual loss that was added to the nodes on the path, 0 for none
+     */
+    public void backPropagation(List<Node> path, SimulationOutcome outcome, int virtualLoss) {
+        double bonusScore = aiService.calculateVirtualWins(path.get(path.size() - 1));
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            updateStatistics(path.get(i), outcome, bonusScore, virtualLoss);
+        }
+    }
+
+    /**
+     * Update the statistics of one node from the result of one or more simulations
+     *
+     * @param node the node to update
+     * @param outcome the result of the simulations
+     * @param bonusScore the extra score for the end of the branch
+     * @param virtualLoss the virtual loss that was added to the node, 0 for none
+     */
+    private void updateStatistics(Node node, SimulationOutcome outcome, double bonusScore, int virtualLoss) {
+        State state = node.getState();
+        if (virtualLoss > 0) {
+            state.removeVirtualLoss(virtualLoss);
+        }
+        state.addVisits(outcome.getSimulations());
+
+        //give points if player won the game
+        int playerNo = state.getPlayerNo();
+        double winScore = aiConfig.getWinScore() + bonusScore;
+        double drawScore = aiConfig.getDrawScore() + bonusScore;
+        double score = outcome.getScore(playerNo, winScore, drawScore, aiConfig.getDraw());
+        double squaredScore = outcome.getSquaredScore(playerNo, winScore, drawScore, aiConfig.getDraw());
+        if (score != 0 || squaredScore != 0) {
+            state.addScores(score, squaredScore);
+        }
+    }
+
     /**
      * Simulation of a game starting from a given node
      *
@@ -239,17 +1367,18 @@ public class MonteCarloService {
      * @return the winner of the game
      */
     public int simulateRandomPlayout(Node node) {
-        Node tempNode = new Node(node);
-        State tempState = tempNode.getState();
-        int boardStatus = aiService.getStatus(tempState.getGame(), false);
-        int depth = aiConfig.getSearchDepth();
-
-        while (boardStatus == aiConfig.getOngoingGame()) {
-            depth--;
-            tempState.setGame(aiService.randomAction(tempState.getGame()));
-            tempState.setPlayerNo(aiService.getCurrentPlayer(tempState.getGame()));
-            boardStatus = aiService.getStatus(tempNode.getState().getGame(), depth<=0);
-        }
-        return boardStatus;
+        return simulateRandomPlayout(node.getState().getGame());
+    }
+
+    /**
+     * Simulation of a game starting from a given game state. The game state itself isn't changed.
+     * With in place rollouts the game state is copied once and all the random actions are performed on that copy,
+     * otherwise every random action creates a new game state
+     *
+     * @param game the game state from which you want to start simulating
+     * @return the winner of the game
+     */
+    public int simulateRandomPlayout(Game game) {
+        return rolloutService.simulateRandomPlayout(game, null, null);
     }
 }
@@ -0,0 +1,199 @@
+package mcts.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.SimulationResult;
+import mcts.domain.ai.MoveStatistics;
+import mcts.domain.ai.Node;
+import mcts.domain.ai.PositionCache;
+import mcts.domain.ai.State;
+import mcts.domain.ai.actions.Action;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the root statistics of finished searches in a memory-mapped file, so searches of positions that were searched
+ * before, also before a restart, can start from those statistics or be answered without searching
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PositionCacheService {
+
+    private final AiConfig aiConfig;
+    private final AiService aiService;
+    private PositionCache positionCache;
+
+    /**
+     * Open the cache file when 'usePositionCache' is set
+     */
+    @PostConstruct
+    public void open() {
+        if (!aiConfig.isUsePositionCache()) {
+            return;
+        }
+        Path file = Paths.get(aiConfig.getPositionCacheFile());
+        long start = System.currentTimeMillis();
+        try {
+            positionCache = PositionCache.open(file, aiConfig.getPositionCacheSize(), aiConfig.getPositionCacheMoves());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the position cache " + file, e);
+        }
+        log.info("Opened the position cache {} in {} ms", file, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Write the cache to its file and close it
+     */
+    @PreDestroy
+    public void close() {
+        if (positionCache == null) {
+            return;
+        }
+        try {
+            positionCache.close();
+        } catch (IOException e) {
+            log.warn("Could not close the position cache", e);
+        }
+        positionCache = null;
+    }
+
+    /**
+     * Check whether the cache is open
+     *
+     * @return true if positions can be looked up and stored
+     */
+    public boolean isEnabled() {
+        return positionCache != null;
+    }
+
+    /**
+     * Get the moves that were stored for a position
+     *
+     * @param game      the game state
+     * @param playerId  the player who has to act
+     * @return the stored moves, null when the position isn't in the cache
+     */
+    public List<MoveStatistics> get(Game game, int playerId) {
+        return positionCache != null ? positionCache.get(getKey(aiService.getStateHash(game), playerId)) : null;
+    }
+
+    /**
+     * Store the moves of the root of a finished search
+     *
+     * @param game      the game state of the root
+     * @param playerId  the player who had to act
+     * @param moves     the statistics of the children of the root
+     */
+    public void put(Game game, int playerId, List<MoveStatistics> moves) {
+        if (positionCache != null) {
+            positionCache.put(getKey(aiService.getStateHash(game), playerId), moves);
+        }
+    }
+
+    /**
+     * Answer a search from the cache when the position was searched with at least 'positionCacheMinVisits' visits.
+     * The cached move with the best average score is played, when it isn't a legal action the position is searched
+     *
+     * @param game      the game state for which you want to find the best move
+     * @param playerId  the player who has to act
+     * @return the game state after the cached move, null when the position has to be searched
+     */
+    public SimulationResult findCachedMove(Game game, int playerId) {
+        if (positionCache == null || aiConfig.getPositionCacheMinVisits() <= 0) {
+            return null;
+        }
+        List<MoveStatistics> moves = get(game, playerId);
+        if (moves == null) {
+            return null;
+        }
+        MoveStatistics bestMove = null;
+        long visits = 0;
+        for (MoveStatistics move : moves) {
+            visits += move.getVisits();
+            if (move.getVisits() > 0 && (bestMove == null
+                    || move.getWinScore() / move.getVisits() > bestMove.getWinScore() / bestMove.getVisits())) {
+                bestMove = move;
+            }
+        }
+        if (bestMove == null || visits < aiConfig.getPositionCacheMinVisits()) {
+            return null;
+        }
+
+        for (Action action : aiService.getLegalActions(game)) {
+            if (action.getActionKey() == bestMove.getActionKey()) {
+                log.info("Game[{}]: AI[{}] answered from the position cache with {} visits, ran {}", game.getId(), playerId, visits, action);
+                return new SimulationResult(aiService.getNextState(game, action), action);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add the cached statistics of a position to the children of the expanded root of a new tree. The cached moves are
+     * matched to the children by their action key. The statistics are scaled down to at most 'positionCacheSeedVisits' visits,
+     * so the cache guides the search without deciding it, and the priors of the children become the smoothed share of their visits
+     *
+     * @param rootNode  the expanded root
+     * @param moves     the cached moves of the position of the root
+     */
+    public void seedChildren(Node rootNode, List<MoveStatistics> moves) {
+        Map<Long, MoveStatistics> movesByKey = new HashMap<>();
+        long cachedVisits = 0;
+        for (MoveStatistics move : moves) {
+            movesByKey.put(move.getActionKey(), move);
+            cachedVisits += move.getVisits();
+        }
+        double scale = Math.min(1.0, aiConfig.getPositionCacheSeedVisits() / (double) Math.max(cachedVisits, 1));
+
+        List<Node> children = rootNode.getChildArray();
+        MoveStatistics[] childMoves = new MoveStatistics[children.size()];
+        int[] childVisits = new int[children.size()];
+        int seededVisits = 0;
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            Action action = child.getState().getAction();
+            if (action != null && !child.isChanceNode() && !child.isGroupNode()) {
+                childMoves[i] = movesByKey.get(action.getActionKey());
+            }
+            childVisits[i] = childMoves[i] != null ? (int) Math.round(childMoves[i].getVisits() * scale) : 0;
+            seededVisits += childVisits[i];
+        }
+        if (seededVisits == 0) {
+            return;
+        }
+
+        for (int i = 0; i < children.size(); i++) {
+            State state = children.get(i).getState();
+            state.setPrior((childVisits[i] + 1.0) / (seededVisits + children.size()));
+            if (childVisits[i] > 0) {
+                double share = (double) childVisits[i] / childMoves[i].getVisits();
+                state.addVisits(childVisits[i]);
+                state.addScores(childMoves[i].getWinScore() * share, childMoves[i].getSquaredScore() * share);
+            }
+        }
+        rootNode.getState().addVisits(seededVisits);
+    }
+
+    /**
+     * The same game state can be searched for different players, so the player is part of the key
+     *
+     * @param stateHash the hash of the game state
+     * @param playerId  the player who has to act
+     * @return the key of the position
+     */
+    private long getKey(long stateHash, int playerId) {
+        return stateHash ^ (playerId + 1) * 0xC2B2AE3D27D4EB4FL;
+    }
+}
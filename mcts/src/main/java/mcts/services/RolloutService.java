@@ -0,0 +1,282 @@
+package mcts.services;
+
+import lombok.RequiredArgsConstructor;
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.ai.AmafMoves;
+import mcts.domain.ai.Node;
+import mcts.domain.ai.SearchRandom;
+import mcts.domain.ai.SearchStatistics;
+import mcts.domain.ai.actions.Action;
+import mcts.domain.ai.actions.ActionKind;
+import mcts.domain.ai.actions.ReversibleAction;
+import mcts.domain.ai.evaluation.Evaluation;
+import mcts.domain.ai.evaluation.EvaluationCounts;
+import mcts.domain.ai.evaluation.LeafEvaluator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Plays the simulations of the search: random rollouts to the end of the game, or a number of random actions followed by
+ * the leaf evaluator, and the rollouts of one node shared over the search threads
+ */
+@Service
+@RequiredArgsConstructor
+public class RolloutService {
+
+    private final AiConfig aiConfig;
+    private final AiService aiService;
+    private final ExecutorService searchExecutor;
+    private final ObjectProvider<LeafEvaluator> leafEvaluatorProvider;
+    private volatile LeafEvaluator leafEvaluator;
+
+    /**
+     * Play several simulations from the same node and count their results. With leaf parallelization the rollouts
+     * are divided over helpers on the search threads. The calling thread plays its share as well and then claims the shares
+     * of helpers that haven't started yet, so a busy pool can't block the search, and only waits for helpers that have.
+     * Every share has its own generator split from the generator of the calling thread, so a search with a fixed seed
+     * plays the same rollouts whichever thread plays them.
+     * The game state is read by all helpers at the same time, so a leaf evaluator has to be thread safe
+     *
+     * @param game          the game state of the simulated node
+     * @param rollouts      the number of simulations
+     * @param statistics    the statistics to add the rollouts to
+     * @return the counted results of the simulations
+     */
+    public EvaluationCounts runRollouts(Game game, int rollouts, SearchStatistics statistics) {
+        //the searches of tree and root parallelization already keep every search thread busy
+        int helpers = aiConfig.isUseLeafParallelization() && !aiConfig.isUseTreeParallelization() && !aiConfig.isUseRootParallelization()
+                ? Math.min(rollouts, aiConfig.getSearchThreads()) - 1 : 0;
+        int shares = helpers + 1;
+        SplittableRandom[] helperRandoms = new SplittableRandom[helpers];
+        int[] helperRollouts = new int[helpers];
+        //a share is played by the thread that claims it first, a helper or the calling thread
+        AtomicIntegerArray claimed = new AtomicIntegerArray(helpers);
+        List<Future<EvaluationCounts>> helperCounts = new ArrayList<>(helpers);
+        List<SearchStatistics> helperStatistics = new ArrayList<>(helpers);
+        for (int i = 0; i < helpers; i++) {
+            int helper = i;
+            helperRandoms[i] = SearchRandom.current().split();
+            helperRollouts[i] = rollouts / shares + (i + 1 < rollouts % shares ? 1 : 0);
+            SearchStatistics rolloutStatistics = new SearchStatistics();
+            helperStatistics.add(rolloutStatistics);
+            helperCounts.add(searchExecutor.submit(() -> claimed.compareAndSet(helper, 0, 1)
+                    ? playRollouts(game, helperRollouts[helper], helperRandoms[helper], rolloutStatistics) : null));
+        }
+
+        EvaluationCounts counts = playRollouts(game, rollouts / shares + (0 < rollouts % shares ? 1 : 0), null, statistics);
+        for (int i = 0; i < helpers; i++) {
+            if (claimed.compareAndSet(i, 0, 1)) {
+                helperCounts.get(i).cancel(false);
+                counts.merge(playRollouts(game, helperRollouts[i], helperRandoms[i], statistics));
+            }
+            else {
+                counts.merge(SearchThreads.getResult(helperCounts.get(i)));
+                statistics.merge(helperStatistics.get(i));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Play a share of the simulations of a node
+     *
+     * @param game          the game state of the simulated node
+     * @param rollouts      the number of simulations to play
+     * @param random        the generator of the share, null to use the generator of the current thread
+     * @param statistics    the statistics to add the rollouts to
+     * @return the counted results of the simulations
+     */
+    private EvaluationCounts playRollouts(Game game, int rollouts, SplittableRandom random, SearchStatistics statistics) {
+        SplittableRandom threadRandom = SearchRandom.current();
+        if (random != null) {
+            SearchRandom.use(random);
+        }
+        try {
+            EvaluationCounts counts = new EvaluationCounts();
+            for (int i = 0; i < rollouts; i++) {
+                counts.add(evaluateLeaf(game, statistics));
+            }
+            return counts;
+        } finally {
+            SearchRandom.use(threadRandom);
+        }
+    }
+
+    /**
+     * Get the leaf evaluator bean, it is looked up once when it is first needed
+     *
+     * @return the leaf evaluator
+     */
+    private LeafEvaluator getLeafEvaluator() {
+        LeafEvaluator evaluator = leafEvaluator;
+        if (evaluator == null) {
+            evaluator = leafEvaluatorProvider.getIfAvailable();
+            if (evaluator == null) {
+                throw new IllegalStateException("'useLeafEvaluator' is set but no LeafEvaluator bean was found");
+            }
+            leafEvaluator = evaluator;
+        }
+        return evaluator;
+    }
+
+    /**
+     * Find the result of a simulation from a game state. Without a leaf evaluator a random rollout is played to the end,
+     * with a leaf evaluator at most 'rolloutDepth' random actions are played before the game state is evaluated
+     *
+     * @param game          the game state of the simulated node
+     * @param statistics    the statistics to add the rollout to
+     * @return the result of the simulation
+     */
+    public Evaluation evaluateLeaf(Game game, SearchStatistics statistics) {
+        return evaluateLeaf(game, statistics, null);
+    }
+
+    /**
+     * Find the result of a simulation from a game state and record the actions of the rollout
+     *
+     * @param game          the game state of the simulated node
+     * @param statistics    the statistics to add the rollout to
+     * @param moves         the moves to add the actions of the rollout to, null when they aren't recorded
+     * @return the result of the simulation
+     */
+    public Evaluation evaluateLeaf(Game game, SearchStatistics statistics, AmafMoves moves) {
+        if (!aiConfig.isUseLeafEvaluator()) {
+            return Evaluation.of(simulateRandomPlayout(game, statistics, moves));
+        }
+        Game rolloutGame = playRandomActions(game, aiConfig.getRolloutDepth(), statistics, moves);
+        int status = aiService.getStatus(rolloutGame, false);
+        if (status != aiConfig.getOngoingGame()) {
+            return Evaluation.of(status);
+        }
+        return getLeafEvaluator().evaluate(rolloutGame);
+    }
+
+    /**
+     * Find the results of a batch of simulations with one call of the leaf evaluator.
+     * Only the game states that are still ongoing after their rollout are passed to the leaf evaluator
+     *
+     * @param leaves        the simulated nodes
+     * @param statistics    the statistics to add the rollouts to
+     * @return the result of every simulation, in the same order as the nodes
+     */
+    public List<Evaluation> evaluateLeaves(Node[] leaves, SearchStatistics statistics) {
+        Evaluation[] evaluations = new Evaluation[leaves.length];
+        List<Game> ongoingGames = new ArrayList<>(leaves.length);
+        for (int i = 0; i < leaves.length; i++) {
+            Game rolloutGame = playRandomActions(leaves[i].getState().getGame(), aiConfig.getRolloutDepth(), statistics, null);
+            int status = aiService.getStatus(rolloutGame, false);
+            if (status != aiConfig.getOngoingGame()) {
+                evaluations[i] = Evaluation.of(status);
+            }
+            else {
+                ongoingGames.add(rolloutGame);
+            }
+        }
+
+        if (!ongoingGames.isEmpty()) {
+            List<Evaluation> estimates = getLeafEvaluator().evaluate(ongoingGames);
+            if (estimates.size() != ongoingGames.size()) {
+                throw new IllegalStateException("The leaf evaluator returned " + estimates.size() + " evaluations for "
+                        + ongoingGames.size() + " game states");
+            }
+            int estimate = 0;
+            for (int i = 0; i < evaluations.length; i++) {
+                if (evaluations[i] == null) {
+                    evaluations[i] = estimates.get(estimate++);
+                }
+            }
+        }
+        return Arrays.asList(evaluations);
+    }
+
+    /**
+     * Simulation of a game starting from a given game state, the length of the rollout is added to the statistics
+     *
+     * @param game          the game state from which you want to start simulating
+     * @param statistics    the statistics to add the rollout to, null when it isn't recorded
+     * @param moves         the moves to add the actions of the rollout to, null when they aren't recorded
+     * @return the winner of the game
+     */
+    public int simulateRandomPlayout(Game game, SearchStatistics statistics, AmafMoves moves) {
+        boolean inPlace = aiConfig.isUseInPlaceRollouts();
+        Game tempGame = inPlace ? game.copy() : game;
+        int boardStatus = aiService.getStatus(tempGame, false);
+        int depth = aiConfig.getSearchDepth();
+
+        while (boardStatus == aiConfig.getOngoingGame()) {
+            depth--;
+            tempGame = playRandomAction(tempGame, inPlace, moves);
+            boardStatus = aiService.getStatus(tempGame, depth<=0);
+        }
+        if (statistics != null) {
+            statistics.addRollout(aiConfig.getSearchDepth() - depth);
+        }
+        return boardStatus;
+    }
+
+    /**
+     * Play a random rollout of at most a number of actions, which is shortened by the search depth.
+     * The game state itself isn't changed
+     *
+     * @param game          the game state from which you want to start simulating
+     * @param maxActions    the maximum number of random actions, 0 to return the game state itself
+     * @param statistics    the statistics to add the rollout to
+     * @param moves         the moves to add the actions of the rollout to, null when they aren't recorded
+     * @return the game state at the end of the rollout
+     */
+    private Game playRandomActions(Game game, int maxActions, SearchStatistics statistics, AmafMoves moves) {
+        int actions = Math.min(maxActions, aiConfig.getSearchDepth());
+        if (actions <= 0) {
+            return game;
+        }
+        boolean inPlace = aiConfig.isUseInPlaceRollouts();
+        Game tempGame = inPlace ? game.copy() : game;
+        int length = 0;
+
+        while (length < actions && aiService.getStatus(tempGame, false) == aiConfig.getOngoingGame()) {
+            length++;
+            tempGame = playRandomAction(tempGame, inPlace, moves);
+        }
+        statistics.addRollout(length);
+        return tempGame;
+    }
+
+    /**
+     * Perform a random action in a rollout. When the moves of the rollout are recorded the action is chosen here,
+     * so the player and the key of the action can be added to the moves. Chance actions aren't recorded, they aren't chosen by a player
+     *
+     * @param game      the game state of the rollout
+     * @param inPlace   true if the game state may be changed
+     * @param moves     the moves to add the action to, null when they aren't recorded
+     * @return the game state after performing the action
+     */
+    private Game playRandomAction(Game game, boolean inPlace, AmafMoves moves) {
+        if (moves == null) {
+            return inPlace ? aiService.applyRandomAction(game) : aiService.randomAction(game);
+        }
+        Action action = aiService.chooseRandomAction(game);
+        if (action == null) {
+            return game;
+        }
+        if (action.getKind() != ActionKind.CHANCE) {
+            moves.add(aiService.getCurrentPlayer(game), action.getActionKey());
+        }
+        if (!inPlace) {
+            return aiService.getNextState(game, action);
+        }
+        if (action instanceof ReversibleAction) {
+            ((ReversibleAction) action).apply(game);
+            return game;
+        }
+        return action.performAction(game);
+    }
+}
@@ -0,0 +1,148 @@
+package mcts.services;
+
+import lombok.RequiredArgsConstructor;
+import mcts.config.AiConfig;
+import mcts.domain.ai.RootDecision;
+import mcts.domain.ai.SearchStatistics;
+import org.springframework.stereotype.Service;
+
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Decides how long a search runs: its simulation time or number of simulations, stopping early when its move is decided
+ * and extending it once when its best two moves are still close. Both tree backends run their searches with it
+ */
+@Service
+@RequiredArgsConstructor
+public class SearchBudgetService {
+
+    private final AiConfig aiConfig;
+
+    /**
+     * Run the iterations of a search on the current thread until the budget is used up or the move is decided
+     *
+     * @param iteration         runs one select, expand, simulate and backpropagate iteration and returns its number of simulations
+     * @param decision          collects the statistics of the children of the root
+     * @param end               the time at which the search has to stop
+     * @param maxSimulations    the number of simulations to run when 'useNumberOfSimulations' is set
+     * @param statistics        the statistics of the search, it is marked when the search stops early
+     * @return the number of simulations that were run
+     */
+    public int search(IntSupplier iteration, Supplier<RootDecision> decision, long end, int maxSimulations, SearchStatistics statistics) {
+        int simulations = 0;
+
+        //start running games for allowed time
+        do {
+            int previousSimulations = simulations;
+            simulations += iteration.getAsInt();
+            if (isEarlyStoppingCheck(previousSimulations, simulations) && isDecided(decision.get())) {
+                statistics.setStoppedEarly(true);
+                break;
+            }
+        } while (hasBudgetLeft(end, simulations, maxSimulations));
+        return simulations;
+    }
+
+    /**
+     * Describe how a search deviated from its budget for the log
+     *
+     * @param statistics the statistics of the search
+     * @return the description, empty when the search used exactly its budget
+     */
+    public String getBudgetNote(SearchStatistics statistics) {
+        if (statistics.isStoppedEarly()) {
+            return statistics.isExtended() ? " after an extension, stopped early" : ", stopped early";
+        }
+        return statistics.isExtended() ? " after an extension" : "";
+    }
+
+    /**
+     * Check whether the search may run another simulation
+     *
+     * @param end               the time at which the search has to stop
+     * @param simulations       the number of simulations that were run
+     * @param maxSimulations    the number of simulations to run when 'useNumberOfSimulations' is set
+     * @return true if there is budget left for another simulation
+     */
+    public boolean hasBudgetLeft(long end, int simulations, int maxSimulations) {
+        return (System.currentTimeMillis() < end && !aiConfig.isUseNumberOfSimulations()) ||
+                (simulations < maxSimulations && aiConfig.isUseNumberOfSimulations());
+    }
+
+    /**
+     * Check whether the root has to be checked for early stopping after some simulations.
+     * The root is only checked every 'earlyStoppingInterval' simulations, because it means looping over all its children.
+     * An iteration can run several simulations at once, so the root is checked once by the iteration that passes the interval
+     *
+     * @param previousSimulations   the number of simulations at the previous check
+     * @param simulations           the number of simulations that were run
+     * @return true if the root has to be checked
+     */
+    public boolean isEarlyStoppingCheck(int previousSimulations, int simulations) {
+        int interval = Math.max(aiConfig.getEarlyStoppingInterval(), 1);
+        return aiConfig.isUseEarlyStopping() && previousSimulations / interval != simulations / interval;
+    }
+
+    /**
+     * Check whether the move of a search is decided, so the search can stop before its budget is used up.
+     * The move is chosen by the highest average score, so it is decided when the average score of the leader
+     * is better than the score of the runner-up with the configured confidence, or when the root has only one child.
+     * A lead in visits doesn't decide the move, a runner-up can pass the average of the leader with one simulation
+     *
+     * @param decision the statistics of the children of the root
+     * @return true if the search can stop
+     */
+    public boolean isDecided(RootDecision decision) {
+        if (decision.getChildren() == 1) {
+            return true;
+        }
+        if (decision.getChildren() == 0 || decision.getLeaderVisits() < aiConfig.getEarlyStoppingMinVisits()) {
+            return false;
+        }
+        return decision.isSeparated(aiConfig.getEarlyStoppingConfidence());
+    }
+
+    /**
+     * Check whether a search that used its budget has to be extended, because the leader is not better than the
+     * runner-up with the configured confidence. A search is extended only once and not when it stopped early
+     *
+     * @param decision      the statistics of the children of the root
+     * @param statistics    the statistics of the search
+     * @return true if the search has to be extended
+     */
+    public boolean needsExtension(RootDecision decision, SearchStatistics statistics) {
+        return aiConfig.isUseTimeExtension() && !statistics.isStoppedEarly() && !statistics.isExtended()
+                && decision.getChildren() > 1 && !decision.isSeparated(aiConfig.getEarlyStoppingConfidence());
+    }
+
+    /**
+     * Get the end of the extension of a search, which is a part of the time the search had
+     *
+     * @param start the time at which the search started
+     * @param end   the time at which the search had to stop
+     * @return the time at which the extended search has to stop
+     */
+    public long getExtendedEnd(long start, long end) {
+        return System.currentTimeMillis() + (long) ((end - start) * aiConfig.getTimeExtensionFactor());
+    }
+
+    /**
+     * Get the number of simulations of the extension of a search, which is a part of the simulations the search had
+     *
+     * @param maxSimulations the number of simulations the search had
+     * @return the number of simulations of the extension
+     */
+    public int getExtendedSimulations(int maxSimulations) {
+        return (int) (maxSimulations * aiConfig.getTimeExtensionFactor());
+    }
+
+    /**
+     * Get the number of leaves that are evaluated in one call of the leaf evaluator
+     *
+     * @return the size of a batch, 1 when the leaves aren't evaluated in batches
+     */
+    public int getLeafBatchSize() {
+        return aiConfig.isUseLeafEvaluator() ? Math.max(aiConfig.getLeafBatchSize(), 1) : 1;
+    }
+}
@@ -0,0 +1,83 @@
+package mcts.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import mcts.domain.ai.SearchStatistics;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the statistics of every search as Micrometer meters. The meters are updated once per search,
+ * so the simulations themselves only pay for filling in their statistics
+ */
+@Service
+@RequiredArgsConstructor
+public class SearchMetricsService {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Add the statistics of a finished search to the meters
+     *
+     * @param statistics the statistics of the search
+     */
+    public void record(SearchStatistics statistics) {
+        meterRegistry.timer("mcts.search.phase", "phase", "select").record(statistics.getSelectionTime(), TimeUnit.NANOSECONDS);
+        meterRegistry.timer("mcts.search.phase", "phase", "expand").record(statistics.getExpansionTime(), TimeUnit.NANOSECONDS);
+        meterRegistry.timer("mcts.search.phase", "phase", "simulate").record(statistics.getSimulationTime(), TimeUnit.NANOSECONDS);
+        meterRegistry.timer("mcts.search.phase", "phase", "backpropagate").record(statistics.getBackPropagationTime(), TimeUnit.NANOSECONDS);
+        meterRegistry.timer("mcts.search.time").record(statistics.getSearchTime(), TimeUnit.MILLISECONDS);
+        meterRegistry.summary("mcts.search.simulations").record(statistics.getSimulations());
+        meterRegistry.summary("mcts.search.simulations.per.second").record(statistics.getSimulationsPerSecond());
+        meterRegistry.summary("mcts.rollout.length.mean").record(statistics.getAverageRolloutLength());
+        meterRegistry.summary("mcts.rollout.length.max").record(statistics.getMaxRolloutLength());
+        recordRolloutLengths(statistics.getRolloutLengths());
+        meterRegistry.summary("mcts.tree.nodes").record(statistics.getNodeCount());
+        meterRegistry.summary("mcts.tree.depth").record(statistics.getMaxDepth());
+        meterRegistry.summary("mcts.root.best.visit.share").record(getBestVisitShare(statistics.getRootChildVisits()));
+        if (statistics.isStoppedEarly()) {
+            meterRegistry.counter("mcts.search.stopped.early").increment();
+        }
+        if (statistics.isExtended()) {
+            meterRegistry.counter("mcts.search.extended").increment();
+        }
+    }
+
+    /**
+     * Add the rollouts of a search to a cumulative histogram of rollout lengths. Every bucket counts the rollouts of at most
+     * 'le' random actions, with the power of two bounds the statistics count the rollouts in, so the monitoring backend can
+     * calculate the percentiles over all rollouts instead of over the averages of the searches
+     *
+     * @param rolloutLengths the number of rollouts per power of two of their length
+     */
+    private void recordRolloutLengths(int[] rolloutLengths) {
+        long rollouts = 0;
+        for (int bucket = 0; bucket < rolloutLengths.length; bucket++) {
+            rollouts += rolloutLengths[bucket];
+            long maxLength = (1L << bucket) - 1;
+            meterRegistry.counter("mcts.rollout.length.bucket", "le", Long.toString(maxLength)).increment(rollouts);
+        }
+        meterRegistry.counter("mcts.rollout.length.bucket", "le", "+Inf").increment(rollouts);
+    }
+
+    /**
+     * Get the part of the visits of the root that went to its most visited child,
+     * a low share means the search didn't settle on a move
+     *
+     * @param rootChildVisits the visits of every child of the root
+     * @return the share of the most visited child
+     */
+    private double getBestVisitShare(int[] rootChildVisits) {
+        if (rootChildVisits == null) {
+            return 0;
+        }
+        long total = 0;
+        int best = 0;
+        for (int visits : rootChildVisits) {
+            total += visits;
+            best = Math.max(best, visits);
+        }
+        return total > 0 ? (double) best / total : 0;
+    }
+}
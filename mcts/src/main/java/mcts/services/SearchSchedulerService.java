@@ -0,0 +1,418 @@
+package mcts.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.SimulationResult;
+import mcts.domain.ai.Search;
+import mcts.domain.ai.SearchTask;
+import mcts.domain.ai.actions.Action;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the searches of many games on a fixed number of threads. A search doesn't block the thread that started it,
+ * its result is completed when it has used its budget or is stopped. Every search runs for one time slice at a time,
+ * after which it goes back in the queue. The queue gives the searches with the highest priority the next slice,
+ * and between searches with the same priority the one that used the smallest part of its budget.
+ * When pondering is enabled the tree below the chosen move keeps being searched until the next move of the game arrives
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SearchSchedulerService {
+
+    private final AiConfig aiConfig;
+    private final AiService aiService;
+    private final MonteCarloService monteCarloService;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger activeSearches = new AtomicInteger();
+    private final PriorityBlockingQueue<SearchTask> queue = new PriorityBlockingQueue<>(11,
+            Comparator.comparingInt(SearchTask::getPriority).reversed()
+                    .thenComparingDouble(SearchTask::getQueuedProgress)
+                    .thenComparingLong(SearchTask::getSequence));
+    private final Map<String, SearchTask> ponderTasks = new ConcurrentHashMap<>();
+    private final Queue<SearchTask> waitingPonderTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger ponderingThreads = new AtomicInteger();
+    private ExecutorService workers;
+
+    /**
+     * Start the threads that run the time slices of the searches
+     */
+    @PostConstruct
+    public void startWorkers() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "mcts-scheduler-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        int threads = aiConfig.getSchedulerThreads();
+        workers = Executors.newFixedThreadPool(threads, threadFactory);
+        for (int i = 0; i < threads; i++) {
+            workers.submit(this::work);
+        }
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * This method is used to let the ai calculate the best possible move for a given game state on the scheduler threads.
+     * The calling thread waits for the result
+     *
+     * @param game the game state for which you want to find the best move
+     * @return the game state after you performed the best possible move
+     */
+    public SimulationResult findNextMove(Game game) {
+        try {
+            return submit(game).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a scheduled search", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A scheduled search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Add a search for the current player of a game state to the queue, with the default priority and budget
+     *
+     * @param game the game state for which you want to find the best move
+     * @return the result of the search, completed when the search has used its budget
+     */
+    public CompletableFuture<SimulationResult> submit(Game game) {
+        return submit(game, aiService.getCurrentPlayer(game), 0, 0);
+    }
+
+    /**
+     * Add a search to the queue
+     *
+     * @param game          the game state for which you want to find the best move
+     * @param playerId      the player who has to act
+     * @param priority      the priority of the search, searches with a higher priority get their time slices first
+     * @param timeBudget    the time the search may run on the scheduler threads, 0 for the simulation time of the game state
+     * @return the result of the search, completed when the search has used its budget
+     */
+    public CompletableFuture<SimulationResult> submit(Game game, int playerId, int priority, long timeBudget) {
+        return start(game, playerId, priority, timeBudget).getResult();
+    }
+
+    /**
+     * Add a search to the queue and get its handle, which can be used to follow, stop or extend the search while it runs
+     *
+     * @param game          the game state for which you want to find the best move
+     * @param playerId      the player who has to act
+     * @param priority      the priority of the search, searches with a higher priority get their time slices first
+     * @param timeBudget    the time the search may run on the scheduler threads, 0 for the simulation time of the game state
+     * @return the running search
+     */
+    public SearchTask start(Game game, int playerId, int priority, long timeBudget) {
+        //the tree of the game may be pondered on, it's retained again before the new search looks for it
+        stopPondering(game.getId());
+
+        if (activeSearches.incrementAndGet() > aiConfig.getMaxQueuedSearches()) {
+            activeSearches.decrementAndGet();
+            throw new IllegalStateException("Too many searches are running to schedule a search for game " + game.getId());
+        }
+
+        Search search;
+        try {
+            search = monteCarloService.startSearch(game, playerId);
+        } catch (RuntimeException e) {
+            activeSearches.decrementAndGet();
+            throw e;
+        }
+        SearchTask task = new SearchTask(search, priority, sequence.incrementAndGet());
+        if (search.isFinished()) {
+            complete(task, search.getResult());
+            return task;
+        }
+
+        if (timeBudget > 0) {
+            search.setTimeBudget(timeBudget);
+        }
+        //the deadline keeps the waiting time of a search bounded when the threads are busy with other searches
+        search.setDeadline(System.currentTimeMillis() + search.getTimeBudget() + aiConfig.getMaxSearchDelay());
+        enqueue(task);
+        return task;
+    }
+
+    /**
+     * Get the best action of a search so far, the search keeps running
+     *
+     * @param task the search
+     * @return the best action so far, null when the search didn't expand its root yet
+     */
+    public Action getBestAction(SearchTask task) {
+        return monteCarloService.getBestAction(task.getSearch());
+    }
+
+    /**
+     * Get the number of simulations a search has run so far
+     *
+     * @param task the search
+     * @return the number of simulations
+     */
+    public int getSimulations(SearchTask task) {
+        return task.getSearch().getSimulations();
+    }
+
+    /**
+     * Stop a search and let it choose its move with the simulations it has run.
+     * A search that waits in the queue gets its result on the calling thread, a search that is running gets its result
+     * on its scheduler thread after the current simulation
+     *
+     * @param task the search to stop
+     * @return the result of the search
+     */
+    public CompletableFuture<SimulationResult> stop(SearchTask task) {
+        task.getSearch().setStopped(true);
+        if (queue.remove(task)) {
+            runTimeSlice(task);
+        }
+        return task.getResult();
+    }
+
+    /**
+     * Give a running search more time or simulations, its deadline is moved by the same time
+     *
+     * @param task          the search to extend
+     * @param time          the extra simulation time
+     * @param simulations   the extra number of simulations, used when 'useNumberOfSimulations' is set
+     * @return false if the search already chose its move, the extension isn't used then
+     */
+    public boolean extend(SearchTask task, long time, int simulations) {
+        Search search = task.getSearch();
+        //the scheduler thread decides whether the search ends while holding the same lock, so an accepted extension is always used
+        synchronized (search) {
+            if (search.isFinished()) {
+                return false;
+            }
+            search.setTimeBudget(search.getTimeBudget() + time);
+            search.setMaxSimulations(search.getMaxSimulations() + simulations);
+            search.setDeadline(search.getDeadline() + time);
+            return true;
+        }
+    }
+
+    /**
+     * Get the number of searches that were submitted and don't have their result yet
+     *
+     * @return the number of searches
+     */
+    public int getActiveSearches() {
+        return activeSearches.get();
+    }
+
+    /**
+     * Take searches from the queue and run a time slice of them until the thread is stopped
+     */
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            SearchTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            runTimeSlice(task);
+        }
+    }
+
+    /**
+     * Run one time slice of a search, after which it goes back in the queue or gets its result
+     *
+     * @param task the search to run
+     */
+    private void runTimeSlice(SearchTask task) {
+        Search search = task.getSearch();
+        if (search.isPondering()) {
+            runPonderTimeSlice(task);
+            return;
+        }
+        try {
+            //a search that passed its deadline while it was waiting still runs one simulation to have a move
+            if (search.getSimulations() == 0 || monteCarloService.hasBudgetLeft(search)) {
+                monteCarloService.runSearch(search, aiConfig.getTimeSlice());
+            }
+            SimulationResult result;
+            synchronized (search) {
+                result = monteCarloService.hasBudgetLeft(search) ? null : monteCarloService.finishSearch(search);
+            }
+            if (result == null) {
+                enqueue(task);
+            }
+            else {
+                //pondering starts before the result is given, so the next move of the game can stop it
+                startPondering(result);
+                complete(task, result);
+            }
+        } catch (RuntimeException e) {
+            log.error("Game[{}]: scheduled search failed", search.getGame().getId(), e);
+            activeSearches.decrementAndGet();
+            task.getResult().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Keep searching the retained tree of a game below the chosen move while the opponent thinks.
+     * Pondering searches have the lowest priority, so they only run on threads that have no other search to run
+     *
+     * @param result the result of the search of the game
+     */
+    private void startPondering(SimulationResult result) {
+        Game game = result.getGame();
+        if (!aiConfig.isUsePondering() || !aiConfig.isUseTreeReuse() || game == null || game.getId() == null) {
+            return;
+        }
+        Search search = monteCarloService.startPondering(game);
+        if (search == null) {
+            return;
+        }
+        SearchTask task = new SearchTask(search, Integer.MIN_VALUE, sequence.incrementAndGet());
+        SearchTask previousTask = ponderTasks.put(game.getId(), task);
+        if (previousTask != null) {
+            previousTask.getSearch().setStopped(true);
+        }
+        enqueue(task);
+    }
+
+    /**
+     * Run one time slice of a pondering search. At most 'maxPonderingThreads' threads ponder at the same time,
+     * the other pondering searches wait until one of them has finished its time slice
+     *
+     * @param task the pondering search
+     */
+    private void runPonderTimeSlice(SearchTask task) {
+        Search search = task.getSearch();
+        if (ponderingThreads.incrementAndGet() > aiConfig.getMaxPonderingThreads()) {
+            ponderingThreads.decrementAndGet();
+            waitingPonderTasks.offer(task);
+            //a thread may have finished pondering or the search may have been stopped before the task was added
+            if (search.isStopped() && waitingPonderTasks.remove(task)) {
+                finishPondering(task);
+            }
+            else if (ponderingThreads.get() < aiConfig.getMaxPonderingThreads()) {
+                enqueueWaitingPonderTask();
+            }
+            return;
+        }
+
+        boolean finished = true;
+        try {
+            if (monteCarloService.hasBudgetLeft(search)) {
+                monteCarloService.runSearch(search, aiConfig.getTimeSlice());
+                finished = !monteCarloService.hasBudgetLeft(search);
+            }
+        } catch (RuntimeException e) {
+            log.error("Game[{}]: pondering failed", search.getGame().getId(), e);
+        } finally {
+            ponderingThreads.decrementAndGet();
+        }
+
+        if (finished) {
+            finishPondering(task);
+        }
+        else {
+            enqueue(task);
+        }
+        enqueueWaitingPonderTask();
+    }
+
+    /**
+     * Put the pondering search that waits the longest back in the queue
+     */
+    private void enqueueWaitingPonderTask() {
+        SearchTask waitingTask = waitingPonderTasks.poll();
+        if (waitingTask != null) {
+            enqueue(waitingTask);
+        }
+    }
+
+    /**
+     * Stop pondering on the tree of a game. When the pondering search is running its time slice,
+     * the calling thread waits until the slice is done and the tree is retained again
+     *
+     * @param gameId the id of the game
+     */
+    private void stopPondering(String gameId) {
+        SearchTask task = gameId != null ? ponderTasks.get(gameId) : null;
+        if (task == null) {
+            return;
+        }
+        task.getSearch().setStopped(true);
+        if (queue.remove(task) || waitingPonderTasks.remove(task)) {
+            finishPondering(task);
+            return;
+        }
+        try {
+            task.getResult().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for pondering to stop", e);
+        } catch (ExecutionException e) {
+            log.warn("Game[{}]: pondering failed", gameId, e.getCause());
+        }
+    }
+
+    /**
+     * Retain the tree of a pondering search again, so the next search of the game can reuse it
+     *
+     * @param task the pondering search
+     */
+    private void finishPondering(SearchTask task) {
+        Search search = task.getSearch();
+        monteCarloService.finishPondering(search);
+        ponderTasks.remove(search.getGame().getId(), task);
+        task.getResult().complete(null);
+    }
+
+    /**
+     * Put a search in the queue, ordered by the part of its budget it has used
+     *
+     * @param task the search to queue
+     */
+    private void enqueue(SearchTask task) {
+        Search search = task.getSearch();
+        double progress;
+        if (aiConfig.isUseNumberOfSimulations()) {
+            progress = search.getMaxSimulations() > 0 ? (double) search.getSimulations() / search.getMaxSimulations() : 1;
+        }
+        else {
+            progress = search.getTimeBudget() > 0 ? (double) search.getSearchTime() / search.getTimeBudget() : 1;
+        }
+        task.setQueuedProgress(progress);
+        queue.offer(task);
+    }
+
+    /**
+     * Give a search its result
+     *
+     * @param task      the search
+     * @param result    the result of the search
+     */
+    private void complete(SearchTask task, SimulationResult result) {
+        activeSearches.decrementAndGet();
+        task.getResult().complete(result);
+    }
+}
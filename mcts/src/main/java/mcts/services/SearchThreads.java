@@ -0,0 +1,30 @@
+package mcts.services;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Waits for the work the search services run on the search threads
+ */
+final class SearchThreads {
+
+    private SearchThreads() {
+    }
+
+    /**
+     * Wait for a search on the search threads to finish
+     *
+     * @param search the running search
+     * @return the result of the search
+     */
+    static <T> T getResult(Future<T> search) {
+        try {
+            return search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a search thread", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A search thread failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package mcts.selfplay;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import mcts.config.AiConfig;
+import mcts.games.ReferenceSetup;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeansException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A configuration of the ai that plays in the self-play matches: the default settings of application.properties
+ * with some settings changed. The settings are given by their name in AiConfig, like 'learningRate=2'
+ */
+@Getter
+@RequiredArgsConstructor
+public class Contender {
+    private final String name;
+    private final Map<String, String> settings;
+
+    /**
+     * Parse settings of the form 'name=value,name=value'
+     *
+     * @param settings the settings, empty for none
+     * @return the settings by name in the given order
+     */
+    public static Map<String, String> parseSettings(String settings) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        for (String setting : settings.split(",")) {
+            if (setting.isBlank()) {
+                continue;
+            }
+            int separator = setting.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("A setting has to be given as name=value, not " + setting);
+            }
+            parsed.put(setting.substring(0, separator).trim(), setting.substring(separator + 1).trim());
+        }
+        return parsed;
+    }
+
+    /**
+     * Create the settings of the ai for this contender
+     *
+     * @param baseSettings the settings of the match that every contender uses, the settings of the contender come after them
+     * @return the settings of the ai
+     */
+    public AiConfig createConfig(Map<String, String> baseSettings) {
+        AiConfig aiConfig = ReferenceSetup.createConfig();
+        BeanWrapper wrapper = new BeanWrapperImpl(aiConfig);
+        apply(wrapper, baseSettings);
+        apply(wrapper, settings);
+        return aiConfig;
+    }
+
+    private static void apply(BeanWrapper wrapper, Map<String, String> settings) {
+        settings.forEach((name, value) -> {
+            try {
+                wrapper.setPropertyValue(name, value);
+            } catch (BeansException e) {
+                throw new IllegalArgumentException("Invalid setting " + name + "=" + value + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Describe the changed settings for the report
+     *
+     * @return the settings as name=value, or 'defaults' when nothing is changed
+     */
+    public String describeSettings() {
+        if (settings.isEmpty()) {
+            return "defaults";
+        }
+        return settings.entrySet().stream().map(setting -> setting.getKey() + "=" + setting.getValue()).collect(Collectors.joining(","));
+    }
+}
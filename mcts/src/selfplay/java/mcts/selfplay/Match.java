@@ -0,0 +1,191 @@
+package mcts.selfplay;
+
+import lombok.RequiredArgsConstructor;
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.SimulationResult;
+import mcts.games.ReferenceGame;
+import mcts.games.ReferenceSearch;
+import mcts.games.ReferenceSetup;
+import mcts.services.AiService;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays games of a reference game between two contenders, several games at the same time. The contenders switch seats
+ * after every game, so both start the same number of games. A game that reaches the maximum number of moves is a draw
+ */
+@RequiredArgsConstructor
+public class Match {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final ReferenceGame referenceGame;
+    private final Map<String, String> baseSettings;
+    private final int games;
+    private final int parallelGames;
+    private final int maxMoves;
+
+    /**
+     * Play the match
+     *
+     * @param first     the first contender
+     * @param second    the second contender
+     * @return the result seen from the first contender
+     */
+    public MatchResult play(Contender first, Contender second) {
+        AiConfig firstConfig = first.createConfig(baseSettings);
+        AiConfig secondConfig = second.createConfig(baseSettings);
+        SearchCost firstCost = new SearchCost();
+        SearchCost secondCost = new SearchCost();
+        AtomicInteger wins = new AtomicInteger();
+        AtomicInteger draws = new AtomicInteger();
+        AtomicInteger losses = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelGames, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-selfplay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < games; i++) {
+                int gameNumber = i;
+                results.add(executor.submit(() -> {
+                    //every game has its own searches, so games played at the same time don't share search threads or trees
+                    try (Player firstPlayer = new Player(firstConfig, firstCost);
+                         Player secondPlayer = new Player(secondConfig, secondCost)) {
+                        int outcome = playGame(gameNumber, firstPlayer, secondPlayer);
+                        (outcome > 0 ? wins : outcome == 0 ? draws : losses).incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while playing a match", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game of the match failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new MatchResult(first, second, wins.get(), draws.get(), losses.get(), firstCost, secondCost);
+    }
+
+    /**
+     * Play one game, the first contender plays the first seat in even games and the second seat in odd games
+     *
+     * @param gameNumber    the number of the game in the match
+     * @param firstPlayer   the first contender
+     * @param secondPlayer  the second contender
+     * @return 1 when the first contender won, 0 for a draw and -1 when the second contender won
+     */
+    private int playGame(int gameNumber, Player firstPlayer, Player secondPlayer) {
+        AiService aiService = firstPlayer.aiService;
+        AiConfig aiConfig = firstPlayer.aiConfig;
+        int firstSeat = gameNumber % 2;
+        Game game = referenceGame.createGame();
+        game.setId("selfplay-" + gameNumber);
+        int moves = 0;
+        while (aiService.getStatus(game, false) == aiConfig.getOngoingGame() && moves < maxMoves) {
+            Player player = aiService.getCurrentPlayer(game) == firstSeat ? firstPlayer : secondPlayer;
+            game = player.move(game);
+            moves++;
+        }
+        int status = aiService.getStatus(game, false);
+        if (status == aiConfig.getOngoingGame() || status == aiConfig.getDraw()) {
+            return 0;
+        }
+        return status == firstSeat ? 1 : -1;
+    }
+
+    /**
+     * The search of one contender in one game and the cost of its moves
+     */
+    private class Player implements AutoCloseable {
+        private final AiConfig aiConfig;
+        private final AiService aiService;
+        private final ReferenceSearch search;
+        private final SearchCost cost;
+
+        private Player(AiConfig aiConfig, SearchCost cost) {
+            this.aiConfig = aiConfig;
+            this.aiService = referenceGame.createAiService(aiConfig);
+            this.search = ReferenceSetup.createSearch(aiConfig, aiService);
+            this.cost = cost;
+        }
+
+        /**
+         * Let the contender choose a move and measure its cost on the thread of the game and the search threads of the contender
+         *
+         * @param game the game state
+         * @return the game state after the move
+         */
+        private Game move(Game game) {
+            long cpuTime = getCpuTime();
+            long allocatedBytes = getAllocatedBytes();
+            SimulationResult result = search.getMonteCarloService().findNextMove(game);
+            cost.add(result.getStatistics(), getCpuTime() - cpuTime, getAllocatedBytes() - allocatedBytes);
+            return result.getGame();
+        }
+
+        /**
+         * Get the cpu time used so far by the thread of the game and the search threads of this contender.
+         * A search thread that is started during a move counts from 0
+         *
+         * @return the cpu time in nanoseconds
+         */
+        private long getCpuTime() {
+            long cpuTime = THREADS.getCurrentThreadCpuTime();
+            for (Thread thread : search.getSearchThreads()) {
+                //-1 when the thread has stopped
+                cpuTime += Math.max(THREADS.getThreadCpuTime(thread.getId()), 0);
+            }
+            return cpuTime;
+        }
+
+        /**
+         * Get the memory allocated so far by the thread of the game and the search threads of this contender
+         *
+         * @return the allocated bytes, 0 when they can't be measured
+         */
+        private long getAllocatedBytes() {
+            long allocatedBytes = Match.getAllocatedBytes(Thread.currentThread().getId());
+            for (Thread thread : search.getSearchThreads()) {
+                allocatedBytes += Math.max(Match.getAllocatedBytes(thread.getId()), 0);
+            }
+            return allocatedBytes;
+        }
+
+        /**
+         * Close the search of the contender
+         */
+        @Override
+        public void close() {
+            search.close();
+        }
+    }
+
+    /**
+     * Get the memory a thread allocated so far, when the JVM can measure it
+     *
+     * @param threadId the id of the thread
+     * @return the allocated bytes, 0 when they can't be measured
+     */
+    private static long getAllocatedBytes(long threadId) {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(threadId);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,62 @@
+package mcts.selfplay;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The result of a match between two contenders, seen from the first contender. A draw counts as half a win
+ */
+@Getter
+@RequiredArgsConstructor
+public class MatchResult {
+    //the z value of a 95% confidence interval
+    private static final double Z = 1.96;
+
+    private final Contender first;
+    private final Contender second;
+    private final int wins;
+    private final int draws;
+    private final int losses;
+    private final SearchCost firstCost;
+    private final SearchCost secondCost;
+
+    public int getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Get the score of the first contender
+     *
+     * @return the wins and half the draws divided by the number of games
+     */
+    public double getScore() {
+        return getGames() > 0 ? (wins + draws / 2.0) / getGames() : 0.5;
+    }
+
+    /**
+     * Get the 95% confidence interval of the score of the first contender, as the Wilson score interval
+     *
+     * @return the lower and the upper bound of the score
+     */
+    public double[] getScoreInterval() {
+        int games = getGames();
+        if (games == 0) {
+            return new double[]{0, 1};
+        }
+        double score = getScore();
+        double denominator = 1 + Z * Z / games;
+        double center = (score + Z * Z / (2.0 * games)) / denominator;
+        double margin = Z * Math.sqrt(score * (1 - score) / games + Z * Z / (4.0 * games * games)) / denominator;
+        return new double[]{Math.max(center - margin, 0), Math.min(center + margin, 1)};
+    }
+
+    /**
+     * Get the difference in playing strength of the first contender on the Elo scale
+     *
+     * @return the Elo difference, infinite when one contender won every game
+     */
+    public double getEloDifference() {
+        double score = getScore();
+        return 400 * Math.log10(score / (1 - score));
+    }
+}
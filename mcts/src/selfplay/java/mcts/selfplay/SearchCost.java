@@ -0,0 +1,58 @@
+package mcts.selfplay;
+
+import lombok.Getter;
+import mcts.domain.ai.SearchStatistics;
+
+/**
+ * The cost of the moves of one contender in a match, added up over the games that are played at the same time.
+ * The cpu time and the allocated memory are measured on the thread that plays the game and the search threads of the contender
+ */
+@Getter
+public class SearchCost {
+    private int moves;
+    private int searches;
+    private long simulations;
+    private long searchTime;
+    private long nodes;
+    private long cpuTime;
+    private long allocatedBytes;
+
+    /**
+     * Add one move
+     *
+     * @param statistics        the statistics of the search, null when the search was skipped
+     * @param cpuTime           the cpu time of the move in nanoseconds
+     * @param allocatedBytes    the memory allocated during the move
+     */
+    public synchronized void add(SearchStatistics statistics, long cpuTime, long allocatedBytes) {
+        moves++;
+        this.cpuTime += cpuTime;
+        this.allocatedBytes += allocatedBytes;
+        if (statistics != null) {
+            searches++;
+            simulations += statistics.getSimulations();
+            searchTime += statistics.getSearchTime();
+            nodes += statistics.getNodeCount();
+        }
+    }
+
+    public synchronized double getSimulationsPerSecond() {
+        return searchTime > 0 ? simulations * 1000.0 / searchTime : 0;
+    }
+
+    public synchronized double getSearchTimePerMove() {
+        return searches > 0 ? (double) searchTime / searches : 0;
+    }
+
+    public synchronized double getCpuTimePerMove() {
+        return moves > 0 ? cpuTime / 1e6 / moves : 0;
+    }
+
+    public synchronized double getAllocatedMegabytesPerMove() {
+        return moves > 0 ? allocatedBytes / 1048576.0 / moves : 0;
+    }
+
+    public synchronized double getNodesPerSearch() {
+        return searches > 0 ? (double) nodes / searches : 0;
+    }
+}
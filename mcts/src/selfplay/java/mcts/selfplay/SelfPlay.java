@@ -0,0 +1,164 @@
+package mcts.selfplay;
+
+import mcts.games.ReferenceGame;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plays configurations of the ai against each other on a reference game without a Spring context and reports the score
+ * of every configuration with its 95% confidence interval next to the cost of its searches.
+ * <p>
+ * Arguments:
+ * <ul>
+ *     <li>--game NAME: the reference game, CONNECT_FOUR by default</li>
+ *     <li>--games N: the number of games of every match, 100 by default</li>
+ *     <li>--parallel N: the number of games that are played at the same time, 1 by default</li>
+ *     <li>--max-moves N: the number of moves after which a game is a draw, 500 by default</li>
+ *     <li>--simulations N or --time MS: the budget of every move, 1000 simulations by default</li>
+ *     <li>--set name=value,...: settings for both contenders</li>
+ *     <li>--a name=value,... and --b name=value,...: the settings of the first and the second contender</li>
+ *     <li>--sweep name=value,value,...: play the first contender with every value against the second contender,
+ *     several sweeps are combined into every combination of their values</li>
+ * </ul>
+ * Example: --game CONNECT_FOUR --games 200 --parallel 4 --sweep learningRate=0.7,1.41,2 --sweep useRave=false,true
+ */
+public final class SelfPlay {
+
+    private SelfPlay() {
+    }
+
+    public static void main(String[] args) {
+        ReferenceGame referenceGame = ReferenceGame.CONNECT_FOUR;
+        int games = 100;
+        int parallelGames = 1;
+        int maxMoves = 500;
+        Map<String, String> baseSettings = new LinkedHashMap<>();
+        baseSettings.put("useNumberOfSimulations", "true");
+        baseSettings.put("numberOfSimulations", "1000");
+        Map<String, String> firstSettings = new LinkedHashMap<>();
+        Map<String, String> secondSettings = new LinkedHashMap<>();
+        Map<String, List<String>> sweeps = new LinkedHashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) {
+                throw new IllegalArgumentException("No value for " + args[i]);
+            }
+            switch (args[i++]) {
+                case "--game":
+                    referenceGame = ReferenceGame.valueOf(value);
+                    break;
+                case "--games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "--parallel":
+                    parallelGames = Integer.parseInt(value);
+                    break;
+                case "--max-moves":
+                    maxMoves = Integer.parseInt(value);
+                    break;
+                case "--simulations":
+                    baseSettings.put("useNumberOfSimulations", "true");
+                    baseSettings.put("numberOfSimulations", value);
+                    break;
+                case "--time":
+                    baseSettings.put("useNumberOfSimulations", "false");
+                    baseSettings.put("simulationTime", value);
+                    break;
+                case "--set":
+                    baseSettings.putAll(Contender.parseSettings(value));
+                    break;
+                case "--a":
+                    firstSettings.putAll(Contender.parseSettings(value));
+                    break;
+                case "--b":
+                    secondSettings.putAll(Contender.parseSettings(value));
+                    break;
+                case "--sweep":
+                    int separator = value.indexOf('=');
+                    if (separator <= 0) {
+                        throw new IllegalArgumentException("A sweep has to be given as name=value,value,..., not " + value);
+                    }
+                    sweeps.put(value.substring(0, separator), List.of(value.substring(separator + 1).split(",")));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i - 1]);
+            }
+        }
+
+        Match match = new Match(referenceGame, baseSettings, games, parallelGames, maxMoves);
+        Contender second = new Contender("B", secondSettings);
+        System.out.printf("%s, %d games per match, %s%n", referenceGame, games, describeBudget(baseSettings));
+
+        List<MatchResult> results = new ArrayList<>();
+        if (sweeps.isEmpty()) {
+            results.add(match.play(new Contender("A", firstSettings), second));
+        }
+        else {
+            List<Map<String, String>> grid = createGrid(sweeps);
+            for (int i = 0; i < grid.size(); i++) {
+                Map<String, String> settings = new LinkedHashMap<>(firstSettings);
+                settings.putAll(grid.get(i));
+                MatchResult result = match.play(new Contender("A" + (i + 1), settings), second);
+                System.out.println(describe(result.getFirst(), result.getFirstCost()) + describeScore(result));
+                results.add(result);
+            }
+            results.sort(Comparator.comparingDouble(MatchResult::getScore).reversed());
+            System.out.println();
+        }
+
+        System.out.printf("%-8s %-40s %10s %9s %11s %13s %13s %6s %-11s %7s   %s%n", "name", "settings", "sims/s", "ms/move", "cpu ms/move",
+                "alloc MB/move", "nodes/search", "score", "w/d/l", "elo", "95% interval");
+        for (MatchResult result : results) {
+            System.out.println(describe(result.getFirst(), result.getFirstCost()) + describeScore(result));
+        }
+        System.out.println(describe(second, results.get(0).getSecondCost()));
+    }
+
+    /**
+     * Combine the values of all the sweeps into every combination of them
+     *
+     * @param sweeps the values of every setting
+     * @return the settings of every combination
+     */
+    private static List<Map<String, String>> createGrid(Map<String, List<String>> sweeps) {
+        List<Map<String, String>> grid = new ArrayList<>();
+        grid.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<String>> sweep : sweeps.entrySet()) {
+            List<Map<String, String>> nextGrid = new ArrayList<>();
+            for (Map<String, String> settings : grid) {
+                for (String value : sweep.getValue()) {
+                    Map<String, String> nextSettings = new LinkedHashMap<>(settings);
+                    nextSettings.put(sweep.getKey(), value.trim());
+                    nextGrid.add(nextSettings);
+                }
+            }
+            grid = nextGrid;
+        }
+        return grid;
+    }
+
+    private static String describeBudget(Map<String, String> baseSettings) {
+        if (Boolean.parseBoolean(baseSettings.get("useNumberOfSimulations"))) {
+            return baseSettings.get("numberOfSimulations") + " simulations per move";
+        }
+        return baseSettings.get("simulationTime") + " ms per move";
+    }
+
+    private static String describe(Contender contender, SearchCost cost) {
+        return String.format("%-8s %-40s %10.0f %9.1f %11.1f %13.2f %13.0f", contender.getName(), contender.describeSettings(),
+                cost.getSimulationsPerSecond(), cost.getSearchTimePerMove(), cost.getCpuTimePerMove(), cost.getAllocatedMegabytesPerMove(),
+                cost.getNodesPerSearch());
+    }
+
+    private static String describeScore(MatchResult result) {
+        double[] interval = result.getScoreInterval();
+        String outcomes = result.getWins() + "/" + result.getDraws() + "/" + result.getLosses();
+        return String.format(" %6.3f %-11s %+7.0f   [%.3f, %.3f]", result.getScore(), outcomes, result.getEloDifference(),
+                interval[0], interval[1]);
+    }
+}
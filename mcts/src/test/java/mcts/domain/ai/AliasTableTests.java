@@ -0,0 +1,55 @@
+package mcts.domain.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AliasTableTests {
+
+	@Test
+	void onlyPossibleIndexIsAlwaysSampled() {
+		AliasTable aliasTable = new AliasTable(new double[]{0.0, 1.0, 0.0});
+
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(1, aliasTable.sample());
+		}
+	}
+
+	@Test
+	void samplesFollowProbabilities() {
+		AliasTable aliasTable = new AliasTable(new double[]{0.1, 0.2, 0.3, 0.4});
+		int samples = 200_000;
+		int[] counts = new int[aliasTable.size()];
+
+		for (int i = 0; i < samples; i++) {
+			counts[aliasTable.sample()]++;
+		}
+
+		assertEquals(0.1, counts[0] / (double) samples, 0.01);
+		assertEquals(0.2, counts[1] / (double) samples, 0.01);
+		assertEquals(0.3, counts[2] / (double) samples, 0.01);
+		assertEquals(0.4, counts[3] / (double) samples, 0.01);
+	}
+
+	@Test
+	void probabilitiesAreScaled() {
+		AliasTable aliasTable = new AliasTable(new double[]{1.0, 3.0});
+		int samples = 100_000;
+		int firstCount = 0;
+
+		for (int i = 0; i < samples; i++) {
+			if (aliasTable.sample() == 0) {
+				firstCount++;
+			}
+		}
+
+		assertEquals(0.25, firstCount / (double) samples, 0.01);
+	}
+
+	@Test
+	void emptyProbabilitiesAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[0]));
+	}
+
+}
@@ -0,0 +1,66 @@
+package mcts.domain.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArrayTreeTests {
+
+	@Test
+	void unvisitedChildIsNotChosen() {
+		ArrayTree tree = new ArrayTree(4);
+		int root = tree.createRoot(null, 1);
+		int first = tree.allocateChildren(root, 2);
+		tree.addVisits(first + 1, 10);
+		tree.addScore(first + 1, 2.0);
+
+		assertEquals(first + 1, tree.getChildWithMaxScore(root));
+	}
+
+	@Test
+	void childWithHighestAverageIsChosen() {
+		ArrayTree tree = new ArrayTree(4);
+		int root = tree.createRoot(null, 1);
+		int first = tree.allocateChildren(root, 3);
+		tree.addVisits(first, 10);
+		tree.addScore(first, 20.0);
+		tree.addVisits(first + 1, 4);
+		tree.addScore(first + 1, 30.0);
+
+		assertEquals(first + 1, tree.getChildWithMaxScore(root));
+	}
+
+	@Test
+	void firstChildIsChosenWhenNoneWereVisited() {
+		ArrayTree tree = new ArrayTree(4);
+		int root = tree.createRoot(null, 1);
+		int first = tree.allocateChildren(root, 2);
+
+		assertEquals(first, tree.getChildWithMaxScore(root));
+	}
+
+	@Test
+	void unvisitedChildOfGroupNodeIsNotChosen() {
+		ArrayTree tree = new ArrayTree(2);
+		int root = tree.createRoot(null, 1);
+		int group = tree.allocateChildren(root, 1);
+		tree.setGroupNode(group);
+		tree.addVisits(group, 10);
+		tree.addScore(group, 50.0);
+		int first = tree.allocateChildren(group, 2);
+		tree.addVisits(first + 1, 10);
+		tree.addScore(first + 1, 50.0);
+
+		assertEquals(first + 1, tree.getChildWithMaxScore(root));
+	}
+
+	@Test
+	void nodeWithoutChildrenIsRejected() {
+		ArrayTree tree = new ArrayTree(1);
+		int root = tree.createRoot(null, 1);
+
+		assertThrows(IllegalArgumentException.class, () -> tree.getChildWithMaxScore(root));
+	}
+
+}
@@ -0,0 +1,179 @@
+package mcts.domain.ai;
+
+import mcts.domain.Game;
+import mcts.domain.ai.actions.Action;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NodeTests {
+
+	@Test
+	void unvisitedChildIsNotChosen() {
+		Node root = new Node();
+		Node unvisited = addChild(root, 0, 0);
+		Node visited = addChild(root, 10, 2.0);
+
+		assertSame(visited, root.getChildWithMaxScore());
+		assertSame(unvisited, root.getChildArray().get(0));
+	}
+
+	@Test
+	void childWithHighestAverageIsChosen() {
+		Node root = new Node();
+		addChild(root, 10, 20.0);
+		Node best = addChild(root, 4, 30.0);
+		addChild(root, 0, 0);
+
+		assertSame(best, root.getChildWithMaxScore());
+	}
+
+	@Test
+	void firstChildIsChosenWhenNoneWereVisited() {
+		Node root = new Node();
+		Node first = addChild(root, 0, 0);
+		addChild(root, 0, 0);
+
+		assertSame(first, root.getChildWithMaxScore());
+	}
+
+	@Test
+	void unvisitedChildOfGroupNodeIsNotChosen() {
+		Node root = new Node();
+		Node group = addChild(root, 10, 50.0);
+		group.setGroupNode(true);
+		addChild(group, 0, 0);
+		Node visited = addChild(group, 10, 50.0);
+
+		assertSame(visited, root.getChildWithMaxScore());
+	}
+
+	@Test
+	void childStatisticsOfAnotherTreeAreAdded() {
+		Node root = new Node();
+		Node first = addChild(root, 3, 2.0);
+		Node second = addChild(root, 0, 0);
+		Node searchedRoot = new Node();
+		addChild(searchedRoot, 4, 1.0);
+		addChild(searchedRoot, 5, 5.0);
+
+		assertTrue(root.mergeChildStatistics(searchedRoot));
+		assertEquals(7, first.getState().getVisitCount());
+		assertEquals(3.0, first.getState().getWinScore(), 1e-9);
+		assertEquals(5.0, first.getState().getSquaredScore(), 1e-9);
+		assertEquals(5, second.getState().getVisitCount());
+		assertEquals(5.0, second.getState().getWinScore(), 1e-9);
+		assertEquals(4, searchedRoot.getChildArray().get(0).getState().getVisitCount());
+	}
+
+	@Test
+	void childrenOfGroupNodesAreMerged() {
+		Node root = new Node();
+		Node group = addChild(root, 2, 1.0);
+		group.setGroupNode(true);
+		Node grouped = addChild(group, 2, 1.0);
+		Node searchedRoot = new Node();
+		Node searchedGroup = addChild(searchedRoot, 6, 3.0);
+		searchedGroup.setGroupNode(true);
+		addChild(searchedGroup, 6, 3.0);
+
+		assertTrue(root.mergeChildStatistics(searchedRoot));
+		assertEquals(8, group.getState().getVisitCount());
+		assertEquals(8, grouped.getState().getVisitCount());
+		assertEquals(4.0, grouped.getState().getWinScore(), 1e-9);
+	}
+
+	@Test
+	void differentChildrenAreNotMerged() {
+		Node root = new Node();
+		Node first = addChild(root, 1, 1.0);
+		addChild(root, 1, 1.0);
+		Node searchedRoot = new Node();
+		addChild(searchedRoot, 4, 4.0);
+
+		assertFalse(root.mergeChildStatistics(searchedRoot));
+		assertEquals(1, first.getState().getVisitCount());
+
+		addChild(searchedRoot, 4, 4.0).setChanceNode(true);
+		assertFalse(root.mergeChildStatistics(searchedRoot));
+		assertEquals(1, first.getState().getVisitCount());
+	}
+
+	@Test
+	void moveStatisticsOfVisitedKeyedChildrenAreReturned() {
+		Node root = new Node();
+		addChild(root, 4, 2.0).getState().setAction(keyedAction(1));
+		addChild(root, 0, 0).getState().setAction(keyedAction(2));
+		addChild(root, 3, 1.0).getState().setAction(keyedAction(Action.NO_KEY));
+		Node chance = addChild(root, 5, 5.0);
+		chance.getState().setAction(keyedAction(3));
+		chance.setChanceNode(true);
+
+		List<MoveStatistics> moves = root.getMoveStatistics();
+		assertEquals(1, moves.size());
+		assertEquals(1, moves.get(0).getActionKey());
+		assertEquals(4, moves.get(0).getVisits());
+		assertEquals(2.0, moves.get(0).getWinScore(), 1e-9);
+		assertEquals(4.0, moves.get(0).getSquaredScore(), 1e-9);
+	}
+
+	@Test
+	void moveStatisticsOfAnotherSearchAreAddedByKey() {
+		Node root = new Node();
+		Node first = addChild(root, 2, 1.0);
+		first.getState().setAction(keyedAction(1));
+		Node second = addChild(root, 0, 0);
+		second.getState().setAction(keyedAction(2));
+
+		assertTrue(root.mergeMoveStatistics(List.of(new MoveStatistics(2, 6, 3.0, 9.0), new MoveStatistics(9, 4, 4.0, 16.0))));
+		assertEquals(2, first.getState().getVisitCount());
+		assertEquals(6, second.getState().getVisitCount());
+		assertEquals(3.0, second.getState().getWinScore(), 1e-9);
+		assertEquals(9.0, second.getState().getSquaredScore(), 1e-9);
+		//the visits of a move without a matching child aren't added to the root either
+		assertEquals(6, root.getState().getVisitCount());
+	}
+
+	@Test
+	void moveStatisticsAreNotMergedIntoALeaf() {
+		Node root = new Node();
+
+		assertFalse(root.mergeMoveStatistics(List.of(new MoveStatistics(1, 6, 3.0, 9.0))));
+		assertEquals(0, root.getState().getVisitCount());
+	}
+
+	@Test
+	void nodeWithoutChildrenIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new Node().getChildWithMaxScore());
+	}
+
+	private static Node addChild(Node parent, int visits, double winScore) {
+		Node child = new Node();
+		child.setParent(parent);
+		child.getState().addVisits(visits);
+		child.getState().addScore(winScore);
+		parent.getChildArray().add(child);
+		return child;
+	}
+
+	private static Action keyedAction(long actionKey) {
+		return new Action() {
+			@Override
+			public Game performAction(Game game) {
+				return game;
+			}
+
+			@Override
+			public long getActionKey() {
+				return actionKey;
+			}
+		};
+	}
+
+}
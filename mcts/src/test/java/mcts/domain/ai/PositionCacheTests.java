@@ -0,0 +1,146 @@
+package mcts.domain.ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PositionCacheTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void storedMovesAreReadBack() throws IOException {
+		try (PositionCache cache = PositionCache.open(directory.resolve("cache.bin"), 64, 4)) {
+			cache.put(7, List.of(new MoveStatistics(3, 10, 4.5, 20.25), new MoveStatistics(-1, 2, 0, 0)));
+
+			List<MoveStatistics> moves = cache.get(7);
+			assertEquals(2, moves.size());
+			assertMove(moves.get(0), 3, 10, 4.5, 20.25);
+			assertMove(moves.get(1), -1, 2, 0, 0);
+			assertNull(cache.get(8));
+		}
+	}
+
+	@Test
+	void onlyTheMostVisitedMovesAreKept() throws IOException {
+		try (PositionCache cache = PositionCache.open(directory.resolve("cache.bin"), 64, 2)) {
+			cache.put(7, List.of(new MoveStatistics(1, 5, 0, 0), new MoveStatistics(2, 30, 0, 0), new MoveStatistics(3, 20, 0, 0)));
+
+			List<MoveStatistics> moves = cache.get(7);
+			assertEquals(2, moves.size());
+			assertEquals(2, moves.get(0).getActionKey());
+			assertEquals(3, moves.get(1).getActionKey());
+		}
+	}
+
+	@Test
+	void leastRecentlyUsedPositionIsReplaced() throws IOException {
+		//four positions make one bucket, so every position competes for the same slots
+		try (PositionCache cache = PositionCache.open(directory.resolve("cache.bin"), 4, 1)) {
+			for (long key = 1; key <= 4; key++) {
+				cache.put(key, List.of(new MoveStatistics(key, 1, 0, 0)));
+			}
+			cache.get(1);
+			cache.put(5, List.of(new MoveStatistics(5, 1, 0, 0)));
+
+			assertNull(cache.get(2));
+			for (long key : new long[]{1, 3, 4, 5}) {
+				assertEquals(key, cache.get(key).get(0).getActionKey());
+			}
+		}
+	}
+
+	@Test
+	void storedPositionIsUpdatedInItsOwnSlot() throws IOException {
+		try (PositionCache cache = PositionCache.open(directory.resolve("cache.bin"), 4, 1)) {
+			for (long key = 1; key <= 4; key++) {
+				cache.put(key, List.of(new MoveStatistics(key, 1, 0, 0)));
+			}
+			cache.put(2, List.of(new MoveStatistics(2, 9, 0, 0)));
+
+			for (long key = 1; key <= 4; key++) {
+				assertNotNull(cache.get(key));
+			}
+			assertEquals(9, cache.get(2).get(0).getVisits());
+		}
+	}
+
+	@Test
+	void reopenedFileKeepsItsPositionsAndTheirAge() throws IOException {
+		Path file = directory.resolve("cache.bin");
+		try (PositionCache cache = PositionCache.open(file, 4, 1)) {
+			for (long key = 1; key <= 4; key++) {
+				cache.put(key, List.of(new MoveStatistics(key, (int) key, key, key * key)));
+			}
+		}
+		try (PositionCache cache = PositionCache.open(file, 4, 1)) {
+			assertMove(cache.get(3).get(0), 3, 3, 3, 9);
+			//the clock is stored in the file, so the positions used before the restart are older
+			cache.put(5, List.of(new MoveStatistics(5, 1, 0, 0)));
+			assertNull(cache.get(1));
+			assertNotNull(cache.get(3));
+		}
+	}
+
+	@Test
+	void fileWithAnotherLayoutIsCleared() throws IOException {
+		Path file = directory.resolve("cache.bin");
+		try (PositionCache cache = PositionCache.open(file, 64, 4)) {
+			cache.put(7, List.of(new MoveStatistics(1, 1, 0, 0)));
+		}
+		try (PositionCache cache = PositionCache.open(file, 64, 2)) {
+			assertNull(cache.get(7));
+		}
+		assertEquals(24 + 64 * (20 + 2 * 28), Files.size(file));
+	}
+
+	@Test
+	void headerDescribesTheLayout() throws IOException {
+		Path file = directory.resolve("cache.bin");
+		//the number of positions is rounded up to a power of two
+		try (PositionCache cache = PositionCache.open(file, 100, 3)) {
+			cache.put(7, List.of(new MoveStatistics(1, 1, 0, 0)));
+		}
+		assertEquals(24 + 128 * (20 + 3 * 28), Files.size(file));
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+			assertEquals(0x4D435453, in.readInt());
+			assertEquals(1, in.readInt());
+			assertEquals(128, in.readInt());
+			assertEquals(3, in.readInt());
+			assertEquals(1, in.readLong());
+		}
+	}
+
+	@Test
+	void positionWithoutMovesIsNotStored() throws IOException {
+		try (PositionCache cache = PositionCache.open(directory.resolve("cache.bin"), 64, 4)) {
+			cache.put(7, List.of());
+
+			assertNull(cache.get(7));
+		}
+	}
+
+	@Test
+	void cacheWithoutMovesIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> PositionCache.open(directory.resolve("cache.bin"), 64, 0));
+	}
+
+	private static void assertMove(MoveStatistics move, long actionKey, long visits, double winScore, double squaredScore) {
+		assertEquals(actionKey, move.getActionKey());
+		assertEquals(visits, move.getVisits());
+		assertEquals(winScore, move.getWinScore(), 1e-9);
+		assertEquals(squaredScore, move.getSquaredScore(), 1e-9);
+	}
+
+}
@@ -0,0 +1,96 @@
+package mcts.domain.ai;
+
+import mcts.domain.Game;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RootDecisionTests {
+
+	@Test
+	void leaderIsTheChildTheSearchChooses() {
+		Node root = new Node();
+		addChild(root, 1000, 5000.0, 50000.0);
+		Node best = addChild(root, 60, 306.0, 3060.0);
+		addChild(root, 0, 0, 0);
+
+		RootDecision decision = RootDecision.of(root);
+		assertEquals(3, decision.getChildren());
+		assertEquals(best.getState().getVisitCount(), decision.getLeaderVisits());
+		assertEquals(best, root.getChildWithMaxScore());
+		assertEquals(5.1, decision.getLeaderMean(), 1e-9);
+		assertEquals(1000, decision.getRunnerUpVisits());
+		assertEquals(5.0, decision.getRunnerUpMean(), 1e-9);
+	}
+
+	@Test
+	void leadInVisitsDoesNotSeparateCloseAverages() {
+		Node root = new Node();
+		addChild(root, 1000, 5000.0, 50000.0);
+		addChild(root, 60, 306.0, 3060.0);
+
+		assertFalse(RootDecision.of(root).isSeparated(2.58));
+	}
+
+	@Test
+	void distantAveragesAreSeparated() {
+		Node root = new Node();
+		//90 and 10 wins out of 100 with a win score of 10
+		addChild(root, 100, 900.0, 9000.0);
+		addChild(root, 100, 100.0, 1000.0);
+
+		RootDecision decision = RootDecision.of(root);
+		assertEquals(0.3, decision.getLeaderError(), 1e-9);
+		assertTrue(decision.isSeparated(2.58));
+		assertFalse(decision.isSeparated(20));
+	}
+
+	@Test
+	void childWithoutEnoughVisitsIsNeverSeparated() {
+		Node root = new Node();
+		addChild(root, 100, 900.0, 9000.0);
+		addChild(root, 1, 0, 0);
+
+		assertFalse(RootDecision.of(root).isSeparated(2.58));
+	}
+
+	@Test
+	void singleChildIsSeparated() {
+		Node root = new Node();
+		addChild(root, 0, 0, 0);
+
+		assertTrue(RootDecision.of(root).isSeparated(2.58));
+	}
+
+	@Test
+	void arrayTreeGivesTheSameDecision() {
+		Node root = new Node();
+		addChild(root, 1000, 5000.0, 50000.0);
+		addChild(root, 60, 306.0, 3060.0);
+		ArrayTree tree = new ArrayTree(4);
+		int rootNode = tree.createRoot(new Game(), 0);
+		int firstChild = tree.allocateChildren(rootNode, 2);
+		tree.addVisits(firstChild, 1000);
+		tree.addScores(firstChild, 5000.0, 50000.0);
+		tree.addVisits(firstChild + 1, 60);
+		tree.addScores(firstChild + 1, 306.0, 3060.0);
+
+		RootDecision nodeDecision = RootDecision.of(root);
+		RootDecision arrayDecision = RootDecision.of(tree, rootNode);
+		assertEquals(firstChild + 1, tree.getChildWithMaxScore(rootNode));
+		assertEquals(nodeDecision.getLeaderVisits(), arrayDecision.getLeaderVisits());
+		assertEquals(nodeDecision.getLeaderError(), arrayDecision.getLeaderError(), 1e-9);
+		assertEquals(nodeDecision.getRunnerUpMean(), arrayDecision.getRunnerUpMean(), 1e-9);
+	}
+
+	private static Node addChild(Node parent, int visits, double winScore, double squaredScore) {
+		Node child = new Node();
+		child.setParent(parent);
+		child.getState().addVisits(visits);
+		child.getState().addScores(winScore, squaredScore);
+		parent.getChildArray().add(child);
+		return child;
+	}
+}
@@ -0,0 +1,104 @@
+package mcts.domain.ai;
+
+import mcts.domain.ai.selection.Ucb1Policy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UCTTests {
+
+	@Test
+	void amafAverageGuidesAChildWithFewVisits() {
+		Node root = new Node();
+		Node amafChild = addChild(root, 2, 0, 100, 1000);
+		Node child = addChild(root, 2, 10, 0, 0);
+		//without exploration only the averages count
+		UCT uct = new UCT(new Ucb1Policy(0));
+
+		assertSame(child, uct.findBestNodeWithUCT(root));
+		assertSame(amafChild, uct.findBestNodeWithRave(root, 100));
+	}
+
+	@Test
+	void ownAverageTakesOverWhenAChildHasManyVisits() {
+		Node root = new Node();
+		addChild(root, 10000, 0, 10000, 100000);
+		Node child = addChild(root, 10000, 50000, 0, 0);
+		UCT uct = new UCT(new Ucb1Policy(0));
+
+		assertSame(child, uct.findBestNodeWithRave(root, 100));
+	}
+
+	@Test
+	void averagesAreBlendedWithTheRaveWeight() {
+		Node root = new Node();
+		addChild(root, 4, 8, 20, 100);
+		addChild(root, 6, 30, 0, 0);
+		addChild(root, 0, 0, 5, 50);
+		List<double[]> values = new ArrayList<>();
+		UCT uct = new UCT((parentVisit, logParentVisit, visitCount, winScore, squaredScore, prior) -> {
+			values.add(new double[]{parentVisit, visitCount, winScore});
+			return 0;
+		});
+
+		uct.findBestNodeWithRave(root, 12);
+		//beta = sqrt(12 / (3 * 4 + 12)), the blended mean is given to the policy as the score of the visits
+		double beta = Math.sqrt(0.5);
+		assertValue(values.get(0), 10, 4, ((1 - beta) * 2 + beta * 5) * 4);
+		//a child without all-moves-as-first visits keeps its own score
+		assertValue(values.get(1), 10, 6, 30);
+		//an unvisited child has no average to blend
+		assertValue(values.get(2), 10, 0, 0);
+	}
+
+	@Test
+	void virtualLossCountsAsVisitsWithoutScore() {
+		Node root = new Node();
+		root.getState().addVirtualLoss(3);
+		Node child = addChild(root, 1, 6, 2, 10);
+		child.getState().addVirtualLoss(3);
+		List<double[]> values = new ArrayList<>();
+		UCT uct = new UCT((parentVisit, logParentVisit, visitCount, winScore, squaredScore, prior) -> {
+			values.add(new double[]{parentVisit, visitCount, winScore});
+			return 0;
+		});
+
+		uct.findBestNodeWithRave(root, 12);
+		double beta = Math.sqrt(12.0 / (3 * 4 + 12));
+		assertValue(values.get(0), 4, 4, ((1 - beta) * 6.0 / 4 + beta * 5) * 4);
+	}
+
+	@Test
+	void raveWithoutEquivalenceIsUct() {
+		Node root = new Node();
+		addChild(root, 2, 0, 100, 1000);
+		Node child = addChild(root, 2, 10, 0, 0);
+		UCT uct = new UCT(new Ucb1Policy(0));
+
+		assertSame(child, uct.findBestNodeWithRave(root, 0));
+	}
+
+	private static Node addChild(Node parent, int visits, double winScore, int amafVisits, double amafScore) {
+		Node child = new Node();
+		child.setParent(parent);
+		child.getState().addVisits(visits);
+		child.getState().addScore(winScore);
+		for (int i = 0; i < amafVisits; i++) {
+			child.getState().addAmafScore(amafScore / amafVisits);
+		}
+		parent.getState().addVisits(visits);
+		parent.getChildArray().add(child);
+		return child;
+	}
+
+	private static void assertValue(double[] value, int parentVisit, int visitCount, double winScore) {
+		assertEquals(parentVisit, (int) value[0]);
+		assertEquals(visitCount, (int) value[1]);
+		assertEquals(winScore, value[2], 1e-9);
+	}
+
+}
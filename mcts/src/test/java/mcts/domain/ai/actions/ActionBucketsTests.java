@@ -0,0 +1,170 @@
+package mcts.domain.ai.actions;
+
+import mcts.domain.Game;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActionBucketsTests {
+
+	@Test
+	void actionsAreListedByTypeInTheOrderTheTypesAppeared() {
+		TypedAction first = new TypedAction(1);
+		TypedAction second = new TypedAction(2);
+		TypedAction third = new TypedAction(1);
+		ActionBuckets buckets = new ActionBuckets();
+		buckets.add(first);
+		buckets.add(second);
+		buckets.add(third);
+
+		assertEquals(3, buckets.size());
+		assertEquals(List.of(first, third, second), list(buckets));
+	}
+
+	@Test
+	void lastActionOfABucketTakesThePlaceOfARemovedAction() {
+		TypedAction first = new TypedAction(1);
+		TypedAction second = new TypedAction(1);
+		TypedAction third = new TypedAction(1);
+		ActionBuckets buckets = new ActionBuckets();
+		buckets.add(first);
+		buckets.add(second);
+		buckets.add(third);
+
+		assertTrue(buckets.remove(first));
+		assertEquals(List.of(third, second), list(buckets));
+		assertFalse(buckets.remove(first));
+		assertFalse(buckets.remove(new TypedAction(1)));
+		assertFalse(buckets.remove(new TypedAction(7)));
+		assertEquals(2, buckets.size());
+	}
+
+	@Test
+	void emptyBucketIsNeverChosen() {
+		TypedAction kept = new TypedAction(1);
+		TypedAction removed = new TypedAction(2);
+		ActionBuckets buckets = new ActionBuckets();
+		buckets.add(removed);
+		buckets.add(kept);
+		buckets.remove(removed);
+		SplittableRandom random = new SplittableRandom(1);
+
+		for (int i = 0; i < 1000; i++) {
+			assertSame(kept, buckets.chooseRandom(random, true));
+			assertSame(kept, buckets.chooseRandom(random, false));
+		}
+	}
+
+	@Test
+	void typesOrActionsHaveTheSameChance() {
+		TypedAction single = new TypedAction(1);
+		ActionBuckets buckets = new ActionBuckets();
+		buckets.add(single);
+		for (int i = 0; i < 9; i++) {
+			buckets.add(new TypedAction(2));
+		}
+		SplittableRandom random = new SplittableRandom(1);
+		int samples = 100_000;
+		int byType = 0;
+		int byAction = 0;
+
+		for (int i = 0; i < samples; i++) {
+			byType += buckets.chooseRandom(random, true) == single ? 1 : 0;
+			byAction += buckets.chooseRandom(random, false) == single ? 1 : 0;
+		}
+
+		assertEquals(0.5, byType / (double) samples, 0.01);
+		assertEquals(0.1, byAction / (double) samples, 0.01);
+	}
+
+	@Test
+	void noActionIsChosenFromEmptyBuckets() {
+		ActionBuckets buckets = new ActionBuckets();
+		buckets.add(new TypedAction(1));
+		buckets.clear();
+
+		assertTrue(buckets.isEmpty());
+		assertNull(buckets.chooseRandom(new SplittableRandom(1), true));
+		assertNull(buckets.chooseRandom(new SplittableRandom(1), false));
+	}
+
+	@Test
+	void bucketsGrowWithTypesAndActions() {
+		ActionBuckets buckets = new ActionBuckets();
+		List<Action> added = new ArrayList<>();
+		for (int type = 0; type < 10; type++) {
+			for (int i = 0; i < 10; i++) {
+				TypedAction action = new TypedAction(type);
+				buckets.add(action);
+				added.add(action);
+			}
+		}
+
+		assertEquals(100, buckets.size());
+		assertEquals(added, list(buckets));
+	}
+
+	@Test
+	void copyIsIndependent() {
+		TypedAction first = new TypedAction(1);
+		TypedAction second = new TypedAction(2);
+		ActionBuckets buckets = new ActionBuckets();
+		buckets.add(first);
+		ActionBuckets copy = new ActionBuckets(buckets);
+		copy.add(second);
+		copy.remove(first);
+
+		assertEquals(List.of(first), list(buckets));
+		assertEquals(List.of(second), list(copy));
+	}
+
+	@Test
+	void clearedBucketsCanBeFilledAgain() {
+		TypedAction first = new TypedAction(1);
+		TypedAction second = new TypedAction(2);
+		ActionBuckets buckets = new ActionBuckets();
+		buckets.add(first);
+		buckets.add(second);
+		buckets.clear();
+		buckets.add(second);
+
+		assertEquals(List.of(second), list(buckets));
+		assertSame(second, buckets.chooseRandom(new SplittableRandom(1), true));
+	}
+
+	private static List<Action> list(ActionBuckets buckets) {
+		List<Action> actions = new ArrayList<>();
+		buckets.addTo(actions);
+		return actions;
+	}
+
+	/**
+	 * An action of a given type, every instance is a different action
+	 */
+	private static class TypedAction implements Action {
+		private final int typeId;
+
+		private TypedAction(int typeId) {
+			this.typeId = typeId;
+		}
+
+		@Override
+		public Game performAction(Game game) {
+			return game;
+		}
+
+		@Override
+		public int getTypeId() {
+			return typeId;
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package mcts.domain.ai.distributed;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchRequestTests {
+	private static final int MAX_GAME_LENGTH = 64;
+
+	@Test
+	void requestIsReadBack() throws IOException {
+		byte[] data = write(new SearchRequest(1, 2500, 4000, new byte[]{3, 1, 4, 1, 5}));
+		//player, time budget, maximum simulations, length of the game and the game itself
+		assertEquals(4 + 8 + 4 + 4 + 5, data.length);
+
+		SearchRequest request = SearchRequest.read(new DataInputStream(new ByteArrayInputStream(data)), MAX_GAME_LENGTH);
+		assertEquals(1, request.getPlayerId());
+		assertEquals(2500, request.getTimeBudget());
+		assertEquals(4000, request.getMaxSimulations());
+		assertArrayEquals(new byte[]{3, 1, 4, 1, 5}, request.getGame());
+	}
+
+	@Test
+	void requestsFollowEachOtherOnOneConnection() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		new SearchRequest(0, 100, 10, new byte[0]).write(out);
+		new SearchRequest(1, 200, 20, new byte[]{7}).write(out);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals(0, SearchRequest.read(in, MAX_GAME_LENGTH).getGame().length);
+		SearchRequest second = SearchRequest.read(in, MAX_GAME_LENGTH);
+		assertEquals(200, second.getTimeBudget());
+		assertArrayEquals(new byte[]{7}, second.getGame());
+		assertThrows(EOFException.class, () -> SearchRequest.read(in, MAX_GAME_LENGTH));
+	}
+
+	@Test
+	void truncatedRequestIsRejected() throws IOException {
+		byte[] data = write(new SearchRequest(1, 2500, 4000, new byte[]{3, 1, 4, 1, 5}));
+
+		byte[] truncated = Arrays.copyOf(data, data.length - 1);
+		assertThrows(EOFException.class, () -> SearchRequest.read(new DataInputStream(new ByteArrayInputStream(truncated)), MAX_GAME_LENGTH));
+	}
+
+	@Test
+	void negativeGameLengthIsRejected() throws IOException {
+		byte[] data = writeHeader(-1);
+
+		assertThrows(IOException.class, () -> SearchRequest.read(new DataInputStream(new ByteArrayInputStream(data)), MAX_GAME_LENGTH));
+	}
+
+	@Test
+	void gameLengthAboveTheMaximumIsRejected() throws IOException {
+		//the length is refused before the game state is allocated, the game state itself isn't even sent
+		byte[] data = writeHeader(Integer.MAX_VALUE);
+		assertThrows(IOException.class, () -> SearchRequest.read(new DataInputStream(new ByteArrayInputStream(data)), MAX_GAME_LENGTH));
+
+		byte[] largest = write(new SearchRequest(1, 2500, 4000, new byte[MAX_GAME_LENGTH]));
+		assertEquals(MAX_GAME_LENGTH, SearchRequest.read(new DataInputStream(new ByteArrayInputStream(largest)), MAX_GAME_LENGTH).getGame().length);
+		byte[] tooLarge = write(new SearchRequest(1, 2500, 4000, new byte[MAX_GAME_LENGTH + 1]));
+		assertThrows(IOException.class, () -> SearchRequest.read(new DataInputStream(new ByteArrayInputStream(tooLarge)), MAX_GAME_LENGTH));
+	}
+
+	/**
+	 * Write the fields of a request up to the length of its game state
+	 *
+	 * @param length the length of the game state
+	 * @return the written fields
+	 * @throws IOException when the fields can't be written
+	 */
+	private static byte[] writeHeader(int length) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0);
+		out.writeLong(100);
+		out.writeInt(10);
+		out.writeInt(length);
+		return bytes.toByteArray();
+	}
+
+	private static byte[] write(SearchRequest request) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		request.write(new DataOutputStream(bytes));
+		return bytes.toByteArray();
+	}
+
+}
@@ -0,0 +1,75 @@
+package mcts.domain.ai.distributed;
+
+import mcts.domain.ai.MoveStatistics;
+import mcts.domain.ai.actions.Action;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchResponseTests {
+
+	@Test
+	void responseIsReadBack() throws IOException {
+		byte[] data = write(new SearchResponse(1200, List.of(new MoveStatistics(4, 700, 5600.5, 56000.25),
+				new MoveStatistics(Action.NO_KEY + 1, 500, -10, 100))));
+		//simulations, number of moves and per move the action key, visits, win score and squared score
+		assertEquals(4 + 4 + 2 * (8 + 4 + 8 + 8), data.length);
+
+		SearchResponse response = SearchResponse.read(new DataInputStream(new ByteArrayInputStream(data)));
+		assertEquals(1200, response.getSimulations());
+		assertEquals(2, response.getMoves().size());
+		MoveStatistics first = response.getMoves().get(0);
+		assertEquals(4, first.getActionKey());
+		assertEquals(700, first.getVisits());
+		assertEquals(5600.5, first.getWinScore(), 0);
+		assertEquals(56000.25, first.getSquaredScore(), 0);
+		MoveStatistics second = response.getMoves().get(1);
+		assertEquals(Action.NO_KEY + 1, second.getActionKey());
+		assertEquals(-10, second.getWinScore(), 0);
+	}
+
+	@Test
+	void responseWithoutMovesIsReadBack() throws IOException {
+		byte[] data = write(new SearchResponse(0, List.of()));
+
+		SearchResponse response = SearchResponse.read(new DataInputStream(new ByteArrayInputStream(data)));
+		assertEquals(0, response.getSimulations());
+		assertTrue(response.getMoves().isEmpty());
+	}
+
+	@Test
+	void truncatedResponseIsRejected() throws IOException {
+		byte[] data = write(new SearchResponse(10, List.of(new MoveStatistics(1, 10, 5, 25))));
+
+		byte[] truncated = Arrays.copyOf(data, data.length - 1);
+		assertThrows(EOFException.class, () -> SearchResponse.read(new DataInputStream(new ByteArrayInputStream(truncated))));
+	}
+
+	@Test
+	void negativeNumberOfMovesIsRejected() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(10);
+		out.writeInt(-3);
+
+		assertThrows(IOException.class, () -> SearchResponse.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+	}
+
+	private static byte[] write(SearchResponse response) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		response.write(new DataOutputStream(bytes));
+		return bytes.toByteArray();
+	}
+
+}
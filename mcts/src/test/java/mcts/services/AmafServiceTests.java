@@ -0,0 +1,62 @@
+package mcts.services;
+
+import mcts.config.AiConfig;
+import mcts.domain.ai.AmafMoves;
+import mcts.domain.ai.Node;
+import mcts.domain.ai.evaluation.Evaluation;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AmafServiceTests {
+
+	@Test
+	void movesAreOnlyRecordedForSingleRolloutsWithRave() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		AiService aiService = new CountdownAiService(aiConfig);
+		AmafService amafService = new AmafService(aiConfig, aiService);
+		assertNull(amafService.startSimulation(1));
+
+		aiConfig.setUseRave(true);
+		AmafMoves moves = amafService.startSimulation(1);
+		assertNotNull(moves);
+		moves.add(0, 1);
+		assertEquals(0, amafService.startSimulation(1).size());
+		assertNull(amafService.startSimulation(4));
+	}
+
+	@Test
+	void childrenWhoseMoveWasPlayedLaterGetTheResult() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseRave(true);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			MonteCarloService monteCarloService = fixture.getMonteCarloService();
+			AmafService amafService = new AmafService(aiConfig, fixture.getAiService());
+			Node root = MonteCarloServiceTests.createRoot(new CountdownGame(5));
+			monteCarloService.expandNode(root);
+			Node takeOne = root.getChildArray().get(0);
+			Node takeTwo = root.getChildArray().get(1);
+			monteCarloService.expandNode(takeOne);
+			Node replyOne = takeOne.getChildArray().get(0);
+			Node replyTwo = takeOne.getChildArray().get(1);
+			//the first player took two counters later on in the rollout
+			AmafMoves moves = amafService.startSimulation(1);
+			moves.add(0, 2);
+
+			amafService.update(replyTwo, null, Evaluation.of(0), moves);
+			//the moves on the path count as played later on for the children of the nodes above them
+			assertAmaf(takeOne, 1, aiConfig.getWinScore());
+			assertAmaf(takeTwo, 1, aiConfig.getWinScore());
+			assertAmaf(replyTwo, 1, 0);
+			assertAmaf(replyOne, 0, 0);
+		}
+	}
+
+	private static void assertAmaf(Node node, int amafVisits, double amafScore) {
+		assertEquals(amafVisits, node.getState().getAmafVisits());
+		assertEquals(amafScore, node.getState().getAmafScore(), 1e-9);
+	}
+
+}
@@ -0,0 +1,74 @@
+package mcts.services;
+
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.Action;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The game logic of the countdown game for the tests
+ */
+class CountdownAiService extends AiService {
+	private static final CountdownMove[] MOVES = {new CountdownMove(1), new CountdownMove(2)};
+
+	private final AiConfig aiConfig;
+
+	CountdownAiService(AiConfig aiConfig) {
+		super(aiConfig);
+		this.aiConfig = aiConfig;
+	}
+
+	@Override
+	public List<Action> getLegalActions(Game game) {
+		CountdownGame countdownGame = (CountdownGame) game;
+		List<Action> legalActions = new ArrayList<>(2);
+		for (int amount = 1; amount <= Math.min(2, countdownGame.getCounters()); amount++) {
+			legalActions.add(MOVES[amount - 1]);
+		}
+		return legalActions;
+	}
+
+	@Override
+	public int getStatus(Game game, boolean stoppedSimulation) {
+		CountdownGame countdownGame = (CountdownGame) game;
+		if (countdownGame.getWinner() != CountdownGame.NO_WINNER) {
+			return countdownGame.getWinner();
+		}
+		return stoppedSimulation ? aiConfig.getDraw() : aiConfig.getOngoingGame();
+	}
+
+	@Override
+	public int getCurrentPlayer(Game game) {
+		return ((CountdownGame) game).getCurrentPlayer();
+	}
+
+	@Override
+	public boolean isSameState(Game game, Game otherGame) {
+		CountdownGame countdownGame = (CountdownGame) game;
+		CountdownGame otherCountdownGame = (CountdownGame) otherGame;
+		return countdownGame.getCounters() == otherCountdownGame.getCounters()
+				&& countdownGame.getCurrentPlayer() == otherCountdownGame.getCurrentPlayer();
+	}
+
+	@Override
+	public long getStateHash(Game game) {
+		return game.getStateHash();
+	}
+
+	@Override
+	protected void writeGame(Game game, DataOutput out) throws IOException {
+		CountdownGame countdownGame = (CountdownGame) game;
+		out.writeInt(countdownGame.getCounters());
+		out.writeInt(countdownGame.getCurrentPlayer());
+	}
+
+	@Override
+	protected Game readGame(DataInput in) throws IOException {
+		return new CountdownGame(in.readInt(), in.readInt());
+	}
+}
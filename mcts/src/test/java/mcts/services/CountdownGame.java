@@ -0,0 +1,59 @@
+package mcts.services;
+
+import lombok.Getter;
+import mcts.domain.Game;
+
+/**
+ * A tiny game for the tests: the players take turns to take 1 or 2 counters, the player who takes the last counter wins.
+ * The same number of counters can be reached along different paths, so its search trees have transpositions
+ */
+@Getter
+class CountdownGame extends Game {
+	static final int NO_WINNER = -1;
+
+	private int counters;
+	private int currentPlayer;
+	private int winner = NO_WINNER;
+
+	CountdownGame(int counters) {
+		this(counters, 0);
+	}
+
+	CountdownGame(int counters, int currentPlayer) {
+		this.counters = counters;
+		this.currentPlayer = currentPlayer;
+		updateHash();
+	}
+
+	private CountdownGame(CountdownGame game) {
+		super(game);
+		this.counters = game.counters;
+		this.currentPlayer = game.currentPlayer;
+		this.winner = game.winner;
+	}
+
+	void take(int amount) {
+		counters -= amount;
+		if (counters == 0) {
+			winner = currentPlayer;
+		}
+		currentPlayer = 1 - currentPlayer;
+		updateHash();
+	}
+
+	void undo(int amount) {
+		currentPlayer = 1 - currentPlayer;
+		winner = NO_WINNER;
+		counters += amount;
+		updateHash();
+	}
+
+	private void updateHash() {
+		setStateHash(counters * 2L + currentPlayer);
+	}
+
+	@Override
+	public CountdownGame copy() {
+		return new CountdownGame(this);
+	}
+}
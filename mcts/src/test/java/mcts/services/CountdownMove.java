@@ -0,0 +1,35 @@
+package mcts.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import mcts.domain.Game;
+import mcts.domain.ai.actions.ReversibleAction;
+
+/**
+ * Take 1 or 2 counters in the countdown game
+ */
+@Getter
+@RequiredArgsConstructor
+class CountdownMove implements ReversibleAction {
+	private final int amount;
+
+	@Override
+	public void apply(Game game) {
+		((CountdownGame) game).take(amount);
+	}
+
+	@Override
+	public void undo(Game game) {
+		((CountdownGame) game).undo(amount);
+	}
+
+	@Override
+	public long getActionKey() {
+		return amount;
+	}
+
+	@Override
+	public String toString() {
+		return "CountdownMove(" + amount + ")";
+	}
+}
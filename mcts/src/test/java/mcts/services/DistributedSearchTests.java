@@ -0,0 +1,134 @@
+package mcts.services;
+
+import mcts.config.AiConfig;
+import mcts.domain.SimulationResult;
+import mcts.domain.ai.SearchStatistics;
+import mcts.domain.ai.distributed.SearchRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistributedSearchTests {
+
+	@Test
+	void coordinatorMergesTheSearchOfAWorker() {
+		AiConfig workerConfig = SearchFixture.createConfig();
+		workerConfig.setUseDistributedWorker(true);
+		workerConfig.setDistributedWorkerPort(0);
+		try (SearchFixture workerFixture = new SearchFixture(workerConfig)) {
+			DistributedWorkerService worker = new DistributedWorkerService(workerConfig, workerFixture.getAiService(),
+					workerFixture.getMonteCarloService());
+			worker.start();
+			try (SearchFixture fixture = new SearchFixture(createCoordinatorConfig("localhost:" + worker.getPort()))) {
+				SimulationResult result = fixture.getMonteCarloService().findNextMove(new CountdownGame(30));
+
+				//the simulations are divided over the coordinator and the worker
+				SearchStatistics statistics = result.getStatistics();
+				assertEquals(500, statistics.getSimulations());
+				int[] rootChildVisits = statistics.getRootChildVisits();
+				assertEquals(500, rootChildVisits[0] + rootChildVisits[1]);
+				assertNotNull(result.getAction());
+			} finally {
+				worker.stop();
+			}
+		}
+	}
+
+	@Test
+	void unreachableWorkerIsLeftOut() throws IOException {
+		int port;
+		try (ServerSocket closed = new ServerSocket(0)) {
+			port = closed.getLocalPort();
+		}
+		try (SearchFixture fixture = new SearchFixture(createCoordinatorConfig("localhost:" + port))) {
+			SimulationResult result = fixture.getMonteCarloService().findNextMove(new CountdownGame(30));
+
+			assertNotNull(result.getAction());
+			assertEquals(250, result.getStatistics().getSimulations());
+		}
+	}
+
+	@Test
+	void workerThatClosesItsConnectionIsLeftOut() throws Exception {
+		try (ServerSocket server = new ServerSocket(0)) {
+			//the worker reads the search and closes the connection without answering
+			Thread worker = new Thread(() -> {
+				try (Socket socket = server.accept()) {
+					SearchRequest.read(new DataInputStream(socket.getInputStream()), Integer.MAX_VALUE);
+				} catch (IOException e) {
+					//the test fails on the result of the coordinator
+				}
+			});
+			worker.start();
+			try (SearchFixture fixture = new SearchFixture(createCoordinatorConfig("localhost:" + server.getLocalPort()))) {
+				SimulationResult result = fixture.getMonteCarloService().findNextMove(new CountdownGame(30));
+
+				assertNotNull(result.getAction());
+				assertEquals(250, result.getStatistics().getSimulations());
+			}
+			worker.join();
+		}
+	}
+
+	@Test
+	void slowWorkerIsLeftOutAfterTheGracePeriod() throws Exception {
+		AiConfig aiConfig = createCoordinatorConfig(null);
+		aiConfig.setUseNumberOfSimulations(false);
+		aiConfig.setSimulationTime(300);
+		aiConfig.setDistributedGracePeriod(200);
+		CountDownLatch answered = new CountDownLatch(1);
+		try (ServerSocket server = new ServerSocket(0)) {
+			//the worker reads the search and doesn't answer before the test is done
+			Thread worker = new Thread(() -> {
+				try (Socket socket = server.accept()) {
+					SearchRequest.read(new DataInputStream(socket.getInputStream()), Integer.MAX_VALUE);
+					answered.await();
+				} catch (IOException e) {
+					//the test fails on the result of the coordinator
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			worker.start();
+			aiConfig.setDistributedWorkers(List.of("localhost:" + server.getLocalPort()));
+			try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+				long start = System.currentTimeMillis();
+				SimulationResult result = fixture.getMonteCarloService().findNextMove(new CountdownGame(30));
+				long time = System.currentTimeMillis() - start;
+
+				assertNotNull(result.getAction());
+				assertTrue(result.getStatistics().getSimulations() > 0);
+				assertTrue(time >= aiConfig.getSimulationTime() + aiConfig.getDistributedGracePeriod(), time + " ms");
+				assertTrue(time < aiConfig.getSimulationTime() + aiConfig.getDistributedGracePeriod() + 2000, time + " ms");
+			} finally {
+				answered.countDown();
+			}
+			worker.join();
+		}
+	}
+
+	/**
+	 * Create the settings of a coordinator that divides 500 simulations over itself and one worker
+	 *
+	 * @param worker the worker as host:port, null to set it later
+	 * @return the settings
+	 */
+	private static AiConfig createCoordinatorConfig(String worker) {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseDistributedSearch(true);
+		if (worker != null) {
+			aiConfig.setDistributedWorkers(List.of(worker));
+		}
+		return aiConfig;
+	}
+
+}
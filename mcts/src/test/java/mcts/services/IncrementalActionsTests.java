@@ -0,0 +1,313 @@
+package mcts.services;
+
+import mcts.config.AiConfig;
+import mcts.domain.Game;
+import mcts.domain.ai.SearchRandom;
+import mcts.domain.ai.actions.Action;
+import mcts.domain.ai.actions.ActionBuckets;
+import mcts.domain.ai.actions.IncrementalActions;
+import mcts.domain.ai.actions.ReversibleAction;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalActionsTests {
+	private static final int STEPS = 120_000;
+
+	@Test
+	void bucketsStayEqualToTheLegalActions() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		TokenAiService aiService = new TokenAiService(aiConfig);
+		SplittableRandom random = new SplittableRandom(42);
+		SplittableRandom threadRandom = SearchRandom.current();
+		SearchRandom.use(new SplittableRandom(7));
+		try {
+			TokenGame game = new TokenGame();
+			//the applied actions and the encoded game state before each of them
+			Deque<ReversibleAction> applied = new ArrayDeque<>();
+			Deque<byte[]> encodings = new ArrayDeque<>();
+			int ended = 0;
+			for (int step = 0; step < STEPS; step++) {
+				int choice = random.nextInt(10);
+				if (choice < 5) {
+					byte[] encoding = aiService.encodeGame(game);
+					ReversibleAction action = (ReversibleAction) aiService.chooseRandomAction(game);
+					if (action == null) {
+						assertTrue(game.isEnded());
+						ended++;
+					}
+					else {
+						action.apply(game);
+						applied.push(action);
+						encodings.push(encoding);
+					}
+				}
+				else if (choice < 8) {
+					if (!applied.isEmpty()) {
+						applied.pop().undo(game);
+						assertArrayEquals(encodings.pop(), aiService.encodeGame(game));
+					}
+				}
+				else if (choice < 9) {
+					TokenGame copy = (TokenGame) game.copy();
+					byte[] encoding = aiService.encodeGame(game);
+					List<Action> legalActions = aiService.getLegalActions(game);
+					ReversibleAction action = (ReversibleAction) aiService.chooseRandomAction(copy);
+					if (action != null) {
+						action.apply(copy);
+						assertArrayEquals(encoding, aiService.encodeGame(game));
+						assertSameActions(legalActions, game.getActionBuckets());
+						action.undo(copy);
+					}
+					game = copy;
+				}
+				else {
+					game = (TokenGame) aiService.decodeGame(aiService.encodeGame(game));
+					//the taken tokens aren't encoded, so the actions before the round trip can't be undone
+					applied.clear();
+					encodings.clear();
+				}
+				assertSameActions(aiService.getLegalActions(game), game.getActionBuckets());
+			}
+			//the random walk has to reach the end of the game and come back from it
+			assertTrue(ended > 0);
+		} finally {
+			SearchRandom.use(threadRandom);
+		}
+	}
+
+	@Test
+	void noActionIsChosenWhenTheGameHasEnded() {
+		TokenAiService aiService = new TokenAiService(SearchFixture.createConfig());
+		TokenGame game = new TokenGame();
+		while (!game.isEnded()) {
+			((ReversibleAction) aiService.chooseRandomAction(game)).apply(game);
+		}
+
+		assertTrue(aiService.getLegalActions(game).isEmpty());
+		assertNull(aiService.chooseRandomAction(game));
+	}
+
+	private static void assertSameActions(List<Action> legalActions, ActionBuckets buckets) {
+		List<Action> bucketActions = new ArrayList<>();
+		buckets.addTo(bucketActions);
+		assertEquals(legalActions.size(), buckets.size());
+		assertEquals(legalActions.size(), bucketActions.size());
+		assertEquals(new HashSet<>(legalActions), new HashSet<>(bucketActions));
+	}
+
+	/**
+	 * A game on a row of cells in which the players place tokens on empty cells and take tokens from occupied cells,
+	 * it ends after a number of moves. The legal actions are kept in buckets, placing and taking are different types
+	 */
+	static class TokenGame extends Game implements IncrementalActions {
+		static final int CELLS = 8;
+		static final int MAX_MOVES = 12;
+		static final int EMPTY = -1;
+		private static final ActionBuckets NO_ACTIONS = new ActionBuckets();
+
+		private final int[] cells;
+		//the owner of every taken token, so taking it can be undone
+		private final int[] takenOwners;
+		private int takenCount;
+		private final ActionBuckets actionBuckets;
+		private int currentPlayer;
+		private int moves;
+
+		TokenGame() {
+			this.cells = new int[CELLS];
+			this.takenOwners = new int[MAX_MOVES];
+			this.actionBuckets = new ActionBuckets();
+			Arrays.fill(cells, EMPTY);
+			resetActionBuckets();
+		}
+
+		TokenGame(TokenGame game) {
+			super(game);
+			this.cells = game.cells.clone();
+			this.takenOwners = game.takenOwners.clone();
+			this.takenCount = game.takenCount;
+			this.actionBuckets = new ActionBuckets(game.actionBuckets);
+			this.currentPlayer = game.currentPlayer;
+			this.moves = game.moves;
+		}
+
+		@Override
+		public Game copy() {
+			return new TokenGame(this);
+		}
+
+		void place(int cell) {
+			cells[cell] = currentPlayer;
+			actionBuckets.remove(PlaceToken.MOVES[cell]);
+			actionBuckets.add(TakeToken.MOVES[cell]);
+			nextTurn(1);
+		}
+
+		void unplace(int cell) {
+			cells[cell] = EMPTY;
+			actionBuckets.remove(TakeToken.MOVES[cell]);
+			actionBuckets.add(PlaceToken.MOVES[cell]);
+			nextTurn(-1);
+		}
+
+		void take(int cell) {
+			takenOwners[takenCount++] = cells[cell];
+			cells[cell] = EMPTY;
+			actionBuckets.remove(TakeToken.MOVES[cell]);
+			actionBuckets.add(PlaceToken.MOVES[cell]);
+			nextTurn(1);
+		}
+
+		void untake(int cell) {
+			cells[cell] = takenOwners[--takenCount];
+			actionBuckets.remove(PlaceToken.MOVES[cell]);
+			actionBuckets.add(TakeToken.MOVES[cell]);
+			nextTurn(-1);
+		}
+
+		private void nextTurn(int move) {
+			currentPlayer = 1 - currentPlayer;
+			moves += move;
+		}
+
+		boolean isEnded() {
+			return moves >= MAX_MOVES;
+		}
+
+		@Override
+		public ActionBuckets getActionBuckets() {
+			return isEnded() ? NO_ACTIONS : actionBuckets;
+		}
+
+		private void resetActionBuckets() {
+			actionBuckets.clear();
+			for (int cell = 0; cell < CELLS; cell++) {
+				actionBuckets.add(cells[cell] == EMPTY ? PlaceToken.MOVES[cell] : TakeToken.MOVES[cell]);
+			}
+		}
+	}
+
+	static class PlaceToken implements ReversibleAction {
+		static final PlaceToken[] MOVES = new PlaceToken[TokenGame.CELLS];
+
+		static {
+			for (int cell = 0; cell < MOVES.length; cell++) {
+				MOVES[cell] = new PlaceToken(cell);
+			}
+		}
+
+		private final int cell;
+
+		private PlaceToken(int cell) {
+			this.cell = cell;
+		}
+
+		@Override
+		public void apply(Game game) {
+			((TokenGame) game).place(cell);
+		}
+
+		@Override
+		public void undo(Game game) {
+			((TokenGame) game).unplace(cell);
+		}
+	}
+
+	static class TakeToken implements ReversibleAction {
+		static final TakeToken[] MOVES = new TakeToken[TokenGame.CELLS];
+
+		static {
+			for (int cell = 0; cell < MOVES.length; cell++) {
+				MOVES[cell] = new TakeToken(cell);
+			}
+		}
+
+		private final int cell;
+
+		private TakeToken(int cell) {
+			this.cell = cell;
+		}
+
+		@Override
+		public void apply(Game game) {
+			((TokenGame) game).take(cell);
+		}
+
+		@Override
+		public void undo(Game game) {
+			((TokenGame) game).untake(cell);
+		}
+	}
+
+	/**
+	 * The game logic of the token game, the legal actions are found from the cells without the buckets
+	 */
+	static class TokenAiService extends AiService {
+		private final AiConfig aiConfig;
+
+		TokenAiService(AiConfig aiConfig) {
+			super(aiConfig);
+			this.aiConfig = aiConfig;
+		}
+
+		@Override
+		public List<Action> getLegalActions(Game game) {
+			TokenGame tokenGame = (TokenGame) game;
+			List<Action> legalActions = new ArrayList<>(TokenGame.CELLS);
+			if (tokenGame.isEnded()) {
+				return legalActions;
+			}
+			for (int cell = 0; cell < TokenGame.CELLS; cell++) {
+				legalActions.add(tokenGame.cells[cell] == TokenGame.EMPTY ? PlaceToken.MOVES[cell] : TakeToken.MOVES[cell]);
+			}
+			return legalActions;
+		}
+
+		@Override
+		public int getStatus(Game game, boolean stoppedSimulation) {
+			return ((TokenGame) game).isEnded() || stoppedSimulation ? aiConfig.getDraw() : aiConfig.getOngoingGame();
+		}
+
+		@Override
+		public int getCurrentPlayer(Game game) {
+			return ((TokenGame) game).currentPlayer;
+		}
+
+		@Override
+		protected void writeGame(Game game, DataOutput out) throws IOException {
+			TokenGame tokenGame = (TokenGame) game;
+			for (int cell : tokenGame.cells) {
+				out.writeByte(cell);
+			}
+			out.writeByte(tokenGame.currentPlayer);
+			out.writeByte(tokenGame.moves);
+		}
+
+		@Override
+		protected Game readGame(DataInput in) throws IOException {
+			TokenGame game = new TokenGame();
+			for (int cell = 0; cell < TokenGame.CELLS; cell++) {
+				game.cells[cell] = in.readByte();
+			}
+			game.currentPlayer = in.readByte();
+			game.moves = in.readByte();
+			game.resetActionBuckets();
+			return game;
+		}
+	}
+}
@@ -0,0 +1,349 @@
+package mcts.services;
+
+import mcts.config.AiConfig;
+import mcts.domain.SimulationResult;
+import mcts.domain.ai.Node;
+import mcts.domain.ai.Search;
+import mcts.domain.ai.SearchStatistics;
+import mcts.domain.ai.State;
+import mcts.domain.ai.TranspositionTable;
+import mcts.domain.ai.evaluation.Evaluation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MonteCarloServiceTests {
+
+	@Test
+	void virtualLossIsRemovedByBackPropagation() {
+		try (SearchFixture fixture = new SearchFixture(SearchFixture.createConfig())) {
+			MonteCarloService monteCarloService = fixture.getMonteCarloService();
+			Node root = createRoot(new CountdownGame(4));
+			monteCarloService.expandNode(root);
+			List<Node> path = new ArrayList<>();
+			Node leaf = monteCarloService.selectPromisingNode(root, 3, path);
+
+			assertEquals(2, path.size());
+			assertSame(root, path.get(0));
+			assertSame(leaf, path.get(1));
+			for (Node node : path) {
+				assertEquals(3, node.getState().getVirtualLoss());
+			}
+
+			monteCarloService.backPropagation(leaf, Evaluation.of(0), 3);
+			for (Node node : path) {
+				assertEquals(0, node.getState().getVirtualLoss());
+				assertEquals(1, node.getState().getVisitCount());
+			}
+		}
+	}
+
+	@Test
+	void virtualLossSendsTheNextSelectionToAnotherChild() {
+		try (SearchFixture fixture = new SearchFixture(SearchFixture.createConfig())) {
+			MonteCarloService monteCarloService = fixture.getMonteCarloService();
+			Node root = createRoot(new CountdownGame(4));
+			monteCarloService.expandNode(root);
+			Node first = monteCarloService.selectPromisingNode(root, 3, new ArrayList<>());
+			Node second = monteCarloService.selectPromisingNode(root, 3, new ArrayList<>());
+
+			assertNotSame(first, second);
+			assertEquals(6, root.getState().getVirtualLoss());
+
+			monteCarloService.backPropagation(first, Evaluation.of(0), 3);
+			monteCarloService.backPropagation(second, Evaluation.of(1), 3);
+			assertEquals(0, root.getState().getVirtualLoss());
+			assertEquals(2, root.getState().getVisitCount());
+		}
+	}
+
+	@Test
+	void treeParallelSearchLeavesNoVirtualLoss() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseTreeParallelization(true);
+		aiConfig.setNumberOfThreads(4);
+		aiConfig.setNumberOfSimulations(2000);
+		//the retained tree is the subtree of the chosen move, it is taken back with a pondering search
+		aiConfig.setUseTreeReuse(true);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			MonteCarloService monteCarloService = fixture.getMonteCarloService();
+			CountdownGame game = new CountdownGame(12);
+			game.setId("tree-parallel");
+			SimulationResult result = monteCarloService.findNextMove(game);
+			int[] rootChildVisits = result.getStatistics().getRootChildVisits();
+			assertEquals(result.getStatistics().getSimulations(), rootChildVisits[0] + rootChildVisits[1]);
+
+			Search search = monteCarloService.startPondering(result.getGame());
+			assertNotNull(search);
+			assertTrue(search.getTree().getRoot().getState().getVisitCount() > 0);
+			for (Node node : collectNodes(search.getTree().getRoot())) {
+				assertEquals(0, node.getState().getVirtualLoss());
+			}
+		}
+	}
+
+	@Test
+	void transpositionsShareOneNode() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseTranspositionTable(true);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			MonteCarloService monteCarloService = fixture.getMonteCarloService();
+			TranspositionTable table = new TranspositionTable(aiConfig.getTranspositionTableSize());
+			Node root = createRoot(new CountdownGame(5));
+			table.put(root.getState().getGame().getStateHash(), root);
+			monteCarloService.expandNode(root, table, new ArrayList<>(List.of(root)));
+			Node takeOne = root.getChildArray().get(0);
+			Node takeTwo = root.getChildArray().get(1);
+
+			assertEquals(2, monteCarloService.expandNode(takeOne, table, new ArrayList<>(List.of(root, takeOne))));
+			//5 - 1 - 2 and 5 - 2 - 1 both leave 2 counters for the first player
+			assertEquals(1, monteCarloService.expandNode(takeTwo, table, new ArrayList<>(List.of(root, takeTwo))));
+			assertSame(takeOne.getChildArray().get(1), takeTwo.getChildArray().get(0));
+		}
+	}
+
+	@Test
+	void backPropagationFollowsThePathThroughASharedNode() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseTranspositionTable(true);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			MonteCarloService monteCarloService = fixture.getMonteCarloService();
+			TranspositionTable table = new TranspositionTable(aiConfig.getTranspositionTableSize());
+			Node root = createRoot(new CountdownGame(5));
+			table.put(root.getState().getGame().getStateHash(), root);
+			monteCarloService.expandNode(root, table, new ArrayList<>(List.of(root)));
+			Node takeOne = root.getChildArray().get(0);
+			Node takeTwo = root.getChildArray().get(1);
+			monteCarloService.expandNode(takeOne, table, new ArrayList<>(List.of(root, takeOne)));
+			monteCarloService.expandNode(takeTwo, table, new ArrayList<>(List.of(root, takeTwo)));
+			Node shared = takeTwo.getChildArray().get(0);
+			//the shared node was created by the first parent, so its parent link leads there
+			assertSame(takeOne, shared.getParent());
+
+			monteCarloService.backPropagation(List.of(root, takeTwo, shared), Evaluation.of(1), 0);
+			assertEquals(1, root.getState().getVisitCount());
+			assertEquals(1, takeTwo.getState().getVisitCount());
+			assertEquals(1, shared.getState().getVisitCount());
+			assertEquals(0, takeOne.getState().getVisitCount());
+			//the score goes to the player who made the move of a node
+			assertEquals(0, takeTwo.getState().getWinScore(), 1e-9);
+			assertEquals(aiConfig.getWinScore(), shared.getState().getWinScore(), 1e-9);
+		}
+	}
+
+	@Test
+	void searchWithTranspositionTableCountsEverySimulationOnce() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseTranspositionTable(true);
+		aiConfig.setUseTreeParallelization(true);
+		aiConfig.setNumberOfThreads(4);
+		aiConfig.setNumberOfSimulations(2000);
+		aiConfig.setUseTreeReuse(true);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			MonteCarloService monteCarloService = fixture.getMonteCarloService();
+			CountdownGame game = new CountdownGame(12);
+			game.setId("transpositions");
+			SimulationResult result = monteCarloService.findNextMove(game);
+			int[] rootChildVisits = result.getStatistics().getRootChildVisits();
+			assertEquals(result.getStatistics().getSimulations(), rootChildVisits[0] + rootChildVisits[1]);
+
+			Search search = monteCarloService.startPondering(result.getGame());
+			assertNotNull(search);
+			Set<Node> nodes = collectNodes(search.getTree().getRoot());
+			int parentLinks = 0;
+			for (Node node : nodes) {
+				parentLinks += node.getChildArray().size();
+				assertEquals(0, node.getState().getVirtualLoss());
+			}
+			//the retained subtree is a graph in which some nodes have more than one parent
+			assertTrue(parentLinks > nodes.size() - 1);
+		}
+	}
+
+	@Test
+	void prunedSearchStaysWithinTheNodeBudget() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setMaxNodes(60);
+		aiConfig.setNumberOfSimulations(3000);
+		aiConfig.setUseTreeReuse(true);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			MonteCarloService monteCarloService = fixture.getMonteCarloService();
+			CountdownGame game = new CountdownGame(30);
+			game.setId("pruning");
+			SimulationResult result = monteCarloService.findNextMove(game);
+			//an expansion that starts below the budget may add both children of a node
+			assertTrue(result.getStatistics().getNodeCount() <= aiConfig.getMaxNodes() + 1);
+			int[] rootChildVisits = result.getStatistics().getRootChildVisits();
+			assertEquals(result.getStatistics().getSimulations(), rootChildVisits[0] + rootChildVisits[1]);
+
+			Search search = monteCarloService.startPondering(result.getGame());
+			assertNotNull(search);
+			Set<Node> nodes = collectNodes(search.getTree().getRoot());
+			assertTrue(nodes.size() <= aiConfig.getMaxNodes());
+			//a collapsed node keeps the visits of the nodes that were removed below it
+			for (Node node : nodes) {
+				int childVisits = 0;
+				for (Node child : node.getChildArray()) {
+					childVisits += child.getState().getVisitCount();
+				}
+				assertTrue(childVisits <= node.getState().getVisitCount());
+			}
+		}
+	}
+
+	@Test
+	void prunedTreeKeepsGrowingBelowTheBestMoves() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setMaxNodes(60);
+		aiConfig.setNumberOfSimulations(3000);
+		aiConfig.setUsePruning(false);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			SearchStatistics full = fixture.getMonteCarloService().findNextMove(new CountdownGame(30)).getStatistics();
+			aiConfig.setUsePruning(true);
+			SearchStatistics pruned = fixture.getMonteCarloService().findNextMove(new CountdownGame(30)).getStatistics();
+
+			assertTrue(full.getNodeCount() <= aiConfig.getMaxNodes() + 1);
+			//without pruning the tree stops growing once it is full, with pruning the deep lines are searched again and again
+			assertTrue(pruned.getMaxDepth() > full.getMaxDepth(), pruned.getMaxDepth() + " <= " + full.getMaxDepth());
+		}
+	}
+
+	@Test
+	void treeParallelSearchesPruneOneAtATime() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setMaxNodes(60);
+		aiConfig.setNumberOfSimulations(3000);
+		aiConfig.setUseTreeParallelization(true);
+		aiConfig.setNumberOfThreads(4);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			SimulationResult result = fixture.getMonteCarloService().findNextMove(new CountdownGame(30));
+			//every thread can finish an expansion it started below the budget
+			assertTrue(result.getStatistics().getNodeCount() <= aiConfig.getMaxNodes() + 2 * aiConfig.getNumberOfThreads());
+			int[] rootChildVisits = result.getStatistics().getRootChildVisits();
+			assertEquals(result.getStatistics().getSimulations(), rootChildVisits[0] + rootChildVisits[1]);
+		}
+	}
+
+	@Test
+	void searchStopsEarlyOnceItsMoveIsDecided() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseEarlyStopping(true);
+		aiConfig.setEarlyStoppingInterval(100);
+		aiConfig.setEarlyStoppingMinVisits(50);
+		//every difference between the averages separates the best two moves
+		aiConfig.setEarlyStoppingConfidence(0);
+		for (boolean useArrayTree : new boolean[]{false, true}) {
+			aiConfig.setUseArrayTree(useArrayTree);
+			try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+				SearchStatistics statistics = fixture.getMonteCarloService().findNextMove(new CountdownGame(30)).getStatistics();
+
+				assertTrue(statistics.isStoppedEarly());
+				assertTrue(statistics.getSimulations() < aiConfig.getNumberOfSimulations(), statistics.getSimulations() + " simulations");
+				assertEquals(0, statistics.getSimulations() % aiConfig.getEarlyStoppingInterval());
+			}
+		}
+	}
+
+	@Test
+	void closeSearchIsExtendedOnce() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseEarlyStopping(true);
+		aiConfig.setUseTimeExtension(true);
+		aiConfig.setTimeExtensionFactor(0.5);
+		//no difference between the averages separates the best two moves
+		aiConfig.setEarlyStoppingConfidence(1e9);
+		for (boolean useArrayTree : new boolean[]{false, true}) {
+			aiConfig.setUseArrayTree(useArrayTree);
+			try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+				SearchStatistics statistics = fixture.getMonteCarloService().findNextMove(new CountdownGame(30)).getStatistics();
+
+				assertFalse(statistics.isStoppedEarly());
+				assertTrue(statistics.isExtended());
+				assertEquals(750, statistics.getSimulations());
+			}
+		}
+	}
+
+	@Test
+	void searchesWithTheSameSeedAreTheSame() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			MonteCarloService monteCarloService = fixture.getMonteCarloService();
+			SimulationResult first = monteCarloService.findNextMove(new CountdownGame(30));
+			SimulationResult second = monteCarloService.findNextMove(new CountdownGame(30));
+			assertSameSearch(first, second);
+
+			aiConfig.setRandomSeed(43);
+			SimulationResult otherSeed = monteCarloService.findNextMove(new CountdownGame(30));
+			assertNotEquals(first.getStatistics().getRolloutMoves(), otherSeed.getStatistics().getRolloutMoves());
+		}
+	}
+
+	@Test
+	void leafParallelSearchesWithTheSameSeedAreTheSame() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseLeafParallelization(true);
+		aiConfig.setLeafRollouts(8);
+		aiConfig.setNumberOfThreads(4);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			MonteCarloService monteCarloService = fixture.getMonteCarloService();
+			//the shares of the rollouts are played by whichever thread claims them first
+			SimulationResult first = monteCarloService.findNextMove(new CountdownGame(30));
+			for (int i = 0; i < 5; i++) {
+				assertSameSearch(first, monteCarloService.findNextMove(new CountdownGame(30)));
+			}
+		}
+	}
+
+	/**
+	 * Check that two searches chose the same move with the same simulations
+	 *
+	 * @param expected the first search
+	 * @param actual   the search that has to be the same
+	 */
+	static void assertSameSearch(SimulationResult expected, SimulationResult actual) {
+		assertEquals(expected.getAction().getActionKey(), actual.getAction().getActionKey());
+		SearchStatistics expectedStatistics = expected.getStatistics();
+		SearchStatistics actualStatistics = actual.getStatistics();
+		assertEquals(expectedStatistics.getSimulations(), actualStatistics.getSimulations());
+		assertArrayEquals(expectedStatistics.getRootChildVisits(), actualStatistics.getRootChildVisits());
+		assertEquals(expectedStatistics.getNodeCount(), actualStatistics.getNodeCount());
+		assertEquals(expectedStatistics.getMaxDepth(), actualStatistics.getMaxDepth());
+		assertEquals(expectedStatistics.getRollouts(), actualStatistics.getRollouts());
+		assertEquals(expectedStatistics.getRolloutMoves(), actualStatistics.getRolloutMoves());
+		assertArrayEquals(expectedStatistics.getRolloutLengths(), actualStatistics.getRolloutLengths());
+	}
+
+	static Node createRoot(CountdownGame game) {
+		return new Node(new State(game, game.getCurrentPlayer()));
+	}
+
+	static Set<Node> collectNodes(Node root) {
+		Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Node> open = new ArrayDeque<>();
+		open.push(root);
+		while (!open.isEmpty()) {
+			Node node = open.pop();
+			if (nodes.add(node)) {
+				node.getChildArray().forEach(open::push);
+			}
+		}
+		return nodes;
+	}
+
+}
@@ -0,0 +1,174 @@
+package mcts.services;
+
+import mcts.config.AiConfig;
+import mcts.domain.ai.Node;
+import mcts.domain.ai.RootDecision;
+import mcts.domain.ai.SearchStatistics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchBudgetServiceTests {
+
+	@Test
+	void rootIsCheckedOncePerIntervalWhateverTheSimulationsPerIteration() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseEarlyStopping(true);
+		aiConfig.setEarlyStoppingInterval(100);
+		SearchBudgetService searchBudgetService = new SearchBudgetService(aiConfig);
+
+		for (int simulationsPerIteration : new int[]{1, 3, 8, 64}) {
+			int checks = 0;
+			int simulations = 0;
+			while (simulations < 1000) {
+				simulations += simulationsPerIteration;
+				checks += searchBudgetService.isEarlyStoppingCheck(simulations - simulationsPerIteration, simulations) ? 1 : 0;
+			}
+			assertEquals(simulations / 100, checks);
+		}
+		//an iteration that passes several intervals checks the root once
+		assertTrue(searchBudgetService.isEarlyStoppingCheck(50, 350));
+		assertFalse(searchBudgetService.isEarlyStoppingCheck(100, 199));
+	}
+
+	@Test
+	void rootIsNotCheckedWithoutEarlyStopping() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseEarlyStopping(false);
+		SearchBudgetService searchBudgetService = new SearchBudgetService(aiConfig);
+
+		assertFalse(searchBudgetService.isEarlyStoppingCheck(0, 1000));
+	}
+
+	@Test
+	void singleMoveIsDecidedAtOnce() {
+		SearchBudgetService searchBudgetService = new SearchBudgetService(createEarlyStoppingConfig());
+		Node root = new Node();
+		addChild(root, 1, 10.0, 100.0);
+
+		assertTrue(searchBudgetService.isDecided(RootDecision.of(root)));
+	}
+
+	@Test
+	void searchOfASingleMoveStopsAtTheFirstCheck() {
+		SearchBudgetService searchBudgetService = new SearchBudgetService(createEarlyStoppingConfig());
+		Node root = new Node();
+		addChild(root, 1, 10.0, 100.0);
+		SearchStatistics statistics = new SearchStatistics();
+
+		//the search stops although the child has fewer visits than 'earlyStoppingMinVisits'
+		assertEquals(100, searchBudgetService.search(() -> 1, () -> RootDecision.of(root), Long.MAX_VALUE, 500, statistics));
+		assertTrue(statistics.isStoppedEarly());
+		assertEquals(", stopped early", searchBudgetService.getBudgetNote(statistics));
+	}
+
+	@Test
+	void leaderNeedsTheMinimumVisits() {
+		AiConfig aiConfig = createEarlyStoppingConfig();
+		aiConfig.setEarlyStoppingMinVisits(200);
+		SearchBudgetService searchBudgetService = new SearchBudgetService(aiConfig);
+
+		assertFalse(searchBudgetService.isDecided(RootDecision.of(createSeparatedRoot())));
+	}
+
+	@Test
+	void separatedLeaderIsDecided() {
+		SearchBudgetService searchBudgetService = new SearchBudgetService(createEarlyStoppingConfig());
+
+		assertTrue(searchBudgetService.isDecided(RootDecision.of(createSeparatedRoot())));
+	}
+
+	@Test
+	void leadInVisitsDoesNotDecideTheMove() {
+		SearchBudgetService searchBudgetService = new SearchBudgetService(createEarlyStoppingConfig());
+
+		//the most visited child isn't the child with the highest average, which one more simulation can change
+		assertFalse(searchBudgetService.isDecided(RootDecision.of(createCloseRoot())));
+	}
+
+	@Test
+	void decidedSearchStopsAtTheFirstCheck() {
+		AiConfig aiConfig = createEarlyStoppingConfig();
+		SearchBudgetService searchBudgetService = new SearchBudgetService(aiConfig);
+		RootDecision decision = RootDecision.of(createSeparatedRoot());
+		SearchStatistics statistics = new SearchStatistics();
+
+		int simulations = searchBudgetService.search(() -> 3, () -> decision, Long.MAX_VALUE, 500, statistics);
+		assertEquals(102, simulations);
+		assertTrue(statistics.isStoppedEarly());
+		assertFalse(searchBudgetService.needsExtension(decision, statistics));
+	}
+
+	@Test
+	void undecidedSearchUsesItsBudgetAndIsExtendedOnce() {
+		AiConfig aiConfig = createEarlyStoppingConfig();
+		aiConfig.setUseTimeExtension(true);
+		aiConfig.setTimeExtensionFactor(0.5);
+		SearchBudgetService searchBudgetService = new SearchBudgetService(aiConfig);
+		RootDecision decision = RootDecision.of(createCloseRoot());
+		SearchStatistics statistics = new SearchStatistics();
+
+		int simulations = searchBudgetService.search(() -> 1, () -> decision, Long.MAX_VALUE, 500, statistics);
+		assertEquals(500, simulations);
+		assertFalse(statistics.isStoppedEarly());
+		assertTrue(searchBudgetService.needsExtension(decision, statistics));
+		assertEquals(250, searchBudgetService.getExtendedSimulations(500));
+		statistics.setExtended(true);
+		assertFalse(searchBudgetService.needsExtension(decision, statistics));
+		assertEquals(" after an extension", searchBudgetService.getBudgetNote(statistics));
+	}
+
+	@Test
+	void singleMoveIsNeverExtended() {
+		AiConfig aiConfig = createEarlyStoppingConfig();
+		aiConfig.setUseTimeExtension(true);
+		SearchBudgetService searchBudgetService = new SearchBudgetService(aiConfig);
+		Node root = new Node();
+		addChild(root, 1, 10.0, 100.0);
+
+		assertFalse(searchBudgetService.needsExtension(RootDecision.of(root), new SearchStatistics()));
+	}
+
+	private static AiConfig createEarlyStoppingConfig() {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseEarlyStopping(true);
+		aiConfig.setEarlyStoppingInterval(100);
+		aiConfig.setEarlyStoppingMinVisits(50);
+		aiConfig.setEarlyStoppingConfidence(2.58);
+		return aiConfig;
+	}
+
+	/**
+	 * Create a root whose best child won 90 of 100 simulations and whose other child won 10 of 100, with a win score of 10
+	 *
+	 * @return the root
+	 */
+	private static Node createSeparatedRoot() {
+		Node root = new Node();
+		addChild(root, 100, 900.0, 9000.0);
+		addChild(root, 100, 100.0, 1000.0);
+		return root;
+	}
+
+	/**
+	 * Create a root whose most visited child has a slightly lower average than a child with few visits
+	 *
+	 * @return the root
+	 */
+	private static Node createCloseRoot() {
+		Node root = new Node();
+		addChild(root, 1000, 5000.0, 50000.0);
+		addChild(root, 60, 306.0, 3060.0);
+		return root;
+	}
+
+	private static void addChild(Node parent, int visits, double winScore, double squaredScore) {
+		Node child = new Node();
+		child.setParent(parent);
+		child.getState().addVisits(visits);
+		child.getState().addScores(winScore, squaredScore);
+		parent.getChildArray().add(child);
+	}
+}
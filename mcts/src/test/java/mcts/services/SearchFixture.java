@@ -0,0 +1,85 @@
+package mcts.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Getter;
+import mcts.config.AiConfig;
+import mcts.config.SelectionPolicyConfig;
+import mcts.domain.ai.UCT;
+import mcts.domain.ai.evaluation.LeafEvaluator;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The services of a search for the countdown game, wired the way the Spring context wires them
+ */
+@Getter
+class SearchFixture implements AutoCloseable {
+	private final AiConfig aiConfig;
+	private final AiService aiService;
+	private final ExecutorService searchExecutor;
+	private final UCT uct;
+	private final PositionCacheService positionCacheService;
+	private final DistributedCoordinatorService distributedCoordinatorService;
+	private final RolloutService rolloutService;
+	private final MonteCarloService monteCarloService;
+
+	SearchFixture(AiConfig aiConfig) {
+		this.aiConfig = aiConfig;
+		this.aiService = new CountdownAiService(aiConfig);
+		this.searchExecutor = Executors.newFixedThreadPool(aiConfig.getSearchThreads(), runnable -> {
+			Thread thread = new Thread(runnable, "mcts-search");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.uct = new UCT(SelectionPolicyConfig.createSelectionPolicy(aiConfig));
+		this.positionCacheService = new PositionCacheService(aiConfig, aiService);
+		positionCacheService.open();
+		this.distributedCoordinatorService = new DistributedCoordinatorService(aiConfig, aiService);
+		distributedCoordinatorService.start();
+		SearchMetricsService searchMetricsService = new SearchMetricsService(new SimpleMeterRegistry());
+		this.rolloutService = new RolloutService(aiConfig, aiService, searchExecutor,
+				new StaticListableBeanFactory().getBeanProvider(LeafEvaluator.class));
+		AmafService amafService = new AmafService(aiConfig, aiService);
+		SearchBudgetService searchBudgetService = new SearchBudgetService(aiConfig);
+		ArrayTreeSearchService arrayTreeSearchService = new ArrayTreeSearchService(aiConfig, aiService, uct, searchMetricsService,
+				rolloutService, searchBudgetService, positionCacheService);
+		this.monteCarloService = new MonteCarloService(aiConfig, aiService, uct, searchExecutor, searchMetricsService,
+				rolloutService, amafService, searchBudgetService, arrayTreeSearchService, positionCacheService, distributedCoordinatorService);
+	}
+
+	/**
+	 * Create the settings of application.properties with a fixed number of simulations and a fixed seed,
+	 * so every search of a test plays the same simulations
+	 *
+	 * @return the settings
+	 */
+	static AiConfig createConfig() {
+		AiConfig aiConfig;
+		try {
+			aiConfig = new Binder(new MapConfigurationPropertySource(PropertiesLoaderUtils.loadProperties(
+					new ClassPathResource("application.properties")))).bindOrCreate("ai", AiConfig.class);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		aiConfig.setUseNumberOfSimulations(true);
+		aiConfig.setNumberOfSimulations(500);
+		aiConfig.setUseRandomSeed(true);
+		aiConfig.setRandomSeed(42);
+		return aiConfig;
+	}
+
+	@Override
+	public void close() {
+		distributedCoordinatorService.stop();
+		searchExecutor.shutdownNow();
+		positionCacheService.close();
+	}
+}
@@ -0,0 +1,263 @@
+package mcts.services;
+
+import mcts.config.AiConfig;
+import mcts.domain.SimulationResult;
+import mcts.domain.ai.SearchRandom;
+import mcts.domain.ai.SearchTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchSchedulerServiceTests {
+
+	@Test
+	void stoppedQueuedSearchGetsItsResultRightAway() throws Exception {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseNumberOfSimulations(false);
+		aiConfig.setNumberOfSchedulerThreads(1);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			SearchSchedulerService scheduler = createScheduler(fixture);
+			try {
+				//the only scheduler thread keeps running the search with the higher priority
+				SearchTask running = scheduler.start(new CountdownGame(30), 0, 1, 60000);
+				SearchTask queued = scheduler.start(new CountdownGame(30), 0, 0, 60000);
+
+				CompletableFuture<SimulationResult> result = scheduler.stop(queued);
+				assertTrue(result.isDone());
+				assertEquals(1, scheduler.getSimulations(queued));
+				assertNotNull(result.get().getGame());
+				assertEquals(1, scheduler.getActiveSearches());
+
+				assertNotNull(getResult(scheduler.stop(running)).getGame());
+				assertEquals(0, scheduler.getActiveSearches());
+			} finally {
+				scheduler.stopWorkers();
+			}
+		}
+	}
+
+	@Test
+	void stoppingASearchKeepsTheGeneratorOfTheCallingThread() throws Exception {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseNumberOfSimulations(false);
+		aiConfig.setNumberOfSchedulerThreads(1);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			SearchSchedulerService scheduler = createScheduler(fixture);
+			try {
+				SearchTask running = scheduler.start(new CountdownGame(30), 0, 1, 60000);
+				SearchTask queued = scheduler.start(new CountdownGame(30), 0, 0, 60000);
+				SplittableRandom callerRandom = SearchRandom.current();
+
+				//the queued search runs its last time slice on this thread
+				assertTrue(scheduler.stop(queued).isDone());
+				assertSame(callerRandom, SearchRandom.current());
+				assertNotSame(queued.getSearch().getRandom(), SearchRandom.current());
+
+				getResult(scheduler.stop(running));
+				assertSame(callerRandom, SearchRandom.current());
+			} finally {
+				scheduler.stopWorkers();
+			}
+		}
+	}
+
+	@Test
+	void searchesStoppedFromOtherThreadsGetOneResultEach() throws Exception {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseNumberOfSimulations(false);
+		aiConfig.setNumberOfSchedulerThreads(4);
+		aiConfig.setTimeSlice(1);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			SearchSchedulerService scheduler = createScheduler(fixture);
+			try {
+				List<SearchTask> tasks = new ArrayList<>();
+				for (int i = 0; i < 40; i++) {
+					tasks.add(scheduler.start(new CountdownGame(30), 0, i % 3, 60000));
+				}
+				//every search is stopped twice at the same time, while some of them are running and some are queued
+				CountDownLatch start = new CountDownLatch(1);
+				List<Thread> stoppers = new ArrayList<>();
+				for (int i = 0; i < 2; i++) {
+					Thread stopper = new Thread(() -> {
+						awaitQuietly(start);
+						tasks.forEach(scheduler::stop);
+					});
+					stopper.start();
+					stoppers.add(stopper);
+				}
+				start.countDown();
+				for (Thread stopper : stoppers) {
+					stopper.join();
+				}
+
+				for (SearchTask task : tasks) {
+					assertNotNull(getResult(task.getResult()).getGame());
+					assertTrue(scheduler.getSimulations(task) > 0);
+				}
+				assertEquals(0, scheduler.getActiveSearches());
+			} finally {
+				scheduler.stopWorkers();
+			}
+		}
+	}
+
+	@Test
+	void extendedSearchRunsTheExtraSimulations() throws Exception {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setNumberOfSimulations(100);
+		aiConfig.setNumberOfSchedulerThreads(2);
+		aiConfig.setTimeSlice(1);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			SearchSchedulerService scheduler = createScheduler(fixture);
+			try {
+				int extended = 0;
+				for (int i = 0; i < 300; i++) {
+					SearchTask task = scheduler.start(new CountdownGame(30), 0, 0, 0);
+					//the extension races with the end of the search, it has to be used when it was accepted
+					boolean accepted = scheduler.extend(task, 0, 100);
+					SimulationResult result = getResult(task.getResult());
+					if (accepted) {
+						extended++;
+						assertTrue(result.getStatistics().getSimulations() >= 200,
+								"an accepted extension was lost after " + result.getStatistics().getSimulations() + " simulations");
+					}
+				}
+				assertTrue(extended > 0);
+				assertEquals(0, scheduler.getActiveSearches());
+			} finally {
+				scheduler.stopWorkers();
+			}
+		}
+	}
+
+	@Test
+	void nextMoveStopsPonderingAndReusesThePonderedTree() throws Exception {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setUseTreeReuse(true);
+		aiConfig.setUsePondering(true);
+		aiConfig.setMaxPonderTime(60000);
+		aiConfig.setNumberOfSchedulerThreads(2);
+		aiConfig.setTimeSlice(5);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			SearchSchedulerService scheduler = createScheduler(fixture);
+			try {
+				CountdownGame game = new CountdownGame(30);
+				game.setId("pondering");
+				CountdownGame afterMove = (CountdownGame) scheduler.findNextMove(game).getGame();
+				//give the pondering search a few time slices while the opponent thinks
+				Thread.sleep(50);
+				CountdownGame opponentMove = afterMove.copy();
+				opponentMove.take(1);
+
+				SimulationResult result = getResult(scheduler.submit(opponentMove));
+				int[] rootChildVisits = result.getStatistics().getRootChildVisits();
+				//the reused tree brings the visits of both earlier searches to the new search
+				assertTrue(rootChildVisits[0] + rootChildVisits[1] > aiConfig.getNumberOfSimulations());
+				assertEquals(0, scheduler.getActiveSearches());
+			} finally {
+				scheduler.stopWorkers();
+			}
+		}
+	}
+
+	@Test
+	void gamesPlayedWhilePonderingAllFinish() throws Exception {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setNumberOfSimulations(50);
+		aiConfig.setUseTreeReuse(true);
+		aiConfig.setUsePondering(true);
+		aiConfig.setMaxPonderTime(60000);
+		aiConfig.setNumberOfSchedulerThreads(3);
+		aiConfig.setTimeSlice(1);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			SearchSchedulerService scheduler = createScheduler(fixture);
+			try {
+				List<Thread> players = new ArrayList<>();
+				List<Throwable> failures = new ArrayList<>();
+				for (int i = 0; i < 6; i++) {
+					CountdownGame game = new CountdownGame(40);
+					game.setId("game-" + i);
+					//every move of the game stops the pondering on the previous move
+					Thread player = new Thread(() -> {
+						try {
+							CountdownGame current = game;
+							while (current.getWinner() == CountdownGame.NO_WINNER) {
+								current = (CountdownGame) getResult(scheduler.submit(current)).getGame();
+							}
+						} catch (Exception | AssertionError e) {
+							synchronized (failures) {
+								failures.add(e);
+							}
+						}
+					});
+					player.start();
+					players.add(player);
+				}
+				for (Thread player : players) {
+					player.join();
+				}
+
+				assertTrue(failures.isEmpty(), "a game failed: " + failures);
+				assertEquals(0, scheduler.getActiveSearches());
+			} finally {
+				scheduler.stopWorkers();
+			}
+		}
+	}
+
+	@Test
+	void scheduledSearchesWithTheSameSeedAreTheSame() throws Exception {
+		AiConfig aiConfig = SearchFixture.createConfig();
+		aiConfig.setNumberOfSchedulerThreads(2);
+		try (SearchFixture fixture = new SearchFixture(aiConfig)) {
+			SearchSchedulerService scheduler = createScheduler(fixture);
+			try {
+				SimulationResult expected = fixture.getMonteCarloService().findNextMove(new CountdownGame(30));
+				//the time slices of concurrent searches run on different threads, in any order
+				List<CompletableFuture<SimulationResult>> results = new ArrayList<>();
+				for (int i = 0; i < 4; i++) {
+					results.add(scheduler.submit(new CountdownGame(30)));
+				}
+				for (CompletableFuture<SimulationResult> result : results) {
+					MonteCarloServiceTests.assertSameSearch(expected, getResult(result));
+				}
+			} finally {
+				scheduler.stopWorkers();
+			}
+		}
+	}
+
+	private static SearchSchedulerService createScheduler(SearchFixture fixture) {
+		SearchSchedulerService scheduler = new SearchSchedulerService(fixture.getAiConfig(), fixture.getAiService(),
+				fixture.getMonteCarloService());
+		scheduler.startWorkers();
+		return scheduler;
+	}
+
+	private static SimulationResult getResult(CompletableFuture<SimulationResult> result)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		return result.get(10, TimeUnit.SECONDS);
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}